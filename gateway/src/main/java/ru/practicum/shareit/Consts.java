@@ -2,4 +2,5 @@ package ru.practicum.shareit;
 
 public class Consts {
     public static final String X_SHARER_USER_ID = "X-Sharer-User-Id";
+    public static final String APPLICATION_NDJSON = "application/x-ndjson";
 }
@@ -8,9 +8,16 @@ import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.booking.dto.BookItemRequestDto;
+import ru.practicum.shareit.booking.dto.BookingBatchApprovalDto;
+import ru.practicum.shareit.booking.dto.BookingBatchRequestDto;
 import ru.practicum.shareit.booking.dto.BookingState;
+import ru.practicum.shareit.booking.dto.BookingStatus;
 import ru.practicum.shareit.client.BaseClient;
 
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 @Service
@@ -27,31 +34,50 @@ public class BookingClient extends BaseClient {
         );
     }
 
-    public ResponseEntity<Object> getBookings(long userId, BookingState state, Integer from, Integer size) {
-        Map<String, Object> parameters = Map.of(
-                "state", state.name(),
-                "from", from,
-                "size", size
-        );
-        return get("?state={state}&from={from}&size={size}", userId, parameters);
+    public ResponseEntity<Object> getBookings(long userId, BookingState state, Long itemId, BookingStatus status,
+                                              LocalDateTime start, LocalDateTime end, Integer from, Integer size,
+                                              String cursor) {
+        return getBookingList("", userId, state, itemId, status, start, end, from, size, cursor);
+    }
+
+    public ResponseEntity<Object> getBookingsByItems(long userId, BookingState state, Long itemId,
+                                                     BookingStatus status, LocalDateTime start, LocalDateTime end,
+                                                     Integer from, Integer size, String cursor) {
+        return getBookingList("/owner", userId, state, itemId, status, start, end, from, size, cursor);
+    }
+
+    public void streamBookings(long userId, BookingState state, Long itemId, BookingStatus status,
+                               LocalDateTime start, LocalDateTime end, HttpServletResponse response)
+            throws IOException {
+        Map<String, Object> parameters = toParameters(state, itemId, status, start, end);
+        stream(toQuery("", parameters), userId, parameters, response);
     }
 
+    public void streamBookingsByItems(long userId, BookingState state, Long itemId, BookingStatus status,
+                                      LocalDateTime start, LocalDateTime end, HttpServletResponse response)
+            throws IOException {
+        Map<String, Object> parameters = toParameters(state, itemId, status, start, end);
+        stream(toQuery("/owner", parameters), userId, parameters, response);
+    }
 
     public ResponseEntity<Object> bookItem(long userId, BookItemRequestDto requestDto) {
         return post("", userId, requestDto);
     }
 
+    public ResponseEntity<Object> bookItems(long userId, BookingBatchRequestDto requestDto) {
+        return post("/batch", userId, requestDto);
+    }
+
     public ResponseEntity<Object> getBooking(long userId, Long bookingId) {
         return get("/" + bookingId, userId);
     }
 
-    public ResponseEntity<Object> getBookingsByItems(long userId, BookingState state, Integer from, Integer size) {
-        Map<String, Object> parameters = Map.of(
-                "state", state.name(),
-                "from", from,
-                "size", size
-        );
-        return get("/owner?state={state}&from={from}&size={size}", userId, parameters);
+    public ResponseEntity<Object> getBookingsSummary(long userId) {
+        return get("/summary", userId);
+    }
+
+    public ResponseEntity<Object> getBookingsSummaryByItems(long userId) {
+        return get("/owner/summary", userId);
     }
 
     public ResponseEntity<Object> approveStatus(long userId, long bookingId, boolean approved) {
@@ -60,4 +86,29 @@ public class BookingClient extends BaseClient {
         );
         return patch("/" + bookingId + "?approved={approved}", userId, parameters);
     }
+
+    public ResponseEntity<Object> approveStatuses(long userId, BookingBatchApprovalDto approvalDto) {
+        return patch("/batch", userId, approvalDto);
+    }
+
+    private ResponseEntity<Object> getBookingList(String path, long userId, BookingState state, Long itemId,
+                                                  BookingStatus status, LocalDateTime start, LocalDateTime end,
+                                                  Integer from, Integer size, String cursor) {
+        Map<String, Object> parameters = toParameters(state, itemId, status, start, end);
+        parameters.put("from", from);
+        parameters.put("size", size);
+        parameters.put("cursor", cursor);
+        return get(toQuery(path, parameters), userId, parameters);
+    }
+
+    private static Map<String, Object> toParameters(BookingState state, Long itemId, BookingStatus status,
+                                                   LocalDateTime start, LocalDateTime end) {
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        parameters.put("state", state.name());
+        parameters.put("itemId", itemId);
+        parameters.put("status", status == null ? null : status.name());
+        parameters.put("start", start);
+        parameters.put("end", end);
+        return parameters;
+    }
 }
@@ -2,17 +2,25 @@ package ru.practicum.shareit.booking;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.booking.dto.BookItemRequestDto;
+import ru.practicum.shareit.booking.dto.BookingBatchApprovalDto;
+import ru.practicum.shareit.booking.dto.BookingBatchRequestDto;
 import ru.practicum.shareit.booking.dto.BookingState;
+import ru.practicum.shareit.booking.dto.BookingStatus;
 
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
+import java.io.IOException;
+import java.time.LocalDateTime;
 
+import static ru.practicum.shareit.Consts.APPLICATION_NDJSON;
 import static ru.practicum.shareit.Consts.X_SHARER_USER_ID;
 
 @Controller
@@ -26,9 +34,29 @@ public class BookingController {
     @GetMapping
     public ResponseEntity<Object> getBookingsByUserIdSorted(@RequestHeader(X_SHARER_USER_ID) long userId,
                                                             @RequestParam(value = "state", defaultValue = "ALL") @Valid BookingState state,
+                                                            @RequestParam(name = "itemId", required = false) Long itemId,
+                                                            @RequestParam(name = "status", required = false) BookingStatus status,
+                                                            @RequestParam(name = "start", required = false)
+                                                            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+                                                            @RequestParam(name = "end", required = false)
+                                                            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end,
                                                             @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
-                                                            @Positive @RequestParam(name = "size", defaultValue = "10") Integer size) {
-        return bookingClient.getBookings(userId, state, from, size);
+                                                            @Positive @RequestParam(name = "size", defaultValue = "10") Integer size,
+                                                            @RequestParam(name = "cursor", required = false) String cursor) {
+        return bookingClient.getBookings(userId, state, itemId, status, start, end, from, size, cursor);
+    }
+
+    @GetMapping(produces = APPLICATION_NDJSON)
+    public void streamBookingsByUserIdSorted(@RequestHeader(X_SHARER_USER_ID) long userId,
+                                             @RequestParam(value = "state", defaultValue = "ALL") @Valid BookingState state,
+                                             @RequestParam(name = "itemId", required = false) Long itemId,
+                                             @RequestParam(name = "status", required = false) BookingStatus status,
+                                             @RequestParam(name = "start", required = false)
+                                             @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+                                             @RequestParam(name = "end", required = false)
+                                             @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end,
+                                             HttpServletResponse response) throws IOException {
+        bookingClient.streamBookings(userId, state, itemId, status, start, end, response);
     }
 
     @PostMapping
@@ -38,6 +66,23 @@ public class BookingController {
         return bookingClient.bookItem(userId, requestDto);
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<Object> addBookings(@RequestHeader(X_SHARER_USER_ID) long userId,
+                                              @RequestBody @Valid BookingBatchRequestDto requestDto) {
+        log.info("Creating {} bookings, userId={}", requestDto.getBookings().size(), userId);
+        return bookingClient.bookItems(userId, requestDto);
+    }
+
+    @GetMapping("/summary")
+    public ResponseEntity<Object> getBookingsSummary(@RequestHeader(X_SHARER_USER_ID) long userId) {
+        return bookingClient.getBookingsSummary(userId);
+    }
+
+    @GetMapping("/owner/summary")
+    public ResponseEntity<Object> getBookingsSummaryByItems(@RequestHeader(X_SHARER_USER_ID) long userId) {
+        return bookingClient.getBookingsSummaryByItems(userId);
+    }
+
     @GetMapping("/{bookingId}")
     public ResponseEntity<Object> getBooking(@RequestHeader(X_SHARER_USER_ID) long userId,
                                              @PathVariable Long bookingId) {
@@ -49,9 +94,37 @@ public class BookingController {
     public ResponseEntity<Object> getBookingsByItems(
             @RequestHeader(X_SHARER_USER_ID) long userId,
             @RequestParam(value = "state", defaultValue = "ALL") @Valid BookingState state,
+            @RequestParam(name = "itemId", required = false) Long itemId,
+            @RequestParam(name = "status", required = false) BookingStatus status,
+            @RequestParam(name = "start", required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+            @RequestParam(name = "end", required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end,
             @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
-            @Positive @RequestParam(name = "size", defaultValue = "10") Integer size) {
-        return bookingClient.getBookingsByItems(userId, state, from, size);
+            @Positive @RequestParam(name = "size", defaultValue = "10") Integer size,
+            @RequestParam(name = "cursor", required = false) String cursor) {
+        return bookingClient.getBookingsByItems(userId, state, itemId, status, start, end, from, size, cursor);
+    }
+
+    @GetMapping(value = "/owner", produces = APPLICATION_NDJSON)
+    public void streamBookingsByItems(
+            @RequestHeader(X_SHARER_USER_ID) long userId,
+            @RequestParam(value = "state", defaultValue = "ALL") @Valid BookingState state,
+            @RequestParam(name = "itemId", required = false) Long itemId,
+            @RequestParam(name = "status", required = false) BookingStatus status,
+            @RequestParam(name = "start", required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+            @RequestParam(name = "end", required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end,
+            HttpServletResponse response) throws IOException {
+        bookingClient.streamBookingsByItems(userId, state, itemId, status, start, end, response);
+    }
+
+    @PatchMapping("/batch")
+    public ResponseEntity<Object> approveStatuses(@RequestHeader(X_SHARER_USER_ID) long userId,
+                                                  @RequestBody @Valid BookingBatchApprovalDto approvalDto) {
+        log.info("Batch approval of {} bookings, userId={}", approvalDto.getBookingIds().size(), userId);
+        return bookingClient.approveStatuses(userId, approvalDto);
     }
 
     @PatchMapping("/{bookingId}")
@@ -0,0 +1,8 @@
+package ru.practicum.shareit.booking.dto;
+
+public enum BookingStatus {
+    WAITING,
+    APPROVED,
+    REJECTED,
+    CANCELED
+}
@@ -2,11 +2,18 @@ package ru.practicum.shareit.client;
 
 import org.springframework.http.*;
 import org.springframework.lang.Nullable;
+import org.springframework.util.StreamUtils;
 import org.springframework.web.client.HttpStatusCodeException;
 import org.springframework.web.client.RestTemplate;
 
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.StringJoiner;
+
+import static ru.practicum.shareit.Consts.APPLICATION_NDJSON;
 
 public class BaseClient {
     protected final RestTemplate rest;
@@ -27,6 +34,40 @@ public class BaseClient {
         return makeAndSendRequest(HttpMethod.GET, path, userId, parameters, null);
     }
 
+    protected ResponseEntity<Object> get(String path, Long userId, @Nullable Map<String, Object> parameters,
+                                         @Nullable String ifNoneMatch) {
+        HttpHeaders headers = defaultHeaders(userId);
+        if (ifNoneMatch != null) {
+            headers.setIfNoneMatch(ifNoneMatch);
+        }
+        return sendRequest(HttpMethod.GET, path, parameters, new HttpEntity<>(headers));
+    }
+
+    /**
+     * Копирует ответ сервера клиенту по мере чтения, не разбирая и не буферизуя его,
+     * поэтому длинные NDJSON-списки проходят через шлюз с постоянным расходом памяти.
+     */
+    protected void stream(String path, long userId, Map<String, Object> parameters, HttpServletResponse response)
+            throws IOException {
+        try {
+            rest.execute(path, HttpMethod.GET, request -> {
+                request.getHeaders().putAll(defaultHeaders(userId));
+                request.getHeaders().setAccept(List.of(MediaType.parseMediaType(APPLICATION_NDJSON)));
+            }, shareitServerResponse -> {
+                response.setStatus(shareitServerResponse.getRawStatusCode());
+                MediaType contentType = shareitServerResponse.getHeaders().getContentType();
+                if (contentType != null) {
+                    response.setContentType(contentType.toString());
+                }
+                StreamUtils.copy(shareitServerResponse.getBody(), response.getOutputStream());
+                return null;
+            }, parameters);
+        } catch (HttpStatusCodeException e) {
+            response.setStatus(e.getRawStatusCode());
+            StreamUtils.copy(e.getResponseBodyAsByteArray(), response.getOutputStream());
+        }
+    }
+
     protected <T> ResponseEntity<Object> post(String path, T body) {
         return post(path, null, null, body);
     }
@@ -79,9 +120,24 @@ public class BaseClient {
         return makeAndSendRequest(HttpMethod.DELETE, path, userId, parameters, null);
     }
 
+    /**
+     * Убирает пустые параметры из карты и строит по оставшимся шаблон запроса.
+     */
+    protected static String toQuery(String path, Map<String, Object> parameters) {
+        parameters.values().removeIf(Objects::isNull);
+        StringJoiner query = new StringJoiner("&", path + "?", "");
+        for (String name : parameters.keySet()) {
+            query.add(name + "={" + name + "}");
+        }
+        return query.toString();
+    }
+
     private <T> ResponseEntity<Object> makeAndSendRequest(HttpMethod method, String path, Long userId, @Nullable Map<String, Object> parameters, @Nullable T body) {
-        HttpEntity<T> requestEntity = new HttpEntity<>(body, defaultHeaders(userId));
+        return sendRequest(method, path, parameters, new HttpEntity<>(body, defaultHeaders(userId)));
+    }
 
+    private <T> ResponseEntity<Object> sendRequest(HttpMethod method, String path, @Nullable Map<String, Object> parameters,
+                                                   HttpEntity<T> requestEntity) {
         ResponseEntity<Object> shareitServerResponse;
         try {
             if (parameters != null) {
@@ -112,6 +168,10 @@ public class BaseClient {
 
         ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.status(response.getStatusCode());
 
+        if (response.getStatusCode() == HttpStatus.NOT_MODIFIED) {
+            return responseBuilder.eTag(response.getHeaders().getETag()).build();
+        }
+
         if (response.hasBody()) {
             return responseBuilder.body(response.getBody());
         }
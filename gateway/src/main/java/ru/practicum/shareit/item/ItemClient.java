@@ -12,6 +12,10 @@ import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemUpdatedDto;
 
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 @Service
@@ -28,12 +32,16 @@ public class ItemClient extends BaseClient {
         );
     }
 
-    public ResponseEntity<Object> getItems(long userId, Integer from, Integer size) {
-        Map<String, Object> parameters = Map.of(
-                "from", from,
-                "size", size
-        );
-        return get("?from={from}&size={size}", userId, parameters);
+    public ResponseEntity<Object> getItems(long userId, Integer from, Integer size, String cursor) {
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        parameters.put("from", from);
+        parameters.put("size", size);
+        parameters.put("cursor", cursor);
+        return get(toQuery("", parameters), userId, parameters);
+    }
+
+    public void streamItems(long userId, HttpServletResponse response) throws IOException {
+        stream("", userId, Map.of(), response);
     }
 
     public ResponseEntity<Object> addItem(long userId, ItemDto itemDto) {
@@ -48,13 +56,55 @@ public class ItemClient extends BaseClient {
         return get("/" + itemId, userId);
     }
 
-    public ResponseEntity<Object> searchItem(long userId, String text, Integer from, Integer size) {
-        Map<String, Object> parameters = Map.of(
-                "text", text,
-                "from", from,
-                "size", size
-        );
-        return get("/search?text={text}&from={from}&size={size}", userId, parameters);
+    public ResponseEntity<Object> searchItem(long userId, String text, Integer from, Integer size,
+                                             Boolean fuzzy, Boolean comments, String cursor) {
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        parameters.put("text", text);
+        parameters.put("from", from);
+        parameters.put("size", size);
+        parameters.put("fuzzy", fuzzy);
+        parameters.put("comments", comments);
+        parameters.put("cursor", cursor);
+        return get(toQuery("/search", parameters), userId, parameters);
+    }
+
+    public ResponseEntity<Object> filterItems(long userId, String text, Long ownerId, Long requestId,
+                                              LocalDateTime start, LocalDateTime end, Integer from, Integer size) {
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        parameters.put("from", from);
+        parameters.put("size", size);
+        parameters.put("text", text);
+        parameters.put("ownerId", ownerId);
+        parameters.put("requestId", requestId);
+        parameters.put("start", start);
+        parameters.put("end", end);
+        return get(toQuery("/filter", parameters), userId, parameters);
+    }
+
+    public ResponseEntity<Object> findAvailableItems(long userId, String text, LocalDateTime start, LocalDateTime end,
+                                                     Integer from, Integer size) {
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        parameters.put("text", text);
+        parameters.put("start", start);
+        parameters.put("end", end);
+        parameters.put("from", from);
+        parameters.put("size", size);
+        return get(toQuery("/available", parameters), userId, parameters);
+    }
+
+    public ResponseEntity<Object> getItemCalendar(long userId, long itemId, LocalDateTime from, LocalDateTime to,
+                                                  String ifNoneMatch) {
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        parameters.put("from", from);
+        parameters.put("to", to);
+        return get(toQuery("/" + itemId + "/calendar", parameters), userId, parameters, ifNoneMatch);
+    }
+
+    public ResponseEntity<Object> suggestItemNames(long userId, String prefix, Integer size) {
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        parameters.put("prefix", prefix);
+        parameters.put("size", size);
+        return get(toQuery("/suggest", parameters), userId, parameters);
     }
 
     public ResponseEntity<Object> addComment(long userId, CommentDto commentDto, long itemId) {
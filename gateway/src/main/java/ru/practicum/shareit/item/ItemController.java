@@ -2,6 +2,8 @@ package ru.practicum.shareit.item;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
@@ -9,10 +11,14 @@ import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemUpdatedDto;
 
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
+import java.io.IOException;
+import java.time.LocalDateTime;
 
+import static ru.practicum.shareit.Consts.APPLICATION_NDJSON;
 import static ru.practicum.shareit.Consts.X_SHARER_USER_ID;
 
 @Validated
@@ -26,8 +32,15 @@ public class ItemController {
     @GetMapping
     public ResponseEntity<Object> getItems(@RequestHeader(X_SHARER_USER_ID) long userId,
                                            @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
-                                           @Positive @RequestParam(name = "size", defaultValue = "10") Integer size) {
-        return itemClient.getItems(userId, from, size);
+                                           @Positive @RequestParam(name = "size", defaultValue = "10") Integer size,
+                                           @RequestParam(name = "cursor", required = false) String cursor) {
+        return itemClient.getItems(userId, from, size, cursor);
+    }
+
+    @GetMapping(produces = APPLICATION_NDJSON)
+    public void streamItems(@RequestHeader(X_SHARER_USER_ID) long userId,
+                            HttpServletResponse response) throws IOException {
+        itemClient.streamItems(userId, response);
     }
 
     @PostMapping
@@ -50,8 +63,56 @@ public class ItemController {
     @GetMapping("/search")
     public ResponseEntity<Object> searchItem(@RequestHeader(X_SHARER_USER_ID) long userId, @RequestParam("text") String text,
                                              @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
-                                             @Positive @RequestParam(name = "size", defaultValue = "10") Integer size) {
-        return itemClient.searchItem(userId, text, from, size);
+                                             @Positive @RequestParam(name = "size", defaultValue = "10") Integer size,
+                                             @RequestParam(name = "fuzzy", defaultValue = "false") Boolean fuzzy,
+                                             @RequestParam(name = "comments", defaultValue = "false") Boolean comments,
+                                             @RequestParam(name = "cursor", required = false) String cursor) {
+        return itemClient.searchItem(userId, text, from, size, fuzzy, comments, cursor);
+    }
+
+    @GetMapping("/filter")
+    public ResponseEntity<Object> filterItems(@RequestHeader(X_SHARER_USER_ID) long userId,
+                                              @RequestParam(name = "text", required = false) String text,
+                                              @RequestParam(name = "ownerId", required = false) Long ownerId,
+                                              @RequestParam(name = "requestId", required = false) Long requestId,
+                                              @RequestParam(name = "start", required = false)
+                                              @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+                                              @RequestParam(name = "end", required = false)
+                                              @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end,
+                                              @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
+                                              @Positive @RequestParam(name = "size", defaultValue = "10") Integer size) {
+        return itemClient.filterItems(userId, text, ownerId, requestId, start, end, from, size);
+    }
+
+    @GetMapping("/available")
+    public ResponseEntity<Object> findAvailableItems(@RequestHeader(X_SHARER_USER_ID) long userId,
+                                                     @RequestParam("text") String text,
+                                                     @RequestParam("start")
+                                                     @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+                                                     @RequestParam("end")
+                                                     @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end,
+                                                     @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
+                                                     @Positive @RequestParam(name = "size", defaultValue = "10") Integer size) {
+        return itemClient.findAvailableItems(userId, text, start, end, from, size);
+    }
+
+    @GetMapping("/{itemId}/calendar")
+    public ResponseEntity<Object> getItemCalendar(@RequestHeader(X_SHARER_USER_ID) long userId,
+                                                  @PathVariable long itemId,
+                                                  @RequestParam(name = "from", required = false)
+                                                  @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                  @RequestParam(name = "to", required = false)
+                                                  @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                                                  @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false)
+                                                  String ifNoneMatch) {
+        return itemClient.getItemCalendar(userId, itemId, from, to, ifNoneMatch);
+    }
+
+    @GetMapping("/suggest")
+    public ResponseEntity<Object> suggestItemNames(@RequestHeader(X_SHARER_USER_ID) long userId,
+                                                   @RequestParam("prefix") String prefix,
+                                                   @Positive @RequestParam(name = "size", defaultValue = "10") Integer size) {
+        return itemClient.suggestItemNames(userId, prefix, size);
     }
 
     @PostMapping("/{itemId}/comment")
@@ -10,6 +10,9 @@ import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.client.BaseClient;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 @Service
@@ -26,12 +29,16 @@ public class ItemRequestClient extends BaseClient {
         );
     }
 
-    public ResponseEntity<Object> getItemRequestsSorted(long userId, Integer from, Integer size) {
-        Map<String, Object> parameters = Map.of(
-                "from", from,
-                "size", size
-        );
-        return get("/all?from={from}&size={size}", userId, parameters);
+    public ResponseEntity<Object> getItemRequestsSorted(long userId, Integer from, Integer size, String cursor) {
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        parameters.put("from", from);
+        parameters.put("size", size);
+        parameters.put("cursor", cursor);
+        return get(toQuery("/all", parameters), userId, parameters);
+    }
+
+    public void streamItemRequestsSorted(long userId, HttpServletResponse response) throws IOException {
+        stream("/all", userId, Map.of(), response);
     }
 
     public ResponseEntity<Object> addItemRequest(long userId, ItemRequestDto itemRequestDto) {
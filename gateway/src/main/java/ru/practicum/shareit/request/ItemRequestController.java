@@ -7,10 +7,13 @@ import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
+import java.io.IOException;
 
+import static ru.practicum.shareit.Consts.APPLICATION_NDJSON;
 import static ru.practicum.shareit.Consts.X_SHARER_USER_ID;
 
 
@@ -36,8 +39,15 @@ public class ItemRequestController {
     @GetMapping("/all")
     public ResponseEntity<Object> getItemRequestsSorted(@RequestHeader(X_SHARER_USER_ID) long userId,
                                                         @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
-                                                        @Positive @RequestParam(name = "size", defaultValue = "10") Integer size) {
-        return itemRequestClient.getItemRequestsSorted(userId, from, size);
+                                                        @Positive @RequestParam(name = "size", defaultValue = "10") Integer size,
+                                                        @RequestParam(name = "cursor", required = false) String cursor) {
+        return itemRequestClient.getItemRequestsSorted(userId, from, size, cursor);
+    }
+
+    @GetMapping(value = "/all", produces = APPLICATION_NDJSON)
+    public void streamItemRequestsSorted(@RequestHeader(X_SHARER_USER_ID) long userId,
+                                         HttpServletResponse response) throws IOException {
+        itemRequestClient.streamItemRequestsSorted(userId, response);
     }
 
     @GetMapping("/{requestId}")
@@ -2,4 +2,7 @@ package ru.practicum.shareit;
 
 public class Consts {
     public static final String X_SHARER_USER_ID = "X-Sharer-User-Id";
+    public static final String X_NEXT_CURSOR = "X-Next-Cursor";
+    public static final String APPLICATION_NDJSON = "application/x-ndjson";
+    public static final String STREAM_FETCH_SIZE = "500";
 }
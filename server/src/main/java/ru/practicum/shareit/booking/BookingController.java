@@ -1,18 +1,33 @@
 package ru.practicum.shareit.booking;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.booking.dto.BookingBatchApprovalDto;
+import ru.practicum.shareit.booking.dto.BookingBatchDto;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingFilterDto;
 import ru.practicum.shareit.booking.dto.BookingMapper;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingView;
 import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.pageable.KeysetCursor;
+import ru.practicum.shareit.stream.NdjsonWriter;
 
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
+import static ru.practicum.shareit.Consts.APPLICATION_NDJSON;
+import static ru.practicum.shareit.Consts.X_NEXT_CURSOR;
 import static ru.practicum.shareit.Consts.X_SHARER_USER_ID;
 
 @Validated
@@ -22,6 +37,7 @@ import static ru.practicum.shareit.Consts.X_SHARER_USER_ID;
 @RequestMapping(path = "/bookings")
 public class BookingController {
     private final BookingService bookingService;
+    private final ObjectMapper objectMapper;
 
     @PostMapping
     public BookingResponseDto addBooking(@RequestHeader(X_SHARER_USER_ID) long userId, @RequestBody BookingDto bookingDto) {
@@ -31,6 +47,32 @@ public class BookingController {
         return BookingMapper.toBookingResponseDto(bookingService.addBooking(booking));
     }
 
+    @PostMapping("/batch")
+    public List<BookingResponseDto> addBookings(@RequestHeader(X_SHARER_USER_ID) long userId,
+                                                @RequestBody BookingBatchDto batchDto) {
+        List<Booking> bookings = new ArrayList<>();
+        for (BookingDto bookingDto : batchDto.getBookings()) {
+            Booking booking = BookingMapper.toBooking(bookingDto, userId);
+            booking.setStatus(Status.WAITING);
+            bookings.add(booking);
+        }
+        List<BookingResponseDto> bookingDtos = new ArrayList<>();
+        for (Booking booking : bookingService.addBookings(userId, bookings)) {
+            bookingDtos.add(BookingMapper.toBookingResponseDto(booking));
+        }
+        log.info("Пакетно создано {} бронирований пользователя {}", bookingDtos.size(), userId);
+        return bookingDtos;
+    }
+
+    @PatchMapping("/batch")
+    public List<BookingBatchResultDto> approveStatuses(@RequestHeader(X_SHARER_USER_ID) long userId,
+                                                       @RequestBody BookingBatchApprovalDto approvalDto) {
+        List<BookingBatchResultDto> results = bookingService.approveStatuses(userId, approvalDto.getBookingIds(),
+                approvalDto.isApproved());
+        log.info("Пакетно обработано {} бронирований пользователя {}", results.size(), userId);
+        return results;
+    }
+
     @PatchMapping("/{bookingId}")
     public BookingResponseDto approveStatus(@RequestHeader(X_SHARER_USER_ID) long userId, @PathVariable long bookingId,
                                             @RequestParam("approved") boolean approved) {
@@ -38,6 +80,16 @@ public class BookingController {
         return BookingMapper.toBookingResponseDto(booking);
     }
 
+    @GetMapping("/summary")
+    public Map<State, Long> getBookingsSummary(@RequestHeader(X_SHARER_USER_ID) long userId) {
+        return bookingService.getBookingsSummary(userId);
+    }
+
+    @GetMapping("/owner/summary")
+    public Map<State, Long> getBookingsSummaryByItems(@RequestHeader(X_SHARER_USER_ID) long userId) {
+        return bookingService.getBookingsSummaryByItems(userId);
+    }
+
     @GetMapping("/{bookingId}")
     public BookingResponseDto getBooking(@RequestHeader(X_SHARER_USER_ID) long userId, @PathVariable long bookingId) {
         Booking booking = bookingService.getBooking(userId, bookingId);
@@ -48,36 +100,118 @@ public class BookingController {
     public List<BookingResponseDto> getBookingsByUserIdSorted(
             @RequestHeader(X_SHARER_USER_ID) long userId,
             @RequestParam(value = "state", defaultValue = "ALL") State state,
+            @RequestParam(value = "itemId", required = false) Long itemId,
+            @RequestParam(value = "status", required = false) Status status,
+            @RequestParam(value = "start", required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+            @RequestParam(value = "end", required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end,
             @RequestParam(value = "from", required = false) Integer from,
-            @RequestParam(value = "size", required = false) Integer size) {
+            @RequestParam(value = "size", required = false) Integer size,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            HttpServletResponse response) {
         if (from == null && size == null) {
             from = 0;
             size = Integer.MAX_VALUE;
         }
-        List<Booking> bookings = bookingService.getBookingsByUserIdSorted(userId, state, from, size);
+        BookingFilterDto filter = toFilter(state, itemId, status, start, end);
+        List<BookingView> bookings = cursor == null
+                ? bookingService.getBookingsByUserIdSorted(userId, filter, from, size)
+                : bookingService.getBookingsByUserIdAfter(userId, filter, KeysetCursor.decodeKeyed(cursor), size);
         List<BookingResponseDto> bookingDtos = new ArrayList<>();
-        for (Booking booking : bookings) {
+        for (BookingView booking : bookings) {
             bookingDtos.add(BookingMapper.toBookingResponseDto(booking));
         }
+        if (cursor != null) {
+            setNextCursor(response, bookings, size);
+        }
         return bookingDtos;
     }
 
+    @GetMapping(produces = APPLICATION_NDJSON)
+    public void streamBookingsByUserIdSorted(
+            @RequestHeader(X_SHARER_USER_ID) long userId,
+            @RequestParam(value = "state", defaultValue = "ALL") State state,
+            @RequestParam(value = "itemId", required = false) Long itemId,
+            @RequestParam(value = "status", required = false) Status status,
+            @RequestParam(value = "start", required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+            @RequestParam(value = "end", required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end,
+            HttpServletResponse response) throws IOException {
+        BookingFilterDto filter = toFilter(state, itemId, status, start, end);
+        try (NdjsonWriter writer = new NdjsonWriter(objectMapper, response)) {
+            bookingService.streamBookingsByUserId(userId, filter,
+                    booking -> writer.write(BookingMapper.toBookingResponseDto(booking)));
+        }
+    }
+
     @GetMapping("/owner")
     public List<BookingResponseDto> getBookingsByItems(
             @RequestHeader(X_SHARER_USER_ID) long userId,
             @RequestParam(value = "state", defaultValue = "ALL") State state,
+            @RequestParam(value = "itemId", required = false) Long itemId,
+            @RequestParam(value = "status", required = false) Status status,
+            @RequestParam(value = "start", required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+            @RequestParam(value = "end", required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end,
             @RequestParam(value = "from", required = false) Integer from,
-            @RequestParam(value = "size", required = false) Integer size) {
+            @RequestParam(value = "size", required = false) Integer size,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            HttpServletResponse response) {
         if (from == null && size == null) {
             from = 0;
             size = Integer.MAX_VALUE;
             ;
         }
-        List<Booking> bookings = bookingService.getBookingsByItems(userId, state, from, size);
+        BookingFilterDto filter = toFilter(state, itemId, status, start, end);
+        List<BookingView> bookings = cursor == null
+                ? bookingService.getBookingsByItems(userId, filter, from, size)
+                : bookingService.getBookingsByItemsAfter(userId, filter, KeysetCursor.decodeKeyed(cursor), size);
         List<BookingResponseDto> bookingDtos = new ArrayList<>();
-        for (Booking booking : bookings) {
+        for (BookingView booking : bookings) {
             bookingDtos.add(BookingMapper.toBookingResponseDto(booking));
         }
+        if (cursor != null) {
+            setNextCursor(response, bookings, size);
+        }
         return bookingDtos;
     }
+
+    @GetMapping(value = "/owner", produces = APPLICATION_NDJSON)
+    public void streamBookingsByItems(
+            @RequestHeader(X_SHARER_USER_ID) long userId,
+            @RequestParam(value = "state", defaultValue = "ALL") State state,
+            @RequestParam(value = "itemId", required = false) Long itemId,
+            @RequestParam(value = "status", required = false) Status status,
+            @RequestParam(value = "start", required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+            @RequestParam(value = "end", required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end,
+            HttpServletResponse response) throws IOException {
+        BookingFilterDto filter = toFilter(state, itemId, status, start, end);
+        try (NdjsonWriter writer = new NdjsonWriter(objectMapper, response)) {
+            bookingService.streamBookingsByItems(userId, filter,
+                    booking -> writer.write(BookingMapper.toBookingResponseDto(booking)));
+        }
+    }
+
+    private static void setNextCursor(HttpServletResponse response, List<BookingView> bookings, int size) {
+        if (!bookings.isEmpty() && bookings.size() == size) {
+            BookingView last = bookings.get(bookings.size() - 1);
+            response.setHeader(X_NEXT_CURSOR, KeysetCursor.of(last.getStart(), last.getId()).encode());
+        }
+    }
+
+    private static BookingFilterDto toFilter(State state, Long itemId, Status status, LocalDateTime start,
+                                             LocalDateTime end) {
+        return BookingFilterDto.builder()
+                .state(state)
+                .itemId(itemId)
+                .status(status)
+                .start(start)
+                .end(end)
+                .build();
+    }
 }
@@ -0,0 +1,23 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import ru.practicum.shareit.booking.State;
+import ru.practicum.shareit.booking.Status;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookingFilterDto {
+    @Builder.Default
+    private State state = State.ALL;
+    private Long itemId;
+    private Status status;
+    private LocalDateTime start;
+    private LocalDateTime end;
+}
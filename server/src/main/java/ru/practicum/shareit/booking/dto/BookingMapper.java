@@ -2,8 +2,12 @@ package ru.practicum.shareit.booking.dto;
 
 import org.springframework.stereotype.Service;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingView;
+import ru.practicum.shareit.item.dto.ItemBookingDto;
 import ru.practicum.shareit.item.dto.ItemMapper;
+import ru.practicum.shareit.item.model.BookingSnapshot;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.dto.UserBookingDto;
 import ru.practicum.shareit.user.dto.UserMapper;
 import ru.practicum.shareit.user.model.User;
 
@@ -35,6 +39,17 @@ public class BookingMapper {
         );
     }
 
+    public static BookingResponseDto toBookingResponseDto(BookingView booking) {
+        return new BookingResponseDto(
+                booking.getId(),
+                booking.getStart(),
+                booking.getEnd(),
+                ItemBookingDto.builder().id(booking.getItemId()).name(booking.getItemName()).build(),
+                UserBookingDto.builder().id(booking.getBookerId()).name(booking.getBookerName()).build(),
+                booking.getStatus()
+        );
+    }
+
     public static BookingForItemResponseDto toBookingForItemResponseDto(Booking booking) {
         if (booking == null) {
             return null;
@@ -46,4 +61,16 @@ public class BookingMapper {
                 booking.getBooker().getId()
         );
     }
+
+    public static BookingForItemResponseDto toBookingForItemResponseDto(BookingSnapshot booking) {
+        if (booking == null) {
+            return null;
+        }
+        return new BookingForItemResponseDto(
+                booking.getBookingId(),
+                booking.getStart(),
+                booking.getEnd(),
+                booking.getBookerId()
+        );
+    }
 }
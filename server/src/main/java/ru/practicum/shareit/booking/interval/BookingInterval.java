@@ -0,0 +1,14 @@
+package ru.practicum.shareit.booking.interval;
+
+import lombok.Value;
+import ru.practicum.shareit.booking.Status;
+
+import java.time.LocalDateTime;
+
+@Value
+public class BookingInterval {
+    long bookingId;
+    LocalDateTime start;
+    LocalDateTime end;
+    Status status;
+}
@@ -0,0 +1,264 @@
+package ru.practicum.shareit.booking.interval;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.Status;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Ожидающие и подтвержденные бронирования каждой вещи в массиве, отсортированном
+ * по началу, с префиксным максимумом окончаний. Пересечение с периодом
+ * проверяется бинарным поиском. Периоды полуоткрытые [start, end), как в
+ * ограничении ex_bookings_item_period: бронирование может начаться в момент
+ * окончания предыдущего. Поверх массива лежит неявное сбалансированное
+ * дерево с максимумом окончаний в поддереве, по нему календарь вещи отдается за
+ * O(log n + k). Массив вещи неизменяемый и заменяется целиком при записи, поэтому
+ * чтение идет без блокировок, а версия массива служит ETag календаря.
+ * Индекс строится до того, как сервер начинает принимать запросы, и держит
+ * бронирования, закончившиеся не раньше HISTORY_DAYS дней назад: более старые
+ * не попадают в индекс и убираются из него по расписанию.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BookingIntervalIndex implements SmartInitializingSingleton {
+    static final int HISTORY_DAYS = 30;
+    private static final List<Status> BUSY_STATUSES = List.of(Status.WAITING, Status.APPROVED);
+    private static final Comparator<BookingInterval> BY_START = Comparator.comparing(BookingInterval::getStart)
+            .thenComparingLong(BookingInterval::getBookingId);
+
+    private final BookingRepository bookingRepository;
+    private final AtomicLong versions = new AtomicLong(System.currentTimeMillis());
+    private volatile Map<Long, ItemIntervals> items = new ConcurrentHashMap<>();
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        rebuild();
+    }
+
+    /**
+     * Новая карта собирается целиком и подменяет прежнюю одной записью, так что
+     * проверка пересечений никогда не видит частично заполненный индекс.
+     */
+    public void rebuild() {
+        List<Booking> bookings = bookingRepository.findAllByStatusInAndEndGreaterThanEqual(BUSY_STATUSES,
+                historyStart());
+        Map<Long, List<BookingInterval>> intervals = new HashMap<>();
+        for (Booking booking : bookings) {
+            intervals.computeIfAbsent(booking.getItem().getId(), key -> new ArrayList<>()).add(toInterval(booking));
+        }
+        Map<Long, ItemIntervals> rebuilt = new ConcurrentHashMap<>();
+        for (Map.Entry<Long, List<BookingInterval>> entry : intervals.entrySet()) {
+            BookingInterval[] sorted = entry.getValue().toArray(new BookingInterval[0]);
+            Arrays.sort(sorted, BY_START);
+            rebuilt.put(entry.getKey(), new ItemIntervals(sorted, versions.incrementAndGet()));
+        }
+        items = rebuilt;
+        log.info("Индекс бронирований построен: {} вещей, {} бронирований", rebuilt.size(), bookings.size());
+    }
+
+    @Scheduled(initialDelayString = "${shareit.bookings.interval-prune-delay:3600000}",
+            fixedDelayString = "${shareit.bookings.interval-prune-delay:3600000}")
+    public void prune() {
+        LocalDateTime historyStart = historyStart();
+        for (Long itemId : items.keySet()) {
+            items.computeIfPresent(itemId, (id, current) -> {
+                List<BookingInterval> kept = new ArrayList<>();
+                for (BookingInterval interval : current.intervals) {
+                    if (!interval.getEnd().isBefore(historyStart)) {
+                        kept.add(interval);
+                    }
+                }
+                if (kept.size() == current.size()) {
+                    return current;
+                }
+                return kept.isEmpty() ? null
+                        : new ItemIntervals(kept.toArray(new BookingInterval[0]), versions.incrementAndGet());
+            });
+        }
+    }
+
+    public void update(Booking booking) {
+        long itemId = booking.getItem().getId();
+        boolean busy = BUSY_STATUSES.contains(booking.getStatus()) && !booking.getEnd().isBefore(historyStart());
+        items.compute(itemId, (id, current) -> {
+            BookingInterval[] updated = without(current == null ? new BookingInterval[0] : current.intervals,
+                    booking.getId());
+            if (busy) {
+                updated = with(updated, toInterval(booking));
+            }
+            return updated.length == 0 ? null : new ItemIntervals(updated, versions.incrementAndGet());
+        });
+    }
+
+    public void remove(long itemId, long bookingId) {
+        items.computeIfPresent(itemId, (id, current) -> {
+            BookingInterval[] updated = without(current.intervals, bookingId);
+            if (updated == current.intervals) {
+                return current;
+            }
+            return updated.length == 0 ? null : new ItemIntervals(updated, versions.incrementAndGet());
+        });
+    }
+
+    public boolean isFree(long itemId, LocalDateTime start, LocalDateTime end) {
+        ItemIntervals intervals = items.get(itemId);
+        return intervals == null || !intervals.overlaps(start, end);
+    }
+
+    public Set<Long> findFree(Collection<Long> itemIds, LocalDateTime start, LocalDateTime end) {
+        Set<Long> free = new HashSet<>();
+        for (Long itemId : itemIds) {
+            if (isFree(itemId, start, end)) {
+                free.add(itemId);
+            }
+        }
+        return free;
+    }
+
+    public List<BookingInterval> findBusy(long itemId, LocalDateTime from, LocalDateTime to) {
+        List<BookingInterval> busy = new ArrayList<>();
+        ItemIntervals intervals = items.get(itemId);
+        if (intervals != null) {
+            intervals.collect(0, intervals.size() - 1, from, to, busy);
+        }
+        return busy;
+    }
+
+    public long getVersion(long itemId) {
+        ItemIntervals intervals = items.get(itemId);
+        return intervals == null ? 0 : intervals.version;
+    }
+
+    private static BookingInterval[] with(BookingInterval[] intervals, BookingInterval interval) {
+        int position = Arrays.binarySearch(intervals, interval, BY_START);
+        position = position >= 0 ? position : -position - 1;
+        BookingInterval[] updated = new BookingInterval[intervals.length + 1];
+        System.arraycopy(intervals, 0, updated, 0, position);
+        updated[position] = interval;
+        System.arraycopy(intervals, position, updated, position + 1, intervals.length - position);
+        return updated;
+    }
+
+    private static BookingInterval[] without(BookingInterval[] intervals, long bookingId) {
+        for (int i = 0; i < intervals.length; i++) {
+            if (intervals[i].getBookingId() == bookingId) {
+                BookingInterval[] updated = new BookingInterval[intervals.length - 1];
+                System.arraycopy(intervals, 0, updated, 0, i);
+                System.arraycopy(intervals, i + 1, updated, i, intervals.length - i - 1);
+                return updated;
+            }
+        }
+        return intervals;
+    }
+
+    private static LocalDateTime historyStart() {
+        return LocalDateTime.now().minusDays(HISTORY_DAYS);
+    }
+
+    private static BookingInterval toInterval(Booking booking) {
+        return new BookingInterval(booking.getId(), booking.getStart(), booking.getEnd(), booking.getStatus());
+    }
+
+    private static class ItemIntervals {
+        private final BookingInterval[] intervals;
+        private final LocalDateTime[] maxEnds;
+        private final LocalDateTime[] subtreeMaxEnds;
+        private final long version;
+
+        ItemIntervals(BookingInterval[] intervals, long version) {
+            this.intervals = intervals;
+            this.version = version;
+            this.maxEnds = new LocalDateTime[intervals.length];
+            for (int i = 0; i < intervals.length; i++) {
+                maxEnds[i] = i > 0 ? later(maxEnds[i - 1], intervals[i].getEnd()) : intervals[i].getEnd();
+            }
+            this.subtreeMaxEnds = new LocalDateTime[intervals.length];
+            if (intervals.length > 0) {
+                buildSubtree(0, intervals.length - 1);
+            }
+        }
+
+        int size() {
+            return intervals.length;
+        }
+
+        boolean overlaps(LocalDateTime start, LocalDateTime end) {
+            int last = lastStartingBefore(end);
+            return last >= 0 && maxEnds[last].isAfter(start);
+        }
+
+        /**
+         * Корень поддерева [low, high] лежит в середине отрезка. Левое поддерево
+         * пропускается, если в нем все бронирования закончились не позже from, правое -
+         * если корень начинается не раньше to.
+         */
+        void collect(int low, int high, LocalDateTime from, LocalDateTime to, List<BookingInterval> result) {
+            if (low > high) {
+                return;
+            }
+            int middle = (low + high) >>> 1;
+            if (!subtreeMaxEnds[middle].isAfter(from)) {
+                return;
+            }
+            collect(low, middle - 1, from, to, result);
+            if (!intervals[middle].getStart().isBefore(to)) {
+                return;
+            }
+            if (intervals[middle].getEnd().isAfter(from)) {
+                result.add(intervals[middle]);
+            }
+            collect(middle + 1, high, from, to, result);
+        }
+
+        private LocalDateTime buildSubtree(int low, int high) {
+            int middle = (low + high) >>> 1;
+            LocalDateTime maxEnd = intervals[middle].getEnd();
+            if (low < middle) {
+                maxEnd = later(maxEnd, buildSubtree(low, middle - 1));
+            }
+            if (middle < high) {
+                maxEnd = later(maxEnd, buildSubtree(middle + 1, high));
+            }
+            subtreeMaxEnds[middle] = maxEnd;
+            return maxEnd;
+        }
+
+        private static LocalDateTime later(LocalDateTime first, LocalDateTime second) {
+            return first.isAfter(second) ? first : second;
+        }
+
+        private int lastStartingBefore(LocalDateTime time) {
+            int low = 0;
+            int high = intervals.length - 1;
+            int result = -1;
+            while (low <= high) {
+                int middle = (low + high) >>> 1;
+                if (!intervals[middle].getStart().isBefore(time)) {
+                    high = middle - 1;
+                } else {
+                    result = middle;
+                    low = middle + 1;
+                }
+            }
+            return result;
+        }
+    }
+}
@@ -27,4 +27,17 @@ public class Booking {
     private User booker;
     @Enumerated(EnumType.STRING)
     private Status status;
+    /**
+     * Копия владельца вещи, чтобы списки владельца читались по индексу
+     * (owner_id, start_date) без подзапроса к items.
+     */
+    @Column(name = "owner_id", updatable = false)
+    private Long ownerId;
+
+    @PrePersist
+    void fillOwnerId() {
+        if (ownerId == null && item != null) {
+            ownerId = item.getOwnerId();
+        }
+    }
 }
@@ -0,0 +1,20 @@
+package ru.practicum.shareit.booking.repository;
+
+import ru.practicum.shareit.booking.Status;
+import ru.practicum.shareit.booking.model.Booking;
+
+import java.util.List;
+
+public interface BookingBatchRepository {
+    /**
+     * Условно меняет статус каждого бронирования одним JDBC-пакетом и
+     * возвращает число измененных строк для каждого id.
+     */
+    int[] updateStatuses(List<Long> bookingIds, Status expected, Status status);
+
+    /**
+     * Вставляет бронирования одним JDBC-пакетом и проставляет им
+     * сгенерированные id в порядке списка.
+     */
+    void insertAll(List<Booking> bookings);
+}
@@ -0,0 +1,72 @@
+package ru.practicum.shareit.booking.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ConnectionCallback;
+import ru.practicum.shareit.booking.Status;
+import ru.practicum.shareit.booking.model.Booking;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.List;
+
+@RequiredArgsConstructor
+public class BookingBatchRepositoryImpl implements BookingBatchRepository {
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public int[] updateStatuses(List<Long> bookingIds, Status expected, Status status) {
+        if (bookingIds.isEmpty()) {
+            return new int[0];
+        }
+        return jdbcTemplate.batchUpdate("update bookings set status = ? where id = ? and status = ?",
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement statement, int i) throws SQLException {
+                        statement.setString(1, status.name());
+                        statement.setLong(2, bookingIds.get(i));
+                        statement.setString(3, expected.name());
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return bookingIds.size();
+                    }
+                });
+    }
+
+    @Override
+    public void insertAll(List<Booking> bookings) {
+        if (bookings.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            try (PreparedStatement statement = connection.prepareStatement("insert into bookings "
+                    + "(status, start_date, end_date, booker_id, item_id, owner_id) values (?, ?, ?, ?, ?, ?)",
+                    new String[]{"id"})) {
+                for (Booking booking : bookings) {
+                    statement.setString(1, booking.getStatus().name());
+                    statement.setTimestamp(2, Timestamp.valueOf(booking.getStart()));
+                    statement.setTimestamp(3, Timestamp.valueOf(booking.getEnd()));
+                    statement.setLong(4, booking.getBooker().getId());
+                    statement.setLong(5, booking.getItem().getId());
+                    statement.setLong(6, booking.getItem().getOwnerId());
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+                try (ResultSet keys = statement.getGeneratedKeys()) {
+                    for (Booking booking : bookings) {
+                        if (!keys.next()) {
+                            throw new SQLException("Драйвер вернул меньше id, чем вставлено бронирований");
+                        }
+                        booking.setId(keys.getLong(1));
+                    }
+                }
+            }
+            return null;
+        });
+    }
+}
@@ -0,0 +1,24 @@
+package ru.practicum.shareit.booking.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import ru.practicum.shareit.booking.model.Booking;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+public interface BookingFilterRepository {
+    /**
+     * Страница бронирований по условию строками BookingView без отдельного запроса
+     * на подсчет, который делает JpaSpecificationExecutor.findAll(spec, pageable).
+     * Вещь и автор присоединяются в том же запросе, поэтому страница любого
+     * размера - один SELECT.
+     */
+    List<BookingView> findViewsMatching(Specification<Booking> specification, Pageable pageable);
+
+    /**
+     * Все строки BookingView по условию, читаются из базы пачками по мере обхода.
+     */
+    Stream<BookingView> streamViewsMatching(Specification<Booking> specification, Sort sort);
+}
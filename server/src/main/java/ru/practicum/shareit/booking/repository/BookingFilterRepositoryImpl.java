@@ -0,0 +1,76 @@
+package ru.practicum.shareit.booking.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Join;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static ru.practicum.shareit.Consts.STREAM_FETCH_SIZE;
+
+@RequiredArgsConstructor
+public class BookingFilterRepositoryImpl implements BookingFilterRepository {
+    private final EntityManager entityManager;
+
+    @Override
+    public List<BookingView> findViewsMatching(Specification<Booking> specification, Pageable pageable) {
+        return page(createViewQuery(specification, pageable.getSort()), pageable);
+    }
+
+    @Override
+    public Stream<BookingView> streamViewsMatching(Specification<Booking> specification, Sort sort) {
+        return createViewQuery(specification, sort)
+                .setHint(HINT_FETCH_SIZE, STREAM_FETCH_SIZE)
+                .getResultStream();
+    }
+
+    private TypedQuery<BookingView> createViewQuery(Specification<Booking> specification, Sort sort) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<BookingView> query = builder.createQuery(BookingView.class);
+        Root<Booking> booking = query.from(Booking.class);
+        Join<Booking, Item> item = booking.join("item");
+        Join<Booking, User> booker = booking.join("booker");
+        query.select(builder.construct(BookingView.class,
+                booking.get("id"),
+                booking.get("start"),
+                booking.get("end"),
+                item.get("id"),
+                item.get("name"),
+                booker.get("id"),
+                booker.get("name"),
+                booking.get("status")));
+        return createQuery(query, booking, specification, sort);
+    }
+
+    private <T> TypedQuery<T> createQuery(CriteriaQuery<T> query, Root<Booking> booking,
+                                          Specification<Booking> specification, Sort sort) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        Predicate predicate = specification == null ? null : specification.toPredicate(booking, query, builder);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(QueryUtils.toOrders(sort, booking, builder));
+        return entityManager.createQuery(query);
+    }
+
+    private static <T> List<T> page(TypedQuery<T> query, Pageable pageable) {
+        return query
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize())
+                .getResultList();
+    }
+}
@@ -2,77 +2,119 @@ package ru.practicum.shareit.booking.repository;
 
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.booking.Status;
 import ru.practicum.shareit.booking.model.Booking;
 
+import javax.persistence.QueryHint;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
-public interface BookingRepository extends JpaRepository<Booking, Long> {
+public interface BookingRepository extends JpaRepository<Booking, Long>, BookingBatchRepository,
+        BookingFilterRepository {
     Booking findByItemId(long itemId);
 
-    List<Booking> findAllByBookerIdIsOrderByStartDesc(long bookerId, Pageable pageable);
+    List<Booking> findAllByStatusInAndEndGreaterThanEqual(Collection<Status> statuses, LocalDateTime end);
 
-    List<Booking> findAllByBookerIdIsAndAndStatusIsOrderByStartDesc(long bookerId, Status status, Pageable pageable);
-
-    List<Booking> findAllByBookerIdIsAndStartIsBeforeAndEndIsAfterOrderByStartDesc(
-            long bookerId, LocalDateTime now, LocalDateTime now2, Pageable pageable);
-
-    List<Booking> findAllByBookerIdIsAndEndIsBeforeOrderByStartDesc(long bookerId, LocalDateTime now, Pageable pageable);
-
-    List<Booking> findAllByBookerIdIsAndStartIsAfterOrderByStartDesc(long bookerId, LocalDateTime now, Pageable pageable);
+    @Query("select item as item, booker as booker " +
+            "from Item as item, User as booker " +
+            "where item.id = ?1 and booker.id = ?2")
+    Optional<BookingParticipants> findParticipants(long itemId, long bookerId);
 
     @Query("select b " +
             "from Booking as b " +
-            "where b.item.id in (select i.id from Item as i where i.ownerId = ?1) " +
-            "order by b.start desc")
-    List<Booking> findAllByOwner(long ownerId, Pageable pageable);
+            "join fetch b.item " +
+            "join fetch b.booker " +
+            "where b.id = ?1")
+    Optional<Booking> findByIdWithParticipants(long bookingId);
 
+    @QueryHints(@QueryHint(name = "org.hibernate.readOnly", value = "true"))
     @Query("select b " +
             "from Booking as b " +
-            "where b.item.id in (select i.id from Item as i where i.ownerId = ?1) " +
-            "and b.start < ?2 and b.end > ?3 " +
-            "order by b.start desc")
-    List<Booking> findAllByOwnerCurrent(long ownerId, LocalDateTime now, LocalDateTime now2, Pageable pageable);
-
-    @Query("select b " +
+            "join fetch b.item " +
+            "where b.id in ?1")
+    List<Booking> findAllByIdInWithItem(Collection<Long> bookingIds);
+
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Booking as b " +
+            "set b.status = ?4 " +
+            "where b.id = ?1 and b.status = ?3 and b.ownerId = ?2")
+    int updateStatus(long bookingId, long ownerId, Status expected, Status status);
+
+    @Query("select count(b) as allCount, " +
+            "coalesce(sum(case when b.start < ?2 and b.end > ?2 then 1 else 0 end), 0) as currentCount, " +
+            "coalesce(sum(case when b.end < ?2 then 1 else 0 end), 0) as pastCount, " +
+            "coalesce(sum(case when b.start > ?2 then 1 else 0 end), 0) as futureCount, " +
+            "coalesce(sum(case when b.status = ru.practicum.shareit.booking.Status.WAITING then 1 else 0 end), 0) " +
+            "as waitingCount, " +
+            "coalesce(sum(case when b.status = ru.practicum.shareit.booking.Status.REJECTED then 1 else 0 end), 0) " +
+            "as rejectedCount " +
             "from Booking as b " +
-            "where b.item.id in (select i.id from Item as i where i.ownerId = ?1) " +
-            "and b.end < ?2 " +
-            "order by b.start desc")
-    List<Booking> findAllByOwnerPast(long ownerId, LocalDateTime now, Pageable pageable);
-
-    @Query("select b " +
+            "where b.booker.id = ?1")
+    BookingStateCounts countStatesByBooker(long bookerId, LocalDateTime now);
+
+    @Query("select count(b) as allCount, " +
+            "coalesce(sum(case when b.start < ?2 and b.end > ?2 then 1 else 0 end), 0) as currentCount, " +
+            "coalesce(sum(case when b.end < ?2 then 1 else 0 end), 0) as pastCount, " +
+            "coalesce(sum(case when b.start > ?2 then 1 else 0 end), 0) as futureCount, " +
+            "coalesce(sum(case when b.status = ru.practicum.shareit.booking.Status.WAITING then 1 else 0 end), 0) " +
+            "as waitingCount, " +
+            "coalesce(sum(case when b.status = ru.practicum.shareit.booking.Status.REJECTED then 1 else 0 end), 0) " +
+            "as rejectedCount " +
             "from Booking as b " +
-            "where b.item.id in (select i.id from Item as i where i.ownerId = ?1) " +
-            "and b.start > ?2 " +
-            "order by b.start desc")
-    List<Booking> findAllByOwnerFuture(long ownerId, LocalDateTime now, Pageable pageable);
-
-    @Query("select b " +
-            "from Booking as b " +
-            "where b.item.id in (select i.id from Item as i where i.ownerId = ?1) " +
-            "and b.status = ?2 " +
-            "order by b.start desc")
-    List<Booking> findAllByOwnerStatusIs(long ownerId, Status status, Pageable pageable);
+            "where b.ownerId = ?1")
+    BookingStateCounts countStatesByOwner(long ownerId, LocalDateTime now);
 
     @Query("select b " +
             "from Booking as b " +
             "where b.start <= ?2 and " +
             "b.item.id = ?1 and " +
             "b.status = ru.practicum.shareit.booking.Status.APPROVED " +
-            "order by b.start desc")
+            "order by b.start desc, b.id desc")
     List<Booking> findLastBooking(long itemId, LocalDateTime now, Pageable pageable);
 
     @Query("select b " +
             "from Booking as b " +
-            "where b.start >= ?2 and " +
+            "where b.start > ?2 and " +
             "b.item.id = ?1 and " +
             "b.status = ru.practicum.shareit.booking.Status.APPROVED " +
-            "order by b.start")
+            "order by b.start, b.id")
     List<Booking> findNextBooking(long itemId, LocalDateTime now, Pageable pageable);
 
+    @Query("select b " +
+            "from Booking as b " +
+            "where b.item.id in ?1 and " +
+            "b.status = ru.practicum.shareit.booking.Status.APPROVED and " +
+            "b.start = (select max(b2.start) from Booking as b2 " +
+            "where b2.item.id = b.item.id and " +
+            "b2.status = ru.practicum.shareit.booking.Status.APPROVED and " +
+            "b2.start <= ?2) and " +
+            "b.id = (select max(b3.id) from Booking as b3 " +
+            "where b3.item.id = b.item.id and " +
+            "b3.status = ru.practicum.shareit.booking.Status.APPROVED and " +
+            "b3.start = b.start)")
+    List<Booking> findLastBookings(List<Long> itemIds, LocalDateTime now);
+
+    @Query("select b " +
+            "from Booking as b " +
+            "where b.item.id in ?1 and " +
+            "b.status = ru.practicum.shareit.booking.Status.APPROVED and " +
+            "b.start = (select min(b2.start) from Booking as b2 " +
+            "where b2.item.id = b.item.id and " +
+            "b2.status = ru.practicum.shareit.booking.Status.APPROVED and " +
+            "b2.start > ?2) and " +
+            "b.id = (select min(b3.id) from Booking as b3 " +
+            "where b3.item.id = b.item.id and " +
+            "b3.status = ru.practicum.shareit.booking.Status.APPROVED and " +
+            "b3.start = b.start)")
+    List<Booking> findNextBookings(List<Long> itemIds, LocalDateTime now);
+
     @Query("select b " +
             "from Booking as b " +
             "where b.end < ?3 and " +
@@ -0,0 +1,96 @@
+package ru.practicum.shareit.booking.repository;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import ru.practicum.shareit.booking.State;
+import ru.practicum.shareit.booking.Status;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.pageable.KeysetCursor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Условия выборки бронирований. Пустой аргумент дает null, и условие
+ * пропускается при сборке через Specification.where(...).and(...).
+ * Каждое сочетание автора или владельца с фильтром покрыто индексом
+ * (booker_id | owner_id [, status], start_date) или (item_id, start_date, end_date).
+ */
+public class BookingSpecifications {
+    /**
+     * Порядок списков бронирований: сначала новые, при равном начале - больший id.
+     */
+    public static final Sort BOOKING_ORDER = Sort.by(Sort.Direction.DESC, "start", "id");
+
+    public static Specification<Booking> bookerIs(Long bookerId) {
+        if (bookerId == null) {
+            return null;
+        }
+        return (booking, query, builder) -> builder.equal(booking.get("booker").get("id"), bookerId);
+    }
+
+    public static Specification<Booking> ownerIs(Long ownerId) {
+        if (ownerId == null) {
+            return null;
+        }
+        return (booking, query, builder) -> builder.equal(booking.get("ownerId"), ownerId);
+    }
+
+    public static Specification<Booking> itemIs(Long itemId) {
+        if (itemId == null) {
+            return null;
+        }
+        return (booking, query, builder) -> builder.equal(booking.get("item").get("id"), itemId);
+    }
+
+    public static Specification<Booking> statusIs(Status status) {
+        if (status == null) {
+            return null;
+        }
+        return (booking, query, builder) -> builder.equal(booking.get("status"), status);
+    }
+
+    /**
+     * Бронирование пересекается с периодом [start, end]; любой край можно не указывать.
+     */
+    public static Specification<Booking> overlaps(LocalDateTime start, LocalDateTime end) {
+        Specification<Booking> endsAfterStart = start == null ? null
+                : (booking, query, builder) -> builder.greaterThanOrEqualTo(booking.get("end"), start);
+        Specification<Booking> startsBeforeEnd = end == null ? null
+                : (booking, query, builder) -> builder.lessThanOrEqualTo(booking.get("start"), end);
+        return Specification.where(startsBeforeEnd).and(endsAfterStart);
+    }
+
+    /**
+     * Бронирования после курсора в порядке (start desc, id desc).
+     */
+    public static Specification<Booking> startsBefore(KeysetCursor cursor) {
+        if (cursor == null) {
+            return null;
+        }
+        return (booking, query, builder) -> builder.or(builder.lessThan(booking.get("start"), cursor.getKey()),
+                builder.and(builder.equal(booking.get("start"), cursor.getKey()),
+                        builder.lessThan(booking.get("id"), cursor.getId())));
+    }
+
+    public static Specification<Booking> stateIs(State state, LocalDateTime now) {
+        if (state == null) {
+            return null;
+        }
+        switch (state) {
+            case CURRENT:
+                return (booking, query, builder) -> builder.and(builder.lessThan(booking.get("start"), now),
+                        builder.greaterThan(booking.get("end"), now));
+            case PAST:
+                return (booking, query, builder) -> builder.lessThan(booking.get("end"), now);
+            case FUTURE:
+                return (booking, query, builder) -> builder.greaterThan(booking.get("start"), now);
+            case WAITING:
+                return statusIs(Status.WAITING);
+            case REJECTED:
+                return statusIs(Status.REJECTED);
+            case ALL:
+            default:
+                return null;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package ru.practicum.shareit.booking.repository;
+
+public interface BookingStateCounts {
+    long getAllCount();
+
+    long getCurrentCount();
+
+    long getPastCount();
+
+    long getFutureCount();
+
+    long getWaitingCount();
+
+    long getRejectedCount();
+}
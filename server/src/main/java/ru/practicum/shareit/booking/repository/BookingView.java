@@ -0,0 +1,22 @@
+package ru.practicum.shareit.booking.repository;
+
+import lombok.Value;
+import ru.practicum.shareit.booking.Status;
+
+import java.time.LocalDateTime;
+
+/**
+ * Строка списка бронирований: ровно те колонки, что нужны BookingResponseDto.
+ * Собирается конструктором прямо в запросе, вещь и автор не загружаются.
+ */
+@Value
+public class BookingView {
+    Long id;
+    LocalDateTime start;
+    LocalDateTime end;
+    Long itemId;
+    String itemName;
+    Long bookerId;
+    String bookerName;
+    Status status;
+}
@@ -1,20 +1,42 @@
 package ru.practicum.shareit.booking.service;
 
 import ru.practicum.shareit.booking.State;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
+import ru.practicum.shareit.booking.dto.BookingFilterDto;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingView;
+import ru.practicum.shareit.pageable.KeysetCursor;
 
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 public interface BookingService {
     Booking addBooking(Booking booking);
 
+    List<Booking> addBookings(long bookerId, List<Booking> bookings);
+
     Booking approveStatus(long userId, long bookingId, boolean approved);
 
+    List<BookingBatchResultDto> approveStatuses(long userId, List<Long> bookingIds, boolean approved);
+
     Booking getBooking(long userId, long bookingId);
 
-    List<Booking> getBookingsByUserIdSorted(long userId, State state, int from, int size);
+    List<BookingView> getBookingsByUserIdSorted(long userId, BookingFilterDto filter, int from, int size);
+
+    List<BookingView> getBookingsByItems(long userId, BookingFilterDto filter, int from, int size);
+
+    void streamBookingsByUserId(long userId, BookingFilterDto filter, Consumer<BookingView> consumer);
+
+    void streamBookingsByItems(long userId, BookingFilterDto filter, Consumer<BookingView> consumer);
+
+    List<BookingView> getBookingsByUserIdAfter(long userId, BookingFilterDto filter, KeysetCursor cursor, int size);
+
+    List<BookingView> getBookingsByItemsAfter(long userId, BookingFilterDto filter, KeysetCursor cursor, int size);
+
+    Map<State, Long> getBookingsSummary(long userId);
 
-    List<Booking> getBookingsByItems(long userId, State state, int from, int size);
+    Map<State, Long> getBookingsSummaryByItems(long userId);
 
     Booking getBookingByItemId(Long id);
 }
@@ -1,48 +1,230 @@
 package ru.practicum.shareit.booking.service;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import ru.practicum.shareit.booking.State;
 import ru.practicum.shareit.booking.Status;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
+import ru.practicum.shareit.booking.dto.BookingFilterDto;
+import ru.practicum.shareit.booking.interval.BookingIntervalIndex;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingParticipants;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.repository.BookingStateCounts;
+import ru.practicum.shareit.booking.repository.BookingView;
+import ru.practicum.shareit.exceptions.BookingConflictException;
 import ru.practicum.shareit.exceptions.BookingValidationException;
 import ru.practicum.shareit.exceptions.ItemUnavailableException;
 import ru.practicum.shareit.exceptions.ObjectNotFoundException;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemBookingRefresher;
+import ru.practicum.shareit.pageable.KeysetCursor;
 import ru.practicum.shareit.pageable.OffsetLimitPageable;
+import ru.practicum.shareit.stream.EntityStreamer;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
 
+import static ru.practicum.shareit.booking.repository.BookingSpecifications.BOOKING_ORDER;
+import static ru.practicum.shareit.booking.repository.BookingSpecifications.bookerIs;
+import static ru.practicum.shareit.booking.repository.BookingSpecifications.itemIs;
+import static ru.practicum.shareit.booking.repository.BookingSpecifications.overlaps;
+import static ru.practicum.shareit.booking.repository.BookingSpecifications.ownerIs;
+import static ru.practicum.shareit.booking.repository.BookingSpecifications.startsBefore;
+import static ru.practicum.shareit.booking.repository.BookingSpecifications.stateIs;
+import static ru.practicum.shareit.booking.repository.BookingSpecifications.statusIs;
+
+/**
+ * Проверка пересечения и сохранение бронирования идут под блокировкой вещи,
+ * поэтому два пересекающихся бронирования одной вещи не проходят одновременно.
+ * Блокировки разбиты на полосы по id вещи: запросы к разным вещам почти не ждут
+ * друг друга. Между экземплярами сервера пересечения отсекает ограничение
+ * ex_bookings_item_period в PostgreSQL. Периоды полуоткрытые [start, end):
+ * бронирование может начаться в момент окончания предыдущего. Ожидающее
+ * бронирование занимает вещь так же, как подтвержденное.
+ */
 @Service
 @RequiredArgsConstructor
 public class BookingServiceImpl implements BookingService {
+    private static final int ITEM_LOCK_STRIPES = 256;
+    private static final String ITEM_PERIOD_CONSTRAINT = "ex_bookings_item_period";
+
+    private final Lock[] itemLocks = createItemLocks();
     private final BookingRepository bookingRepository;
     private final UserRepository userRepository;
     private final ItemRepository itemRepository;
+    private final BookingIntervalIndex bookingIntervalIndex;
+    private final ItemBookingRefresher itemBookingRefresher;
+    private final EntityStreamer entityStreamer;
 
+    /**
+     * Вещь и автор загружаются одним запросом, второй запрос - вставка. Если
+     * кого-то из них нет, причина ищется отдельным запросом только в этом случае.
+     */
     @Override
     public Booking addBooking(Booking booking) {
-        validateBooking(booking);
-        fillBookingField(booking);
-        return bookingRepository.save(booking);
+        BookingParticipants participants = bookingRepository
+                .findParticipants(booking.getItem().getId(), booking.getBooker().getId())
+                .orElseThrow(() -> participantNotFound(booking.getBooker().getId()));
+        validateBooking(booking, participants.getItem());
+        booking.setItem(participants.getItem());
+        booking.setBooker(participants.getBooker());
+        Lock lock = itemLock(booking.getItem().getId());
+        lock.lock();
+        try {
+            validateItemFree(booking);
+            Booking addedBooking = saveBooking(booking);
+            bookingIntervalIndex.update(addedBooking);
+            return addedBooking;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Автор читается одним запросом, все вещи пакета - вторым, вставка идет
+     * одним JDBC-пакетом, так что число запросов не зависит от числа бронирований.
+     * Блокировки вещей берутся по возрастанию номера полосы, поэтому пакеты с
+     * общими вещами не ждут друг друга по кругу. Интервалы попадают в индекс до
+     * фиксации транзакции и убираются из него, если транзакция откатилась.
+     */
+    @Override
+    @Transactional
+    public List<Booking> addBookings(long bookerId, List<Booking> bookings) {
+        User booker = userRepository.findById(bookerId)
+                .orElseThrow(() -> new ObjectNotFoundException("нет пользователя с таким id"));
+        Set<Long> itemIds = new HashSet<>();
+        for (Booking booking : bookings) {
+            itemIds.add(booking.getItem().getId());
+        }
+        Map<Long, Item> itemsById = new HashMap<>();
+        for (Item item : itemRepository.findAllById(itemIds)) {
+            itemsById.put(item.getId(), item);
+        }
+        for (Booking booking : bookings) {
+            Item item = itemsById.get(booking.getItem().getId());
+            if (item == null) {
+                throw new ObjectNotFoundException("нет вещи с таким id");
+            }
+            booking.setBooker(booker);
+            validateBooking(booking, item);
+            booking.setItem(item);
+        }
+        List<Lock> locks = itemLocks(itemIds);
+        locks.forEach(Lock::lock);
+        try {
+            for (int i = 0; i < bookings.size(); i++) {
+                validateItemFree(bookings.get(i));
+                for (int j = 0; j < i; j++) {
+                    validateNotOverlapping(bookings.get(j), bookings.get(i));
+                }
+            }
+            insertBookings(bookings);
+            bookings.forEach(bookingIntervalIndex::update);
+            removeFromIndexOnRollback(bookings);
+            return bookings;
+        } finally {
+            for (int i = locks.size() - 1; i >= 0; i--) {
+                locks.get(i).unlock();
+            }
+        }
     }
 
+    /**
+     * Ожидающее бронирование подтверждается одним условным UPDATE, поэтому из
+     * двух одновременных подтверждений проходит только одно. Если строка не
+     * изменилась, бронирование читается заново, чтобы выбрать ошибку или
+     * повторно подтвердить отклоненное бронирование. После успешного UPDATE
+     * бронирование все равно читается вместе с вещью и автором: UPDATE знает
+     * только id и статус, а ответу, индексу интервалов и ссылкам вещи нужны
+     * период, вещь и автор. Чтение до UPDATE не сократило бы число запросов.
+     */
     @Override
     public Booking approveStatus(long userId, long bookingId, boolean approved) {
-        Booking booking = bookingRepository.findById(bookingId)
+        Status status = approved ? Status.APPROVED : Status.REJECTED;
+        if (bookingRepository.updateStatus(bookingId, userId, Status.WAITING, status) == 0) {
+            return approveNotWaiting(userId, bookingId, status);
+        }
+        Booking booking = bookingRepository.findByIdWithParticipants(bookingId)
                 .orElseThrow(() -> new ObjectNotFoundException("Нет бронирования с таким id"));
-        if (booking.getStatus() == Status.APPROVED) {
-            throw new BookingValidationException("Бронирование уже подтверждено");
+        bookingIntervalIndex.update(booking);
+        itemBookingRefresher.onApproved(List.of(booking));
+        return booking;
+    }
+
+    /**
+     * Бронирования читаются одним запросом, ожидающие меняют статус одним
+     * JDBC-пакетом условных UPDATE в общей транзакции. Отклоненные бронирования
+     * подтверждаются только по одному, с проверкой пересечений.
+     */
+    @Override
+    @Transactional
+    public List<BookingBatchResultDto> approveStatuses(long userId, List<Long> bookingIds, boolean approved) {
+        Status status = approved ? Status.APPROVED : Status.REJECTED;
+        Map<Long, Booking> bookingsById = new HashMap<>();
+        for (Booking booking : bookingRepository.findAllByIdInWithItem(bookingIds)) {
+            bookingsById.put(booking.getId(), booking);
         }
-        validateOwner(booking.getItem(), userId);
-        booking.setStatus(approved ? Status.APPROVED : Status.REJECTED);
-        return bookingRepository.save(booking);
+        Map<Long, BookingBatchResultDto> results = new LinkedHashMap<>();
+        List<Booking> waiting = new ArrayList<>();
+        for (Long bookingId : bookingIds) {
+            if (results.containsKey(bookingId)) {
+                continue;
+            }
+            Booking booking = bookingsById.get(bookingId);
+            String error = validateBatchApproval(booking, userId, status);
+            if (error != null) {
+                results.put(bookingId, BookingBatchResultDto.builder().bookingId(bookingId).error(error).build());
+            } else if (booking.getStatus() == Status.WAITING) {
+                waiting.add(booking);
+                results.put(bookingId, null);
+            } else {
+                results.put(bookingId, BookingBatchResultDto.builder().bookingId(bookingId).status(status).build());
+            }
+        }
+        List<Long> waitingIds = new ArrayList<>();
+        for (Booking booking : waiting) {
+            waitingIds.add(booking.getId());
+        }
+        int[] counts = bookingRepository.updateStatuses(waitingIds, Status.WAITING, status);
+        List<Booking> updated = new ArrayList<>();
+        for (int i = 0; i < waiting.size(); i++) {
+            Booking booking = waiting.get(i);
+            BookingBatchResultDto.BookingBatchResultDtoBuilder result = BookingBatchResultDto.builder()
+                    .bookingId(booking.getId());
+            if (counts[i] == 0) {
+                result.error("Статус бронирования изменился, повторите запрос");
+            } else {
+                booking.setStatus(status);
+                updated.add(booking);
+                result.status(status);
+            }
+            results.put(booking.getId(), result.build());
+        }
+        itemBookingRefresher.onApproved(updated);
+        updateIndexAfterCommit(updated);
+        return new ArrayList<>(results.values());
     }
 
     @Override
@@ -55,48 +237,64 @@ public class BookingServiceImpl implements BookingService {
     }
 
     @Override
-    public List<Booking> getBookingsByUserIdSorted(long userId, State state, int from, int size) {
+    public List<BookingView> getBookingsByUserIdSorted(long userId, BookingFilterDto filter, int from, int size) {
         validateUser(userId);
-        OffsetLimitPageable pageable = new OffsetLimitPageable(from, size);
-        switch (state) {
-            case ALL:
-                return bookingRepository.findAllByBookerIdIsOrderByStartDesc(userId, pageable);
-            case CURRENT:
-                return bookingRepository.findAllByBookerIdIsAndStartIsBeforeAndEndIsAfterOrderByStartDesc(userId,
-                        LocalDateTime.now(), LocalDateTime.now(), pageable);
-            case PAST:
-                return bookingRepository.findAllByBookerIdIsAndEndIsBeforeOrderByStartDesc(userId, LocalDateTime.now(), pageable);
-            case FUTURE:
-                return bookingRepository.findAllByBookerIdIsAndStartIsAfterOrderByStartDesc(userId, LocalDateTime.now(), pageable);
-            case WAITING:
-                return bookingRepository.findAllByBookerIdIsAndAndStatusIsOrderByStartDesc(userId, Status.WAITING, pageable);
-            case REJECTED:
-                return bookingRepository.findAllByBookerIdIsAndAndStatusIsOrderByStartDesc(userId, Status.REJECTED, pageable);
-        }
-        throw new IllegalArgumentException();
+        return findBookings(bookerIs(userId), filter, from, size);
     }
 
     @Override
-    public List<Booking> getBookingsByItems(long userId, State state, int from, int size) {
+    public List<BookingView> getBookingsByItems(long userId, BookingFilterDto filter, int from, int size) {
         validateUser(userId);
         validateItemExist(userId);
-        OffsetLimitPageable pageable = new OffsetLimitPageable(from, size);
-        switch (state) {
-            case ALL:
-                return bookingRepository.findAllByOwner(userId, pageable);
-            case CURRENT:
-                return bookingRepository.findAllByOwnerCurrent(userId,
-                        LocalDateTime.now(), LocalDateTime.now(), pageable);
-            case PAST:
-                return bookingRepository.findAllByOwnerPast(userId, LocalDateTime.now(), pageable);
-            case FUTURE:
-                return bookingRepository.findAllByOwnerFuture(userId, LocalDateTime.now(), pageable);
-            case WAITING:
-                return bookingRepository.findAllByOwnerStatusIs(userId, Status.WAITING, pageable);
-            case REJECTED:
-                return bookingRepository.findAllByOwnerStatusIs(userId, Status.REJECTED, pageable);
-        }
-        throw new IllegalArgumentException();
+        return findBookings(ownerIs(userId), filter, from, size);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void streamBookingsByUserId(long userId, BookingFilterDto filter, Consumer<BookingView> consumer) {
+        validateUser(userId);
+        entityStreamer.forEach(bookingRepository.streamViewsMatching(toSpecification(bookerIs(userId), filter),
+                BOOKING_ORDER), consumer);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void streamBookingsByItems(long userId, BookingFilterDto filter, Consumer<BookingView> consumer) {
+        validateUser(userId);
+        validateItemExist(userId);
+        entityStreamer.forEach(bookingRepository.streamViewsMatching(toSpecification(ownerIs(userId), filter),
+                BOOKING_ORDER), consumer);
+    }
+
+    @Override
+    public List<BookingView> getBookingsByUserIdAfter(long userId, BookingFilterDto filter, KeysetCursor cursor,
+                                                      int size) {
+        validateUser(userId);
+        return findBookings(bookerIs(userId).and(startsBefore(cursor)), filter, 0, size);
+    }
+
+    @Override
+    public List<BookingView> getBookingsByItemsAfter(long userId, BookingFilterDto filter, KeysetCursor cursor,
+                                                     int size) {
+        validateUser(userId);
+        validateItemExist(userId);
+        return findBookings(ownerIs(userId).and(startsBefore(cursor)), filter, 0, size);
+    }
+
+    /**
+     * Все состояния считаются одним агрегирующим запросом с общим now,
+     * поэтому счетчики согласованы между собой.
+     */
+    @Override
+    public Map<State, Long> getBookingsSummary(long userId) {
+        validateUser(userId);
+        return toSummary(bookingRepository.countStatesByBooker(userId, LocalDateTime.now()));
+    }
+
+    @Override
+    public Map<State, Long> getBookingsSummaryByItems(long userId) {
+        validateUser(userId);
+        return toSummary(bookingRepository.countStatesByOwner(userId, LocalDateTime.now()));
     }
 
     @Override
@@ -104,11 +302,181 @@ public class BookingServiceImpl implements BookingService {
         return bookingRepository.findByItemId(itemId);
     }
 
-    private boolean validateBooking(Booking booking) {
-        User user = userRepository.findById(booking.getBooker().getId())
-                .orElseThrow(() -> new ObjectNotFoundException("нет пользователя с таким id"));
-        Item item = itemRepository.findById(booking.getItem().getId())
-                .orElseThrow(() -> new ObjectNotFoundException("нет вещи с таким id"));
+    private Booking approveNotWaiting(long userId, long bookingId, Status status) {
+        Booking booking = bookingRepository.findByIdWithParticipants(bookingId)
+                .orElseThrow(() -> new ObjectNotFoundException("Нет бронирования с таким id"));
+        if (booking.getStatus() == Status.APPROVED) {
+            throw new BookingValidationException("Бронирование уже подтверждено");
+        }
+        validateOwner(booking.getItem(), userId);
+        Lock lock = itemLock(booking.getItem().getId());
+        lock.lock();
+        try {
+            if (status == Status.APPROVED && booking.getStatus() == Status.REJECTED) {
+                validateItemFree(booking);
+            }
+            if (updateStatus(booking, userId, status) == 0) {
+                throw new BookingConflictException("Статус бронирования изменился, повторите запрос");
+            }
+            booking.setStatus(status);
+            bookingIntervalIndex.update(booking);
+            itemBookingRefresher.onApproved(List.of(booking));
+            return booking;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Состояние, вещь, статус и период складываются в одно условие с общим now,
+     * так что новое сочетание фильтров не требует нового метода репозитория.
+     * Страница читается строками BookingView одним запросом вместе с вещью и автором.
+     */
+    private List<BookingView> findBookings(Specification<Booking> user, BookingFilterDto filter, int from,
+                                           int size) {
+        return bookingRepository.findViewsMatching(toSpecification(user, filter),
+                new OffsetLimitPageable(from, size, BOOKING_ORDER));
+    }
+
+    private static Specification<Booking> toSpecification(Specification<Booking> user, BookingFilterDto filter) {
+        return Specification.where(user)
+                .and(stateIs(filter.getState(), LocalDateTime.now()))
+                .and(itemIs(filter.getItemId()))
+                .and(statusIs(filter.getStatus()))
+                .and(overlaps(filter.getStart(), filter.getEnd()));
+    }
+
+    private static Map<State, Long> toSummary(BookingStateCounts counts) {
+        Map<State, Long> summary = new EnumMap<>(State.class);
+        summary.put(State.ALL, counts.getAllCount());
+        summary.put(State.CURRENT, counts.getCurrentCount());
+        summary.put(State.PAST, counts.getPastCount());
+        summary.put(State.FUTURE, counts.getFutureCount());
+        summary.put(State.WAITING, counts.getWaitingCount());
+        summary.put(State.REJECTED, counts.getRejectedCount());
+        return summary;
+    }
+
+    private static String validateBatchApproval(Booking booking, long userId, Status status) {
+        if (booking == null) {
+            return "Нет бронирования с таким id";
+        }
+        if (booking.getStatus() == Status.APPROVED) {
+            return "Бронирование уже подтверждено";
+        }
+        if (booking.getItem().getOwnerId() != userId) {
+            return "Подтвердить бронирование может только владелец вещи";
+        }
+        if (booking.getStatus() == Status.REJECTED && status == Status.APPROVED) {
+            return "Отклоненное бронирование подтверждается отдельным запросом";
+        }
+        return null;
+    }
+
+    private void updateIndexAfterCommit(List<Booking> bookings) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            bookings.forEach(bookingIntervalIndex::update);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                bookings.forEach(bookingIntervalIndex::update);
+            }
+        });
+    }
+
+    private void removeFromIndexOnRollback(List<Booking> bookings) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_ROLLED_BACK) {
+                    bookings.forEach(booking -> bookingIntervalIndex.remove(booking.getItem().getId(), booking.getId()));
+                }
+            }
+        });
+    }
+
+    private void insertBookings(List<Booking> bookings) {
+        try {
+            bookingRepository.insertAll(bookings);
+        } catch (DataIntegrityViolationException e) {
+            throw toConflict(e);
+        }
+    }
+
+    private Booking saveBooking(Booking booking) {
+        try {
+            return bookingRepository.save(booking);
+        } catch (DataIntegrityViolationException e) {
+            throw toConflict(e);
+        }
+    }
+
+    private int updateStatus(Booking booking, long userId, Status status) {
+        try {
+            return bookingRepository.updateStatus(booking.getId(), userId, booking.getStatus(), status);
+        } catch (DataIntegrityViolationException e) {
+            throw toConflict(e);
+        }
+    }
+
+    private static RuntimeException toConflict(DataIntegrityViolationException e) {
+        String message = e.getMostSpecificCause().getMessage();
+        if (message != null && message.contains(ITEM_PERIOD_CONSTRAINT)) {
+            return new BookingConflictException("Вещь уже забронирована на эти даты");
+        }
+        return e;
+    }
+
+    private Lock itemLock(long itemId) {
+        return itemLocks[Math.floorMod(Long.hashCode(itemId), ITEM_LOCK_STRIPES)];
+    }
+
+    private List<Lock> itemLocks(Collection<Long> itemIds) {
+        Set<Integer> stripes = new TreeSet<>();
+        for (Long itemId : itemIds) {
+            stripes.add(Math.floorMod(Long.hashCode(itemId), ITEM_LOCK_STRIPES));
+        }
+        List<Lock> locks = new ArrayList<>();
+        for (Integer stripe : stripes) {
+            locks.add(itemLocks[stripe]);
+        }
+        return locks;
+    }
+
+    private static Lock[] createItemLocks() {
+        Lock[] locks = new Lock[ITEM_LOCK_STRIPES];
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        return locks;
+    }
+
+    private void validateItemFree(Booking booking) {
+        if (!bookingIntervalIndex.isFree(booking.getItem().getId(), booking.getStart(), booking.getEnd())) {
+            throw new BookingConflictException("Вещь уже забронирована на эти даты");
+        }
+    }
+
+    private static void validateNotOverlapping(Booking first, Booking second) {
+        if (first.getItem().getId().equals(second.getItem().getId())
+                && first.getStart().isBefore(second.getEnd()) && second.getStart().isBefore(first.getEnd())) {
+            throw new BookingValidationException("Бронирования одной вещи в пакете пересекаются");
+        }
+    }
+
+    private ObjectNotFoundException participantNotFound(long bookerId) {
+        if (!userRepository.existsById(bookerId)) {
+            return new ObjectNotFoundException("нет пользователя с таким id");
+        }
+        return new ObjectNotFoundException("нет вещи с таким id");
+    }
+
+    private boolean validateBooking(Booking booking, Item item) {
         if (Objects.equals(item.getOwnerId(), booking.getBooker().getId())) {
             throw new ObjectNotFoundException("Бронировать вещь у самого себя бессмысленно");
         }
@@ -134,14 +502,6 @@ public class BookingServiceImpl implements BookingService {
         return true;
     }
 
-    private Booking fillBookingField(Booking booking) {
-        booking.setItem(itemRepository.findById(booking.getItem().getId())
-                .orElseThrow(() -> new IllegalArgumentException()));
-        booking.setBooker(userRepository.findById(booking.getBooker().getId())
-                .orElseThrow(() -> new IllegalArgumentException()));
-        return booking;
-    }
-
     private boolean validateOwnerOrBooker(Booking booking, long userId) {
         if (!(booking.getItem().getOwnerId() == userId || booking.getBooker().getId() == userId)) {
             throw new ObjectNotFoundException("Редактировать бронирование может только владелец вещи, либо автор бронирования");
@@ -0,0 +1,11 @@
+package ru.practicum.shareit.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.FORBIDDEN)
+public class AdminAccessException extends RuntimeException {
+    public AdminAccessException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,11 @@
+package ru.practicum.shareit.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class CursorValidationException extends RuntimeException {
+    public CursorValidationException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,11 @@
+package ru.practicum.shareit.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class SearchFilterValidationException extends RuntimeException {
+    public SearchFilterValidationException(String message) {
+        super(message);
+    }
+}
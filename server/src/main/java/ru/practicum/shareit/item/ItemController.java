@@ -1,20 +1,31 @@
 package ru.practicum.shareit.item;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import ru.practicum.shareit.booking.interval.BookingInterval;
 import ru.practicum.shareit.exceptions.ObjectNotFoundException;
+import ru.practicum.shareit.exceptions.SearchFilterValidationException;
 import ru.practicum.shareit.item.dto.*;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.pageable.KeysetCursor;
+import ru.practicum.shareit.stream.NdjsonWriter;
 import ru.practicum.shareit.user.repository.UserRepository;
 
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
+import static ru.practicum.shareit.Consts.APPLICATION_NDJSON;
+import static ru.practicum.shareit.Consts.X_NEXT_CURSOR;
 import static ru.practicum.shareit.Consts.X_SHARER_USER_ID;
 
 @Validated
@@ -25,22 +36,42 @@ import static ru.practicum.shareit.Consts.X_SHARER_USER_ID;
 public class ItemController {
     private final ItemService itemService;
     private final UserRepository userRepository;
+    private final ObjectMapper objectMapper;
 
     @GetMapping
     public List<ItemResponseWithBookingDto> getItems(@RequestHeader(X_SHARER_USER_ID) long userId,
                                                      @RequestParam(value = "from", required = false) Integer from,
-                                                     @RequestParam(value = "size", required = false) Integer size) {
+                                                     @RequestParam(value = "size", required = false) Integer size,
+                                                     @RequestParam(value = "cursor", required = false) String cursor,
+                                                     HttpServletResponse response) {
         if (from == null && size == null) {
             from = 0;
             size = Integer.MAX_VALUE;
             ;
         }
         validateUserIdExist(userId);
-        List<ItemResponseWithBookingDto> itemDtos = itemService.getItems(userId, from, size);
+        List<ItemResponseWithBookingDto> itemDtos;
+        if (cursor == null) {
+            itemDtos = itemService.getItems(userId, from, size);
+        } else {
+            itemDtos = itemService.getItemsAfter(userId, KeysetCursor.decodeId(cursor), size);
+            if (!itemDtos.isEmpty() && itemDtos.size() == size) {
+                setNextCursor(response, itemDtos.get(itemDtos.size() - 1).getId());
+            }
+        }
         log.info("Получен список всех вещей пользователя %s", userId);
         return itemDtos;
     }
 
+    @GetMapping(produces = APPLICATION_NDJSON)
+    public void streamItems(@RequestHeader(X_SHARER_USER_ID) long userId,
+                            HttpServletResponse response) throws IOException {
+        validateUserIdExist(userId);
+        try (NdjsonWriter writer = new NdjsonWriter(objectMapper, response)) {
+            itemService.streamItems(userId, writer::write);
+        }
+    }
+
     @PostMapping
     public ItemDto addItem(@RequestHeader(X_SHARER_USER_ID) long userId, @RequestBody ItemDto itemDto) {
         validateUserIdExist(userId);
@@ -67,17 +98,70 @@ public class ItemController {
         return itemService.getItem(itemId, userId);
     }
 
+    /**
+     * ETag - версия бронирований вещи и запрошенное окно from/to. Версия читается
+     * раньше интервалов, поэтому ответ никогда не бывает старше своего ETag. Без from
+     * окно начинается с текущего момента и сдвигается со временем, поэтому такой
+     * ответ отдается без ETag.
+     */
+    @GetMapping("/{itemId}/calendar")
+    public List<ItemBusyIntervalDto> getItemCalendar(@RequestHeader(X_SHARER_USER_ID) long userId,
+                                                     @PathVariable long itemId,
+                                                     @RequestParam(value = "from", required = false)
+                                                     @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                     @RequestParam(value = "to", required = false)
+                                                     @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                                                     WebRequest request) {
+        validateUserIdExist(userId);
+        if (from != null) {
+            long version = itemService.getItemCalendarVersion(itemId);
+            String window = from + "/" + (to == null ? "" : to);
+            if (request.checkNotModified("\"" + itemId + "-" + version + "@" + window + "\"")) {
+                return null;
+            }
+        }
+        LocalDateTime calendarFrom = from == null ? LocalDateTime.now() : from;
+        LocalDateTime calendarTo = to == null ? LocalDateTime.MAX : to;
+        List<ItemBusyIntervalDto> intervals = new ArrayList<>();
+        for (BookingInterval interval : itemService.getItemCalendar(itemId, calendarFrom, calendarTo)) {
+            intervals.add(ItemMapper.toItemBusyIntervalDto(interval));
+        }
+        return intervals;
+    }
+
     @GetMapping("/search")
     public List<ItemDto> searchItem(@RequestHeader(X_SHARER_USER_ID) long userId, @RequestParam("text") String text,
                                     @RequestParam(value = "from", required = false) Integer from,
-                                    @RequestParam(value = "size", required = false) Integer size) {
+                                    @RequestParam(value = "size", required = false) Integer size,
+                                    @RequestParam(value = "fuzzy", defaultValue = "false") boolean fuzzy,
+                                    @RequestParam(value = "comments", defaultValue = "false") boolean comments,
+                                    @RequestParam(value = "cursor", required = false) String cursor,
+                                    HttpServletResponse response) {
         if (from == null && size == null) {
             from = 0;
             size = Integer.MAX_VALUE;
             ;
         }
         validateUserIdExist(userId);
-        List<Item> items = itemService.searchItem(text, from, size);
+        if (fuzzy && comments) {
+            throw new SearchFilterValidationException("Нечеткий поиск не ищет по отзывам");
+        }
+        List<Item> items;
+        if (cursor != null) {
+            if (fuzzy) {
+                throw new SearchFilterValidationException("Нечеткий поиск не поддерживает курсор");
+            }
+            items = itemService.searchItemAfter(text, comments, KeysetCursor.decodeId(cursor), size);
+            if (!items.isEmpty() && items.size() == size) {
+                setNextCursor(response, items.get(items.size() - 1).getId());
+            }
+        } else if (fuzzy) {
+            items = itemService.fuzzySearchItem(text, from, size);
+        } else if (comments) {
+            items = itemService.searchItemWithComments(text, from, size);
+        } else {
+            items = itemService.searchItem(text, from, size);
+        }
         List<ItemDto> itemDtos = new ArrayList<>();
         for (Item item : items) {
             itemDtos.add(ItemMapper.toItemDto(item));
@@ -85,6 +169,52 @@ public class ItemController {
         return itemDtos;
     }
 
+    @GetMapping("/filter")
+    public ItemSearchResultDto filterItems(@RequestHeader(X_SHARER_USER_ID) long userId,
+                                           @RequestParam(value = "text", required = false) String text,
+                                           @RequestParam(value = "ownerId", required = false) Long ownerId,
+                                           @RequestParam(value = "requestId", required = false) Long requestId,
+                                           @RequestParam(value = "start", required = false)
+                                           @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+                                           @RequestParam(value = "end", required = false)
+                                           @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end,
+                                           @RequestParam(value = "from", defaultValue = "0") Integer from,
+                                           @RequestParam(value = "size", defaultValue = "10") Integer size) {
+        validateUserIdExist(userId);
+        ItemSearchFilterDto filter = ItemSearchFilterDto.builder()
+                .text(text)
+                .ownerId(ownerId)
+                .requestId(requestId)
+                .start(start)
+                .end(end)
+                .build();
+        return itemService.filterItems(filter, from, size);
+    }
+
+    @GetMapping("/available")
+    public List<ItemDto> findAvailableItems(@RequestHeader(X_SHARER_USER_ID) long userId,
+                                            @RequestParam("text") String text,
+                                            @RequestParam("start")
+                                            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+                                            @RequestParam("end")
+                                            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end,
+                                            @RequestParam(value = "from", defaultValue = "0") Integer from,
+                                            @RequestParam(value = "size", defaultValue = "10") Integer size) {
+        validateUserIdExist(userId);
+        List<ItemDto> itemDtos = new ArrayList<>();
+        for (Item item : itemService.findAvailableItems(text, start, end, from, size)) {
+            itemDtos.add(ItemMapper.toItemDto(item));
+        }
+        return itemDtos;
+    }
+
+    @GetMapping("/suggest")
+    public List<String> suggestItemNames(@RequestHeader(X_SHARER_USER_ID) long userId,
+                                         @RequestParam("prefix") String prefix,
+                                         @RequestParam(value = "size", defaultValue = "10") Integer size) {
+        return itemService.suggestItemNames(prefix, size);
+    }
+
     @PostMapping("/{itemId}/comment")
     public CommentDto addComment(@RequestHeader(X_SHARER_USER_ID) long userId, @RequestBody CommentDto commentDto,
                                  @PathVariable long itemId) {
@@ -93,6 +223,10 @@ public class ItemController {
         return CommentMapper.toCommentDto(commentAdded);
     }
 
+    private static void setNextCursor(HttpServletResponse response, long lastId) {
+        response.setHeader(X_NEXT_CURSOR, KeysetCursor.of(lastId).encode());
+    }
+
     boolean validateUserIdExist(long userId) {
         userRepository.findById(userId)
                 .orElseThrow(() -> new ObjectNotFoundException("Такого пользователя не добавлено"));
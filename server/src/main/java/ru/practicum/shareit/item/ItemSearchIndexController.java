@@ -0,0 +1,46 @@
+package ru.practicum.shareit.item;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import ru.practicum.shareit.exceptions.AdminAccessException;
+import ru.practicum.shareit.item.dto.ItemSearchIndexReportDto;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+import ru.practicum.shareit.item.search.ItemSearchProperties;
+
+import static ru.practicum.shareit.Consts.X_SHARER_USER_ID;
+
+@RestController
+@RequiredArgsConstructor
+@Slf4j
+@RequestMapping("/items/search/index")
+public class ItemSearchIndexController {
+    private final ItemSearchIndex itemSearchIndex;
+    private final ItemSearchProperties searchProperties;
+
+    @PostMapping("/rebuild")
+    public ItemSearchIndexReportDto rebuild(@RequestHeader(X_SHARER_USER_ID) long userId) {
+        validateAdmin(userId);
+        ItemSearchIndexReportDto report = itemSearchIndex.rebuild();
+        log.info("Поисковый индекс перестроен, проиндексировано вещей: {}", report.getIndexedItems());
+        return report;
+    }
+
+    @GetMapping("/check")
+    public ItemSearchIndexReportDto check(@RequestHeader(X_SHARER_USER_ID) long userId) {
+        validateAdmin(userId);
+        ItemSearchIndexReportDto report = itemSearchIndex.check();
+        log.info("Проверка поискового индекса, согласован: {}", report.isConsistent());
+        return report;
+    }
+
+    private void validateAdmin(long userId) {
+        if (!searchProperties.getAdminUserIds().contains(userId)) {
+            throw new AdminAccessException("Управлять поисковым индексом может только администратор");
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package ru.practicum.shareit.item;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import ru.practicum.shareit.exceptions.AdminAccessException;
+import ru.practicum.shareit.item.dto.HotSearchTermDto;
+import ru.practicum.shareit.item.search.ItemSearchProperties;
+import ru.practicum.shareit.item.search.ItemSearchTermSketch;
+
+import java.util.List;
+
+import static ru.practicum.shareit.Consts.X_SHARER_USER_ID;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/items/search/terms")
+public class ItemSearchTermController {
+    private final ItemSearchTermSketch termSketch;
+    private final ItemSearchProperties searchProperties;
+
+    @GetMapping
+    public List<HotSearchTermDto> getHotTerms(@RequestHeader(X_SHARER_USER_ID) long userId,
+                                              @RequestParam(value = "size", defaultValue = "10") Integer size) {
+        validateAdmin(userId);
+        return termSketch.top(size);
+    }
+
+    private void validateAdmin(long userId) {
+        if (!searchProperties.getAdminUserIds().contains(userId)) {
+            throw new AdminAccessException("Смотреть поисковые запросы пользователей может только администратор");
+        }
+    }
+}
@@ -2,6 +2,7 @@ package ru.practicum.shareit.item.dto;
 
 import org.springframework.stereotype.Service;
 import ru.practicum.shareit.booking.dto.BookingForItemResponseDto;
+import ru.practicum.shareit.booking.interval.BookingInterval;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.request.model.ItemRequest;
 
@@ -54,6 +55,10 @@ public class ItemMapper {
         );
     }
 
+    public static ItemBusyIntervalDto toItemBusyIntervalDto(BookingInterval interval) {
+        return new ItemBusyIntervalDto(interval.getStart(), interval.getEnd(), interval.getStatus());
+    }
+
     public static ItemResponseWithBookingDto toItemResponseWithBookingDto(Item item,
                                                                           BookingForItemResponseDto lastBooking,
                                                                           BookingForItemResponseDto nextBooking,
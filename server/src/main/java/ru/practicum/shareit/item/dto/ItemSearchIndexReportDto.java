@@ -0,0 +1,21 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Builder
+public class ItemSearchIndexReportDto {
+    private int indexedItems;
+    private int storedItems;
+    @Builder.Default
+    private List<Long> missingItemIds = new ArrayList<>();
+    @Builder.Default
+    private List<Long> staleItemIds = new ArrayList<>();
+    @Builder.Default
+    private List<Long> orphanedItemIds = new ArrayList<>();
+    private boolean consistent;
+}
@@ -0,0 +1,17 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Builder
+public class ItemSearchResultDto {
+    @Builder.Default
+    private List<ItemDto> items = new ArrayList<>();
+    private long total;
+    private long free;
+    private long booked;
+}
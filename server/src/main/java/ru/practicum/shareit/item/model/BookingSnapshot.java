@@ -0,0 +1,22 @@
+package ru.practicum.shareit.item.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Embeddable;
+import java.time.LocalDateTime;
+
+/**
+ * Копия подтвержденного бронирования, хранящаяся в строке вещи.
+ */
+@Data
+@Embeddable
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookingSnapshot {
+    private Long bookingId;
+    private LocalDateTime start;
+    private LocalDateTime end;
+    private Long bookerId;
+}
@@ -0,0 +1,20 @@
+package ru.practicum.shareit.item.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+@Data
+@Entity
+@Table(name = "hot_search_terms", schema = "public")
+@NoArgsConstructor
+@AllArgsConstructor
+public class HotSearchTerm {
+    @Id
+    private String term;
+    private Long hits;
+}
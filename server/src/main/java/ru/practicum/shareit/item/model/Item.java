@@ -25,4 +25,32 @@ public class Item {
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "request_id")
     private ItemRequest request;
+    /**
+     * Последнее и следующее подтвержденные бронирования. Колонки пишет только
+     * ItemBookingRefresher, поэтому сохранение вещи их не затирает.
+     */
+    @Embedded
+    @AttributeOverrides({
+            @AttributeOverride(name = "bookingId",
+                    column = @Column(name = "last_booking_id", insertable = false, updatable = false)),
+            @AttributeOverride(name = "start",
+                    column = @Column(name = "last_booking_start", insertable = false, updatable = false)),
+            @AttributeOverride(name = "end",
+                    column = @Column(name = "last_booking_end", insertable = false, updatable = false)),
+            @AttributeOverride(name = "bookerId",
+                    column = @Column(name = "last_booker_id", insertable = false, updatable = false))
+    })
+    private BookingSnapshot lastBooking;
+    @Embedded
+    @AttributeOverrides({
+            @AttributeOverride(name = "bookingId",
+                    column = @Column(name = "next_booking_id", insertable = false, updatable = false)),
+            @AttributeOverride(name = "start",
+                    column = @Column(name = "next_booking_start", insertable = false, updatable = false)),
+            @AttributeOverride(name = "end",
+                    column = @Column(name = "next_booking_end", insertable = false, updatable = false)),
+            @AttributeOverride(name = "bookerId",
+                    column = @Column(name = "next_booker_id", insertable = false, updatable = false))
+    })
+    private BookingSnapshot nextBooking;
 }
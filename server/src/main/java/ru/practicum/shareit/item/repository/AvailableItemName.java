@@ -0,0 +1,7 @@
+package ru.practicum.shareit.item.repository;
+
+public interface AvailableItemName {
+    Long getId();
+
+    String getName();
+}
@@ -7,9 +7,22 @@ import ru.practicum.shareit.item.model.Comment;
 
 import java.util.List;
 
+/**
+ * Авторы отзывов присоединяются в том же запросе: CommentMapper читает имя
+ * автора, и без этого каждый отзыв стоил бы отдельного запроса к users.
+ */
 public interface CommentRepository extends JpaRepository<Comment, Long> {
-    List<Comment> findByItemId(long itemId);
+    @Query("select c " +
+            "from Comment as c " +
+            "join fetch c.author " +
+            "where c.item.id = :itemId " +
+            "order by c.id")
+    List<Comment> findByItemId(@Param("itemId") long itemId);
 
-    @Query("select c from Comment c where c.item.id in :ids")
+    @Query("select c " +
+            "from Comment as c " +
+            "join fetch c.author " +
+            "where c.item.id in :ids " +
+            "order by c.id")
     List<Comment> findAllByItemIds(@Param("ids") List<Long> itemIdsList);
 }
@@ -0,0 +1,7 @@
+package ru.practicum.shareit.item.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import ru.practicum.shareit.item.model.HotSearchTerm;
+
+public interface HotSearchTermRepository extends JpaRepository<HotSearchTerm, String> {
+}
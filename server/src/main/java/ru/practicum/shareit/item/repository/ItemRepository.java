@@ -2,17 +2,34 @@ package ru.practicum.shareit.item.repository;
 
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import ru.practicum.shareit.item.model.Item;
 
+import javax.persistence.QueryHint;
 import java.util.List;
+import java.util.stream.Stream;
 
-public interface ItemRepository extends JpaRepository<Item, Long> {
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static ru.practicum.shareit.Consts.STREAM_FETCH_SIZE;
+
+public interface ItemRepository extends JpaRepository<Item, Long>, JpaSpecificationExecutor<Item> {
 
     List<Item> findAllByOwnerIdIs(Long ownerId);
 
     List<Item> findAllByOwnerIdIsOrderByIdAsc(Long ownerId, Pageable pageable);
 
+    List<Item> findAllByOwnerIdIsAndIdGreaterThanOrderByIdAsc(Long ownerId, Long id, Pageable pageable);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE))
+    Stream<Item> streamAllByOwnerIdIsOrderByIdAsc(Long ownerId);
+
+    @Query("select item.id as id, item.name as name " +
+            "from Item as item " +
+            "where item.isAvailable = true")
+    List<AvailableItemName> findAllAvailableNames();
+
     @Query("select item " +
             "from Item as item " +
             "where (upper(item.description) like concat('%', upper(?1), '%') " +
@@ -20,4 +37,74 @@ public interface ItemRepository extends JpaRepository<Item, Long> {
             "and item.isAvailable = true " +
             "order by item.id asc")
     List<Item> findAllByNameOrDescriptionContainingIgnoreCase(String text, Pageable pageable);
-}
\ No newline at end of file
+
+    @Query("select item " +
+            "from Item as item " +
+            "where (upper(item.description) like concat('%', upper(?1), '%') " +
+            "or upper(item.name) like concat('%', upper(?1), '%') " +
+            "or exists (select comment.id from Comment as comment " +
+            "where comment.item = item and upper(comment.text) like concat('%', upper(?1), '%'))) " +
+            "and item.isAvailable = true " +
+            "order by item.id asc")
+    List<Item> findAllByTextOrCommentContainingIgnoreCase(String text, Pageable pageable);
+
+    @Query(value = "select * " +
+            "from items as i " +
+            "where i.is_available = true " +
+            "and i.search_vector @@ plainto_tsquery('russian', ?1) " +
+            "order by ts_rank(i.search_vector, plainto_tsquery('russian', ?1)) desc, i.id asc",
+            nativeQuery = true)
+    List<Item> findAllByFullTextSearch(String text, Pageable pageable);
+
+    @Query(value = "select * " +
+            "from items as i " +
+            "where i.is_available = true " +
+            "and i.id in (select it.id from items as it " +
+            "where it.is_available = true and it.search_vector @@ plainto_tsquery('russian', ?1) " +
+            "union select c.item_id from comments as c " +
+            "where c.search_vector @@ plainto_tsquery('russian', ?1)) " +
+            "order by ts_rank(i.search_vector, plainto_tsquery('russian', ?1)) desc, i.id asc",
+            nativeQuery = true)
+    List<Item> findAllByFullTextSearchWithComments(String text, Pageable pageable);
+
+    @Query(value = "select * " +
+            "from items as i " +
+            "where (upper(i.description) like '%' || upper(?1) || '%' " +
+            "or upper(i.name) like '%' || upper(?1) || '%') " +
+            "and i.is_available = true " +
+            "order by i.id asc",
+            nativeQuery = true)
+    List<Item> findAllByTrigramSearch(String text, Pageable pageable);
+
+    @Query(value = "select * " +
+            "from items as i " +
+            "where i.is_available = true " +
+            "and i.id in (select it.id from items as it " +
+            "where it.is_available = true and (upper(it.description) like '%' || upper(?1) || '%' " +
+            "or upper(it.name) like '%' || upper(?1) || '%') " +
+            "union select c.item_id from comments as c " +
+            "where upper(c.text) like '%' || upper(?1) || '%') " +
+            "order by i.id asc",
+            nativeQuery = true)
+    List<Item> findAllByTrigramSearchWithComments(String text, Pageable pageable);
+
+    @Query("select item " +
+            "from Item as item " +
+            "where (upper(item.description) like concat('%', upper(?1), '%') " +
+            "or upper(item.name) like concat('%', upper(?1), '%')) " +
+            "and item.isAvailable = true " +
+            "and item.id > ?2 " +
+            "order by item.id asc")
+    List<Item> findAllByNameOrDescriptionContainingIgnoreCaseAfter(String text, long afterId, Pageable pageable);
+
+    @Query("select item " +
+            "from Item as item " +
+            "where (upper(item.description) like concat('%', upper(?1), '%') " +
+            "or upper(item.name) like concat('%', upper(?1), '%') " +
+            "or exists (select comment.id from Comment as comment " +
+            "where comment.item = item and upper(comment.text) like concat('%', upper(?1), '%'))) " +
+            "and item.isAvailable = true " +
+            "and item.id > ?2 " +
+            "order by item.id asc")
+    List<Item> findAllByTextOrCommentContainingIgnoreCaseAfter(String text, long afterId, Pageable pageable);
+}
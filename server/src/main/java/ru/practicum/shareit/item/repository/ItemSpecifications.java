@@ -0,0 +1,61 @@
+package ru.practicum.shareit.item.repository;
+
+import org.springframework.data.jpa.domain.Specification;
+import ru.practicum.shareit.booking.Status;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.item.model.Item;
+
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Subquery;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class ItemSpecifications {
+    public static Specification<Item> isAvailable() {
+        return (item, query, builder) -> builder.isTrue(item.get("isAvailable"));
+    }
+
+    public static Specification<Item> textContains(String text) {
+        if (text == null || text.isBlank()) {
+            return null;
+        }
+        return (item, query, builder) -> {
+            Expression<String> pattern = builder.concat(builder.concat("%", builder.upper(builder.literal(text))), "%");
+            return builder.or(builder.like(builder.upper(item.get("name")), pattern),
+                    builder.like(builder.upper(item.get("description")), pattern));
+        };
+    }
+
+    public static Specification<Item> ownerIs(Long ownerId) {
+        if (ownerId == null) {
+            return null;
+        }
+        return (item, query, builder) -> builder.equal(item.get("ownerId"), ownerId);
+    }
+
+    public static Specification<Item> requestIs(Long requestId) {
+        if (requestId == null) {
+            return null;
+        }
+        return (item, query, builder) -> builder.equal(item.get("request").get("id"), requestId);
+    }
+
+    /**
+     * Вещь занята, если у нее есть ожидающее или подтвержденное бронирование,
+     * пересекающееся с периодом [start, end). Периоды полуоткрытые, как в
+     * BookingIntervalIndex: бронирование, закончившееся ровно в start, вещь не занимает.
+     */
+    public static Specification<Item> bookedBetween(LocalDateTime start, LocalDateTime end) {
+        return (item, query, builder) -> {
+            Subquery<Long> bookings = query.subquery(Long.class);
+            Root<Booking> booking = bookings.from(Booking.class);
+            bookings.select(booking.get("id"))
+                    .where(builder.equal(booking.get("item"), item),
+                            booking.get("status").in(List.of(Status.WAITING, Status.APPROVED)),
+                            builder.lessThan(booking.get("start"), end),
+                            builder.greaterThan(booking.get("end"), start));
+            return builder.exists(bookings);
+        };
+    }
+}
@@ -0,0 +1,41 @@
+package ru.practicum.shareit.item.search;
+
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.model.ItemRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Отсоединенные копии вещей для структур поиска в памяти. Копия не связана с
+ * сессией Hibernate, а запрос в ней хранит только id, поэтому изменение копии
+ * вызывающим кодом не меняет ни индекс, ни кэш, ни сущность в базе.
+ */
+final class ItemCopies {
+    private ItemCopies() {
+    }
+
+    static Item copyOf(Item item) {
+        ItemRequest request = null;
+        if (item.getRequest() != null) {
+            request = new ItemRequest();
+            request.setId(item.getRequest().getId());
+        }
+        return Item.builder()
+                .id(item.getId())
+                .name(item.getName())
+                .description(item.getDescription())
+                .isAvailable(item.getIsAvailable())
+                .ownerId(item.getOwnerId())
+                .request(request)
+                .build();
+    }
+
+    static List<Item> copyOf(List<Item> items) {
+        List<Item> copies = new ArrayList<>(items.size());
+        for (Item item : items) {
+            copies.add(copyOf(item));
+        }
+        return copies;
+    }
+}
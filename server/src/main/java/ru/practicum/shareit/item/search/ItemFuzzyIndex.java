@@ -0,0 +1,353 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Словарь слов из названий и описаний доступных вещей для поиска с опечатками.
+ * Каждая правка слова затрагивает не больше трех триграмм, поэтому слово на
+ * расстоянии k содержит хотя бы одну из любых 3k + 1 триграмм запроса. Кандидаты
+ * берутся из самых редких триграмм и проверяются ограниченным расстоянием Левенштейна.
+ * Новый словарь строится без блокировки и подменяется целиком; изменения вещей,
+ * сделанные во время перестройки, записываются в журнал и применяются к новому
+ * словарю перед подменой. Словарь строится до того, как сервер начинает
+ * принимать запросы.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ItemFuzzyIndex implements SmartInitializingSingleton {
+    private static final int GRAM_LENGTH = 3;
+
+    private final ItemRepository itemRepository;
+    private final ItemSearchProperties searchProperties;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Dictionary dictionary = new Dictionary();
+    private Map<Long, Set<String>> pendingWrites;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (searchProperties.isFuzzyEnabled()) {
+            rebuild();
+        }
+    }
+
+    public synchronized void rebuild() {
+        lock.writeLock().lock();
+        try {
+            pendingWrites = new LinkedHashMap<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        List<Item> items = itemRepository.findAll();
+        Dictionary newDictionary = new Dictionary();
+        for (Item item : items) {
+            newDictionary.add(item.getId(), itemTerms(item));
+        }
+        lock.writeLock().lock();
+        try {
+            for (Map.Entry<Long, Set<String>> write : pendingWrites.entrySet()) {
+                newDictionary.remove(write.getKey());
+                newDictionary.add(write.getKey(), write.getValue());
+            }
+            pendingWrites = null;
+            dictionary = newDictionary;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Словарь для нечеткого поиска построен: {} вещей, {} слов",
+                items.size(), newDictionary.termPostings.size());
+    }
+
+    public void index(Item item) {
+        if (!searchProperties.isFuzzyEnabled()) {
+            return;
+        }
+        Set<String> terms = itemTerms(item);
+        lock.writeLock().lock();
+        try {
+            dictionary.remove(item.getId());
+            dictionary.add(item.getId(), terms);
+            if (pendingWrites != null) {
+                pendingWrites.put(item.getId(), terms);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<Long> search(String text, int from, int size) {
+        List<String> queryTerms = terms(text);
+        List<Long> result = new ArrayList<>();
+        if (queryTerms.isEmpty()) {
+            return result;
+        }
+        Matches matches = null;
+        int maxScore = 0;
+        lock.readLock().lock();
+        try {
+            for (String queryTerm : queryTerms) {
+                int maxDistance = maxDistance(queryTerm.length());
+                Matches termMatches = match(dictionary, queryTerm, maxDistance);
+                matches = matches == null ? termMatches : matches.intersect(termMatches);
+                maxScore += maxDistance;
+                if (matches.size == 0) {
+                    return result;
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        long skip = from;
+        for (int score = 0; score <= maxScore && result.size() < size; score++) {
+            for (int i = 0; i < matches.size && result.size() < size; i++) {
+                if (matches.distances[i] != score) {
+                    continue;
+                }
+                if (skip > 0) {
+                    skip--;
+                } else {
+                    result.add(matches.ids[i]);
+                }
+            }
+        }
+        return result;
+    }
+
+    private static Matches match(Dictionary dictionary, String queryTerm, int maxDistance) {
+        Map<String, ItemIdPostings> termPostings = dictionary.termPostings;
+        if (maxDistance == 0) {
+            ItemIdPostings postings = termPostings.get(queryTerm);
+            return postings == null ? new Matches(0) : new Matches(postings, 0);
+        }
+        List<Set<String>> gramLists = new ArrayList<>();
+        for (String gram : grams(queryTerm)) {
+            gramLists.add(dictionary.gramTerms.getOrDefault(gram, Set.of()));
+        }
+        gramLists.sort(Comparator.comparingInt(Set::size));
+        Set<String> candidates = new HashSet<>();
+        for (Set<String> terms : gramLists.subList(0, Math.min(gramLists.size(), GRAM_LENGTH * maxDistance + 1))) {
+            for (String term : terms) {
+                if (Math.abs(term.length() - queryTerm.length()) <= maxDistance) {
+                    candidates.add(term);
+                }
+            }
+        }
+        List<Matches> parts = new ArrayList<>();
+        for (String candidate : candidates) {
+            int distance = distance(queryTerm, candidate, maxDistance);
+            if (distance <= maxDistance) {
+                parts.add(new Matches(termPostings.get(candidate), distance));
+            }
+        }
+        if (parts.isEmpty()) {
+            return new Matches(0);
+        }
+        while (parts.size() > 1) {
+            List<Matches> merged = new ArrayList<>();
+            for (int i = 0; i + 1 < parts.size(); i += 2) {
+                merged.add(parts.get(i).union(parts.get(i + 1)));
+            }
+            if (parts.size() % 2 == 1) {
+                merged.add(parts.get(parts.size() - 1));
+            }
+            parts = merged;
+        }
+        return parts.get(0);
+    }
+
+    private static Set<String> itemTerms(Item item) {
+        if (!Boolean.TRUE.equals(item.getIsAvailable())) {
+            return null;
+        }
+        Set<String> terms = new HashSet<>(terms(item.getName()));
+        terms.addAll(terms(item.getDescription()));
+        return terms;
+    }
+
+    static int maxDistance(int length) {
+        if (length < 4) {
+            return 0;
+        }
+        return length < 7 ? 1 : 2;
+    }
+
+    static int distance(String source, String target, int maxDistance) {
+        if (Math.abs(source.length() - target.length()) > maxDistance) {
+            return maxDistance + 1;
+        }
+        int[] previous = new int[target.length() + 1];
+        int[] current = new int[target.length() + 1];
+        for (int j = 0; j <= target.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= source.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= target.length(); j++) {
+                int cost = source.charAt(i - 1) == target.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > maxDistance) {
+                return maxDistance + 1;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[target.length()];
+    }
+
+    private static List<String> terms(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null) {
+            return terms;
+        }
+        for (String term : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!term.isEmpty()) {
+                terms.add(term);
+            }
+        }
+        return terms;
+    }
+
+    private static Set<String> grams(String term) {
+        String padded = " " + term + " ";
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM_LENGTH <= padded.length(); i++) {
+            grams.add(padded.substring(i, i + GRAM_LENGTH));
+        }
+        return grams;
+    }
+
+    /**
+     * Слово -> id вещей, триграмма -> слова и слова каждой вещи.
+     */
+    private static class Dictionary {
+        private final Map<String, ItemIdPostings> termPostings = new HashMap<>();
+        private final Map<String, Set<String>> gramTerms = new HashMap<>();
+        private final Map<Long, Set<String>> itemTerms = new HashMap<>();
+
+        void add(long itemId, Set<String> terms) {
+            if (terms == null) {
+                return;
+            }
+            for (String term : terms) {
+                ItemIdPostings postings = termPostings.get(term);
+                if (postings == null) {
+                    postings = new ItemIdPostings();
+                    termPostings.put(term, postings);
+                    for (String gram : grams(term)) {
+                        gramTerms.computeIfAbsent(gram, key -> new HashSet<>()).add(term);
+                    }
+                }
+                postings.add(itemId);
+            }
+            itemTerms.put(itemId, terms);
+        }
+
+        void remove(long itemId) {
+            Set<String> terms = itemTerms.remove(itemId);
+            if (terms == null) {
+                return;
+            }
+            for (String term : terms) {
+                ItemIdPostings postings = termPostings.get(term);
+                postings.remove(itemId);
+                if (postings.size() > 0) {
+                    continue;
+                }
+                termPostings.remove(term);
+                for (String gram : grams(term)) {
+                    Set<String> gramSet = gramTerms.get(gram);
+                    gramSet.remove(term);
+                    if (gramSet.isEmpty()) {
+                        gramTerms.remove(gram);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Id вещей по возрастанию и суммарное расстояние до слов запроса.
+     */
+    private static class Matches {
+        private final long[] ids;
+        private final int[] distances;
+        private int size;
+
+        Matches(int capacity) {
+            ids = new long[capacity];
+            distances = new int[capacity];
+        }
+
+        Matches(ItemIdPostings postings, int distance) {
+            this(postings.size());
+            for (int i = 0; i < postings.size(); i++) {
+                append(postings.get(i), distance);
+            }
+        }
+
+        Matches union(Matches other) {
+            Matches merged = new Matches(size + other.size);
+            int i = 0;
+            int j = 0;
+            while (i < size || j < other.size) {
+                if (j == other.size || i < size && ids[i] < other.ids[j]) {
+                    merged.append(ids[i], distances[i]);
+                    i++;
+                } else if (i == size || other.ids[j] < ids[i]) {
+                    merged.append(other.ids[j], other.distances[j]);
+                    j++;
+                } else {
+                    merged.append(ids[i], Math.min(distances[i], other.distances[j]));
+                    i++;
+                    j++;
+                }
+            }
+            return merged;
+        }
+
+        Matches intersect(Matches other) {
+            Matches merged = new Matches(Math.min(size, other.size));
+            int i = 0;
+            int j = 0;
+            while (i < size && j < other.size) {
+                if (ids[i] < other.ids[j]) {
+                    i++;
+                } else if (other.ids[j] < ids[i]) {
+                    j++;
+                } else {
+                    merged.append(ids[i], distances[i] + other.distances[j]);
+                    i++;
+                    j++;
+                }
+            }
+            return merged;
+        }
+
+        private void append(long id, int distance) {
+            ids[size] = id;
+            distances[size] = distance;
+            size++;
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.AvailableItemName;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Префиксное дерево по названиям доступных вещей. Дети узла хранятся в
+ * отсортированных массивах, поэтому подсказки выдаются в алфавитном порядке
+ * обходом в глубину, который останавливается на первых size названиях.
+ * Узел помнит все написания своего названия и показывает самое частое, при
+ * равенстве - первое по алфавиту, так что подсказка не зависит от порядка
+ * добавления. Изменения во время перестройки пишутся в журнал по id вещи
+ * и накладываются на прочитанные названия перед подменой дерева. Дерево
+ * строится до того, как сервер начинает принимать запросы.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ItemNameSuggester implements SmartInitializingSingleton {
+    private final ItemRepository itemRepository;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Node root = new Node();
+    private Map<Long, String> pendingNames;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        rebuild();
+    }
+
+    public synchronized void rebuild() {
+        lock.writeLock().lock();
+        try {
+            pendingNames = new LinkedHashMap<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        Map<Long, String> names = new HashMap<>();
+        for (AvailableItemName item : itemRepository.findAllAvailableNames()) {
+            names.put(item.getId(), item.getName());
+        }
+        lock.writeLock().lock();
+        try {
+            for (Map.Entry<Long, String> pending : pendingNames.entrySet()) {
+                if (pending.getValue() == null) {
+                    names.remove(pending.getKey());
+                } else {
+                    names.put(pending.getKey(), pending.getValue());
+                }
+            }
+            pendingNames = null;
+            Node newRoot = new Node();
+            for (String name : names.values()) {
+                add(newRoot, name);
+            }
+            root = newRoot;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Дерево подсказок построено по {} названиям", names.size());
+    }
+
+    public void update(Item previous, Item saved) {
+        boolean previousAvailable = previous != null && Boolean.TRUE.equals(previous.getIsAvailable());
+        boolean savedAvailable = Boolean.TRUE.equals(saved.getIsAvailable());
+        lock.writeLock().lock();
+        try {
+            if (pendingNames != null) {
+                pendingNames.put(saved.getId(), savedAvailable ? saved.getName() : null);
+            }
+            if (previousAvailable && savedAvailable && Objects.equals(previous.getName(), saved.getName())) {
+                return;
+            }
+            if (previousAvailable) {
+                remove(root, previous.getName());
+            }
+            if (savedAvailable) {
+                add(root, saved.getName());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<String> suggest(String prefix, int size) {
+        List<String> result = new ArrayList<>();
+        String key = normalize(prefix);
+        if (key.isEmpty() || size <= 0) {
+            return result;
+        }
+        lock.readLock().lock();
+        try {
+            Node node = root;
+            for (int i = 0; i < key.length() && node != null; i++) {
+                node = node.child(key.charAt(i));
+            }
+            if (node != null) {
+                collect(node, size, result);
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static void collect(Node node, int size, List<String> result) {
+        if (node.count > 0) {
+            result.add(node.displayName());
+        }
+        for (int i = 0; i < node.size && result.size() < size; i++) {
+            collect(node.children[i], size, result);
+        }
+    }
+
+    private static void add(Node root, String name) {
+        String key = normalize(name);
+        if (key.isEmpty()) {
+            return;
+        }
+        Node node = root;
+        for (int i = 0; i < key.length(); i++) {
+            node = node.childOrCreate(key.charAt(i));
+        }
+        node.count++;
+        node.names.merge(name, 1, Integer::sum);
+    }
+
+    private static void remove(Node root, String name) {
+        String key = normalize(name);
+        if (key.isEmpty()) {
+            return;
+        }
+        Node[] path = new Node[key.length() + 1];
+        path[0] = root;
+        for (int i = 0; i < key.length(); i++) {
+            path[i + 1] = path[i].child(key.charAt(i));
+            if (path[i + 1] == null) {
+                return;
+            }
+        }
+        Node node = path[key.length()];
+        if (node.count == 0) {
+            return;
+        }
+        node.count--;
+        node.names.computeIfPresent(name, (spelling, count) -> count > 1 ? count - 1 : null);
+        for (int i = key.length(); i > 0 && path[i].count == 0 && path[i].size == 0; i--) {
+            path[i - 1].removeChild(key.charAt(i - 1));
+        }
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static class Node {
+        private char[] keys = new char[0];
+        private Node[] children = new Node[0];
+        private int size;
+        private int count;
+        private final Map<String, Integer> names = new TreeMap<>();
+
+        String displayName() {
+            String display = null;
+            int displayCount = 0;
+            for (Map.Entry<String, Integer> entry : names.entrySet()) {
+                if (entry.getValue() > displayCount) {
+                    display = entry.getKey();
+                    displayCount = entry.getValue();
+                }
+            }
+            return display;
+        }
+
+        Node child(char key) {
+            int position = Arrays.binarySearch(keys, 0, size, key);
+            return position >= 0 ? children[position] : null;
+        }
+
+        Node childOrCreate(char key) {
+            int position = Arrays.binarySearch(keys, 0, size, key);
+            if (position >= 0) {
+                return children[position];
+            }
+            position = -position - 1;
+            if (size == keys.length) {
+                int capacity = Math.max(2, size * 2);
+                keys = Arrays.copyOf(keys, capacity);
+                children = Arrays.copyOf(children, capacity);
+            }
+            System.arraycopy(keys, position, keys, position + 1, size - position);
+            System.arraycopy(children, position, children, position + 1, size - position);
+            Node child = new Node();
+            keys[position] = key;
+            children[position] = child;
+            size++;
+            return child;
+        }
+
+        void removeChild(char key) {
+            int position = Arrays.binarySearch(keys, 0, size, key);
+            if (position < 0) {
+                return;
+            }
+            System.arraycopy(keys, position + 1, keys, position, size - position - 1);
+            System.arraycopy(children, position + 1, children, position, size - position - 1);
+            size--;
+            children[size] = null;
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package ru.practicum.shareit.item.search;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * LRU-кэш результатов поиска. Запись удаляется, только если сохраненная вещь
+ * (до или после изменения) доступна и подходит под текст запроса. Записи поиска
+ * с отзывами удаляются при любом изменении вещи и при новом подходящем отзыве.
+ * В режиме FULLTEXT база сравнивает основы слов, а стеммер отрезает только
+ * окончания, поэтому запись удаляется, если хотя бы одно слово запроса
+ * начинается с тех же двух букв, что и слово вещи или отзыва.
+ * Кэш хранит отсоединенные копии вещей и каждому вызову отдает новые копии,
+ * поэтому общий результат не связан с сессией и не меняется вызывающим кодом.
+ */
+@Component
+@RequiredArgsConstructor
+public class ItemSearchCache implements MeterBinder {
+    private static final int STEM_PREFIX = 2;
+
+    private final ItemSearchProperties searchProperties;
+    private final LinkedHashMap<Key, List<Item>> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+    private long generation;
+
+    public List<Item> get(String text, int from, int size, Supplier<List<Item>> loader) {
+        return get(text, false, from, size, loader);
+    }
+
+    public List<Item> get(String text, boolean comments, int from, int size, Supplier<List<Item>> loader) {
+        if (searchProperties.getCacheSize() <= 0) {
+            return loader.get();
+        }
+        Key key = new Key(ItemSearchText.normalize(text), comments, from, size);
+        long loadGeneration;
+        synchronized (this) {
+            List<Item> cached = entries.get(key);
+            if (cached != null) {
+                hits.increment();
+                return ItemCopies.copyOf(cached);
+            }
+            loadGeneration = generation;
+        }
+        misses.increment();
+        List<Item> loaded = loader.get();
+        List<Item> copies = List.copyOf(ItemCopies.copyOf(loaded));
+        synchronized (this) {
+            if (loadGeneration == generation) {
+                entries.put(key, copies);
+                evictOverflow();
+            }
+        }
+        return loaded;
+    }
+
+    public void invalidate(Item previous, Item saved) {
+        String previousName = previous == null ? null : ItemSearchText.normalize(previous.getName());
+        String previousDescription = previous == null ? null : ItemSearchText.normalize(previous.getDescription());
+        boolean previousAvailable = previous != null && Boolean.TRUE.equals(previous.getIsAvailable());
+        String savedName = ItemSearchText.normalize(saved.getName());
+        String savedDescription = ItemSearchText.normalize(saved.getDescription());
+        boolean savedAvailable = Boolean.TRUE.equals(saved.getIsAvailable());
+        boolean substringSearch = searchProperties.getMode() != ItemSearchMode.FULLTEXT;
+        List<String> previousWords = previousAvailable && !substringSearch
+                ? ItemSearchText.words(previousName + " " + previousDescription) : List.of();
+        List<String> savedWords = savedAvailable && !substringSearch
+                ? ItemSearchText.words(savedName + " " + savedDescription) : List.of();
+        synchronized (this) {
+            generation++;
+            Iterator<Key> iterator = entries.keySet().iterator();
+            while (iterator.hasNext()) {
+                Key key = iterator.next();
+                String query = key.text;
+                boolean affected;
+                if (key.comments) {
+                    affected = true;
+                } else if (substringSearch) {
+                    affected = previousAvailable && matches(query, previousName, previousDescription)
+                            || savedAvailable && matches(query, savedName, savedDescription);
+                } else {
+                    affected = sharesStem(query, previousWords) || sharesStem(query, savedWords);
+                }
+                if (affected) {
+                    iterator.remove();
+                    invalidations.increment();
+                }
+            }
+        }
+    }
+
+    public void invalidate(Comment comment) {
+        String text = ItemSearchText.normalize(comment.getText());
+        boolean substringSearch = searchProperties.getMode() != ItemSearchMode.FULLTEXT;
+        List<String> words = substringSearch ? List.of() : ItemSearchText.words(text);
+        synchronized (this) {
+            generation++;
+            Iterator<Key> iterator = entries.keySet().iterator();
+            while (iterator.hasNext()) {
+                Key key = iterator.next();
+                if (key.comments && (substringSearch ? text.contains(key.text) : sharesStem(key.text, words))) {
+                    iterator.remove();
+                    invalidations.increment();
+                }
+            }
+        }
+    }
+
+    public synchronized void clear() {
+        generation++;
+        entries.clear();
+    }
+
+    public synchronized long getGeneration() {
+        return generation;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    public long getInvalidations() {
+        return invalidations.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("item.search.cache.hits", this, ItemSearchCache::getHits).register(registry);
+        FunctionCounter.builder("item.search.cache.misses", this, ItemSearchCache::getMisses).register(registry);
+        FunctionCounter.builder("item.search.cache.evictions", this, ItemSearchCache::getEvictions).register(registry);
+        FunctionCounter.builder("item.search.cache.invalidations", this, ItemSearchCache::getInvalidations)
+                .register(registry);
+        Gauge.builder("item.search.cache.size", this, ItemSearchCache::size).register(registry);
+    }
+
+    private void evictOverflow() {
+        Iterator<Key> iterator = entries.keySet().iterator();
+        while (entries.size() > searchProperties.getCacheSize() && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+            evictions.increment();
+        }
+    }
+
+    private static boolean matches(String query, String name, String description) {
+        return name.contains(query) || description.contains(query);
+    }
+
+    private static boolean sharesStem(String query, List<String> words) {
+        if (words.isEmpty()) {
+            return false;
+        }
+        for (String queryWord : ItemSearchText.words(query)) {
+            for (String word : words) {
+                int prefix = Math.min(STEM_PREFIX, Math.min(queryWord.length(), word.length()));
+                if (queryWord.regionMatches(0, word, 0, prefix)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    @Value
+    private static class Key {
+        String text;
+        boolean comments;
+        int from;
+        int size;
+    }
+}
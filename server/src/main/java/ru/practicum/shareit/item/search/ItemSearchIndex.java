@@ -0,0 +1,294 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.dto.ItemSearchIndexReportDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Инвертированный индекс вещей в памяти: триграмма -> отсортированные id вещей.
+ * Кандидаты из пересечения списков проверяются поиском подстроки, поэтому
+ * результат совпадает с LIKE-поиском в базе. Id доступных вещей хранятся в
+ * отсортированном списке long, так что id любого размера допустимы.
+ * Пока идет перестройка, изменения вещей записываются и в действующий индекс,
+ * и в журнал; журнал применяется к новому индексу перед подменой.
+ * Индекс строится до того, как сервер начинает принимать запросы.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ItemSearchIndex implements SmartInitializingSingleton {
+    private static final int GRAM_LENGTH = 3;
+
+    private final ItemRepository itemRepository;
+    private final ItemSearchProperties searchProperties;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Map<String, ItemIdPostings> postings = new HashMap<>();
+    private Map<Long, IndexedItem> documents = new HashMap<>();
+    private ItemIdPostings available = new ItemIdPostings();
+    private Map<Long, IndexedItem> pendingWrites;
+
+    public boolean isEnabled() {
+        return searchProperties.getMode() == ItemSearchMode.INDEX;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (isEnabled()) {
+            rebuild();
+        }
+    }
+
+    public synchronized ItemSearchIndexReportDto rebuild() {
+        lock.writeLock().lock();
+        try {
+            pendingWrites = new LinkedHashMap<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        List<Item> items = itemRepository.findAll();
+        Map<String, ItemIdPostings> newPostings = new HashMap<>();
+        Map<Long, IndexedItem> newDocuments = new HashMap<>();
+        ItemIdPostings newAvailable = new ItemIdPostings();
+        for (Item item : items) {
+            add(new IndexedItem(item), newPostings, newDocuments, newAvailable);
+        }
+        int indexedItems;
+        lock.writeLock().lock();
+        try {
+            for (IndexedItem document : pendingWrites.values()) {
+                IndexedItem previous = newDocuments.get(document.item.getId());
+                if (previous != null) {
+                    remove(previous, newPostings, newDocuments, newAvailable);
+                }
+                add(document, newPostings, newDocuments, newAvailable);
+            }
+            pendingWrites = null;
+            postings = newPostings;
+            documents = newDocuments;
+            available = newAvailable;
+            indexedItems = newDocuments.size();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Поисковый индекс перестроен: {} вещей, {} триграмм", indexedItems, newPostings.size());
+        return ItemSearchIndexReportDto.builder()
+                .indexedItems(indexedItems)
+                .storedItems(items.size())
+                .consistent(true)
+                .build();
+    }
+
+    public void index(Item item) {
+        if (!isEnabled()) {
+            return;
+        }
+        IndexedItem document = new IndexedItem(item);
+        lock.writeLock().lock();
+        try {
+            IndexedItem previous = documents.get(item.getId());
+            if (previous != null) {
+                remove(previous, postings, documents, available);
+            }
+            add(document, postings, documents, available);
+            if (pendingWrites != null) {
+                pendingWrites.put(item.getId(), document);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<Item> search(String text, int from, int size) {
+        return search(text, 0, from, size);
+    }
+
+    /**
+     * Страница вещей с id больше afterId в порядке id: списки id отсортированы,
+     * поэтому обход начинается сразу с позиции после курсора.
+     */
+    public List<Item> searchAfter(String text, long afterId, int size) {
+        return search(text, afterId, 0, size);
+    }
+
+    private List<Item> search(String text, long afterId, long skip, int size) {
+        String query = normalize(text);
+        List<Item> result = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            if (query.length() < GRAM_LENGTH) {
+                for (int i = available.positionAfter(afterId); i < available.size() && result.size() < size; i++) {
+                    IndexedItem document = documents.get(available.get(i));
+                    if (document.contains(query)) {
+                        if (skip > 0) {
+                            skip--;
+                        } else {
+                            result.add(ItemCopies.copyOf(document.item));
+                        }
+                    }
+                }
+                return result;
+            }
+            List<ItemIdPostings> lists = new ArrayList<>();
+            for (String gram : grams(query)) {
+                ItemIdPostings list = postings.get(gram);
+                if (list == null) {
+                    return result;
+                }
+                lists.add(list);
+            }
+            lists.sort(Comparator.comparingInt(ItemIdPostings::size));
+            ItemIdPostings shortest = lists.get(0);
+            for (int i = shortest.positionAfter(afterId); i < shortest.size() && result.size() < size; i++) {
+                long id = shortest.get(i);
+                if (!available.contains(id) || !containsInAll(lists, id)) {
+                    continue;
+                }
+                IndexedItem document = documents.get(id);
+                if (document.contains(query)) {
+                    if (skip > 0) {
+                        skip--;
+                    } else {
+                        result.add(ItemCopies.copyOf(document.item));
+                    }
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public ItemSearchIndexReportDto check() {
+        List<Item> items = itemRepository.findAll();
+        Set<Long> storedIds = new HashSet<>();
+        List<Long> missing = new ArrayList<>();
+        List<Long> stale = new ArrayList<>();
+        List<Long> orphaned = new ArrayList<>();
+        int indexedItems;
+        lock.readLock().lock();
+        try {
+            for (Item item : items) {
+                storedIds.add(item.getId());
+                IndexedItem document = documents.get(item.getId());
+                if (document == null) {
+                    missing.add(item.getId());
+                } else if (!document.sameAs(item)) {
+                    stale.add(item.getId());
+                }
+            }
+            for (Long id : documents.keySet()) {
+                if (!storedIds.contains(id)) {
+                    orphaned.add(id);
+                }
+            }
+            indexedItems = documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+        return ItemSearchIndexReportDto.builder()
+                .indexedItems(indexedItems)
+                .storedItems(items.size())
+                .missingItemIds(missing)
+                .staleItemIds(stale)
+                .orphanedItemIds(orphaned)
+                .consistent(missing.isEmpty() && stale.isEmpty() && orphaned.isEmpty())
+                .build();
+    }
+
+    private static void add(IndexedItem document, Map<String, ItemIdPostings> postings,
+                            Map<Long, IndexedItem> documents, ItemIdPostings available) {
+        long id = document.item.getId();
+        for (String gram : document.grams()) {
+            postings.computeIfAbsent(gram, key -> new ItemIdPostings()).add(id);
+        }
+        documents.put(id, document);
+        if (Boolean.TRUE.equals(document.item.getIsAvailable())) {
+            available.add(id);
+        } else {
+            available.remove(id);
+        }
+    }
+
+    private static void remove(IndexedItem document, Map<String, ItemIdPostings> postings,
+                               Map<Long, IndexedItem> documents, ItemIdPostings available) {
+        long id = document.item.getId();
+        for (String gram : document.grams()) {
+            ItemIdPostings list = postings.get(gram);
+            if (list != null) {
+                list.remove(id);
+                if (list.size() == 0) {
+                    postings.remove(gram);
+                }
+            }
+        }
+        documents.remove(id);
+        available.remove(id);
+    }
+
+    private static boolean containsInAll(List<ItemIdPostings> lists, long id) {
+        for (int i = 1; i < lists.size(); i++) {
+            if (!lists.get(i).contains(id)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Set<String> grams(String text) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM_LENGTH <= text.length(); i++) {
+            grams.add(text.substring(i, i + GRAM_LENGTH));
+        }
+        return grams;
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.toUpperCase(Locale.ROOT);
+    }
+
+
+    private static class IndexedItem {
+        private final Item item;
+        private final String name;
+        private final String description;
+
+        IndexedItem(Item item) {
+            this.item = ItemCopies.copyOf(item);
+            this.name = normalize(item.getName());
+            this.description = normalize(item.getDescription());
+        }
+
+        boolean contains(String query) {
+            return name.contains(query) || description.contains(query);
+        }
+
+        Set<String> grams() {
+            Set<String> grams = ItemSearchIndex.grams(name);
+            grams.addAll(ItemSearchIndex.grams(description));
+            return grams;
+        }
+
+        boolean sameAs(Item other) {
+            return Objects.equals(item.getName(), other.getName())
+                    && Objects.equals(item.getDescription(), other.getDescription())
+                    && Objects.equals(item.getIsAvailable(), other.getIsAvailable());
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.HashSet;
+import java.util.Set;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "shareit.search")
+public class ItemSearchProperties {
+    private ItemSearchMode mode = ItemSearchMode.LIKE;
+    private int cacheSize = 1000;
+    private boolean fuzzyEnabled;
+    private int hotTerms = 20;
+    private int warmUpPageSize = 10;
+    /**
+     * Пользователи, которым доступны перестройка и проверка поискового индекса.
+     */
+    private Set<Long> adminUserIds = new HashSet<>();
+}
@@ -0,0 +1,105 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.dto.HotSearchTermDto;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Частоты поисковых запросов в памяти фиксированного размера: count-min sketch
+ * оценивает число запросов по любому терму, а самые частые термы (не больше
+ * hotTerms) хранятся отдельно вместе с оценкой. Счетчики периодически делятся
+ * пополам, так что давно не повторявшиеся запросы уходят из частых. Термы длиннее
+ * колонки hot_search_terms.term не учитываются: их нельзя сохранить в снимок.
+ */
+@Component
+@RequiredArgsConstructor
+public class ItemSearchTermSketch {
+    private static final int DEPTH = 4;
+    private static final int WIDTH = 4096;
+    static final int MAX_TERM_LENGTH = 255;
+
+    private final ItemSearchProperties searchProperties;
+    private final long[][] counters = new long[DEPTH][WIDTH];
+    private final Map<String, Long> hotTerms = new HashMap<>();
+
+    public void record(String text) {
+        add(ItemSearchText.normalize(text), 1);
+    }
+
+    public void seed(String term, long hits) {
+        add(ItemSearchText.normalize(term), hits);
+    }
+
+    public synchronized long estimate(String text) {
+        String term = ItemSearchText.normalize(text);
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < DEPTH; row++) {
+            estimate = Math.min(estimate, counters[row][index(term, row)]);
+        }
+        return estimate;
+    }
+
+    public synchronized List<HotSearchTermDto> top(int size) {
+        List<HotSearchTermDto> top = new ArrayList<>();
+        for (Map.Entry<String, Long> entry : hotTerms.entrySet()) {
+            top.add(new HotSearchTermDto(entry.getKey(), entry.getValue()));
+        }
+        top.sort((first, second) -> first.getHits() != second.getHits()
+                ? Long.compare(second.getHits(), first.getHits())
+                : first.getTerm().compareTo(second.getTerm()));
+        return top.size() > size ? new ArrayList<>(top.subList(0, size)) : top;
+    }
+
+    @Scheduled(initialDelayString = "${shareit.search.term-decay-delay:3600000}",
+            fixedDelayString = "${shareit.search.term-decay-delay:3600000}")
+    public synchronized void decay() {
+        for (long[] row : counters) {
+            for (int column = 0; column < WIDTH; column++) {
+                row[column] /= 2;
+            }
+        }
+        hotTerms.replaceAll((term, hits) -> hits / 2);
+        hotTerms.values().removeIf(hits -> hits == 0);
+    }
+
+    private synchronized void add(String term, long hits) {
+        if (term.isEmpty() || term.length() > MAX_TERM_LENGTH || hits <= 0) {
+            return;
+        }
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < DEPTH; row++) {
+            int column = index(term, row);
+            counters[row][column] += hits;
+            estimate = Math.min(estimate, counters[row][column]);
+        }
+        if (hotTerms.containsKey(term) || hotTerms.size() < searchProperties.getHotTerms()) {
+            hotTerms.put(term, estimate);
+            return;
+        }
+        Map.Entry<String, Long> coldest = null;
+        for (Map.Entry<String, Long> entry : hotTerms.entrySet()) {
+            if (coldest == null || entry.getValue() < coldest.getValue()) {
+                coldest = entry;
+            }
+        }
+        if (coldest != null && estimate > coldest.getValue()) {
+            hotTerms.remove(coldest.getKey());
+            hotTerms.put(term, estimate);
+        }
+    }
+
+    private static int index(String term, int row) {
+        int hash = term.hashCode();
+        int secondHash = 0x811c9dc5;
+        for (int i = 0; i < term.length(); i++) {
+            secondHash = (secondHash ^ term.charAt(i)) * 0x01000193;
+        }
+        return ((hash + row * secondHash) & Integer.MAX_VALUE) % WIDTH;
+    }
+}
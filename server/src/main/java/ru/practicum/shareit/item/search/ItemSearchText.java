@@ -0,0 +1,26 @@
+package ru.practicum.shareit.item.search;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+/**
+ * Единая нормализация текста поиска: по ней считаются частоты запросов и
+ * строятся ключи кэша, поэтому прогретые записи совпадают с ключами живых запросов.
+ */
+public final class ItemSearchText {
+    private ItemSearchText() {
+    }
+
+    public static String normalize(String text) {
+        return text == null ? "" : text.trim().toLowerCase(Locale.ROOT);
+    }
+
+    public static List<String> words(String text) {
+        return Arrays.stream(normalize(text).split("[^\\p{L}\\p{N}]+"))
+                .filter(word -> !word.isEmpty())
+                .distinct()
+                .collect(Collectors.toList());
+    }
+}
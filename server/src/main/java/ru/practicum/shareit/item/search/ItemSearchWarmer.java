@@ -0,0 +1,79 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.dto.HotSearchTermDto;
+import ru.practicum.shareit.item.model.HotSearchTerm;
+import ru.practicum.shareit.item.repository.HotSearchTermRepository;
+import ru.practicum.shareit.item.service.ItemService;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Прогревает кэш поиска самыми частыми запросами после старта и после
+ * изменений вещей (когда меняется поколение кэша). Список частых запросов
+ * сохраняется в базе, чтобы пережить перезапуск.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ItemSearchWarmer {
+    private final ItemService itemService;
+    private final ItemSearchCache itemSearchCache;
+    private final ItemSearchTermSketch termSketch;
+    private final ItemSearchProperties searchProperties;
+    private final HotSearchTermRepository hotSearchTermRepository;
+    private long warmedGeneration = -1;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void restore() {
+        List<HotSearchTerm> terms = hotSearchTermRepository.findAll();
+        for (HotSearchTerm term : terms) {
+            termSketch.seed(term.getTerm(), term.getHits());
+        }
+        log.info("Восстановлено частых поисковых запросов: {}", terms.size());
+        warmUp();
+    }
+
+    @Scheduled(initialDelayString = "${shareit.search.warm-up-delay:60000}",
+            fixedDelayString = "${shareit.search.warm-up-delay:60000}")
+    public synchronized void warmUp() {
+        if (searchProperties.getCacheSize() <= 0) {
+            return;
+        }
+        List<HotSearchTermDto> terms = termSketch.top(searchProperties.getHotTerms());
+        long generation = itemSearchCache.getGeneration();
+        if (generation != warmedGeneration && !terms.isEmpty()) {
+            for (HotSearchTermDto term : terms) {
+                itemService.warmUpSearchCache(term.getTerm(), searchProperties.getWarmUpPageSize());
+            }
+            warmedGeneration = generation;
+            log.info("Кэш поиска прогрет по {} запросам", terms.size());
+        }
+        saveSnapshot(terms);
+    }
+
+    private void saveSnapshot(List<HotSearchTermDto> terms) {
+        Set<String> hot = new HashSet<>();
+        List<HotSearchTerm> snapshot = new ArrayList<>();
+        for (HotSearchTermDto term : terms) {
+            hot.add(term.getTerm());
+            snapshot.add(new HotSearchTerm(term.getTerm(), term.getHits()));
+        }
+        List<HotSearchTerm> stale = new ArrayList<>();
+        for (HotSearchTerm term : hotSearchTermRepository.findAll()) {
+            if (!hot.contains(term.getTerm())) {
+                stale.add(term);
+            }
+        }
+        hotSearchTermRepository.deleteAllInBatch(stale);
+        hotSearchTermRepository.saveAll(snapshot);
+    }
+}
@@ -0,0 +1,215 @@
+package ru.practicum.shareit.item.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.Status;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.model.BookingSnapshot;
+import ru.practicum.shareit.item.model.Item;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Держит в строках items последнее и следующее подтвержденные бронирования,
+ * чтобы карточка и список вещей читались без запросов к bookings. Подтверждение
+ * сдвигает ссылку условным UPDATE без чтения. По расписанию вещи, у которых
+ * следующее бронирование уже началось, пересчитываются по bookings, а до
+ * запуска расписания такие вещи исправляются при чтении в resolveStarted.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ItemBookingRefresher {
+    private static final int REFRESH_CHUNK_SIZE = 500;
+    private static final String SNAPSHOT_COLUMNS = "select id, last_booking_id, next_booking_id from items ";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final BookingRepository bookingRepository;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        List<ItemRow> rows = jdbcTemplate.query(SNAPSHOT_COLUMNS
+                        + "where id in (select item_id from bookings where status = ?)",
+                (resultSet, i) -> toRow(resultSet.getLong(1), resultSet.getObject(2), resultSet.getObject(3)),
+                Status.APPROVED.name());
+        int refreshed = refresh(rows, LocalDateTime.now());
+        log.info("Последние и следующие бронирования пересчитаны для {} вещей", refreshed);
+    }
+
+    @Scheduled(initialDelayString = "${shareit.items.booking-refresh-delay:10000}",
+            fixedDelayString = "${shareit.items.booking-refresh-delay:10000}")
+    public void refreshStarted() {
+        refreshStarted(LocalDateTime.now());
+    }
+
+    public void onApproved(Collection<Booking> bookings) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Booking> started = new ArrayList<>();
+        List<Booking> upcoming = new ArrayList<>();
+        for (Booking booking : bookings) {
+            if (booking.getStatus() == Status.APPROVED) {
+                (booking.getStart().isAfter(now) ? upcoming : started).add(booking);
+            }
+        }
+        moveReference(started, "last", "last_booking_start is null or last_booking_start < ?");
+        moveReference(upcoming, "next", "next_booking_start is null or next_booking_start > ?");
+    }
+
+    /**
+     * Следующее бронирование, которое уже началось, становится последним не позже
+     * чтения: для таких вещей ссылки берутся из bookings двумя запросами на всю
+     * пачку, остальные вещи отдаются как хранятся. Меняются только копии в
+     * загруженных вещах, колонки items обновит refreshStarted.
+     */
+    public void resolveStarted(Collection<Item> items, LocalDateTime now) {
+        List<Long> itemIds = new ArrayList<>();
+        for (Item item : items) {
+            BookingSnapshot next = item.getNextBooking();
+            if (next != null && !next.getStart().isAfter(now)) {
+                itemIds.add(item.getId());
+            }
+        }
+        if (itemIds.isEmpty()) {
+            return;
+        }
+        Map<Long, Booking> lastBookings = toBookingsByItemId(bookingRepository.findLastBookings(itemIds, now));
+        Map<Long, Booking> nextBookings = toBookingsByItemId(bookingRepository.findNextBookings(itemIds, now));
+        for (Item item : items) {
+            if (itemIds.contains(item.getId())) {
+                item.setLastBooking(toSnapshot(lastBookings.get(item.getId())));
+                item.setNextBooking(toSnapshot(nextBookings.get(item.getId())));
+            }
+        }
+    }
+
+    void refreshStarted(LocalDateTime now) {
+        List<ItemRow> rows = jdbcTemplate.query(SNAPSHOT_COLUMNS + "where next_booking_start <= ?",
+                (resultSet, i) -> toRow(resultSet.getLong(1), resultSet.getObject(2), resultSet.getObject(3)),
+                Timestamp.valueOf(now));
+        int refreshed = refresh(rows, now);
+        if (refreshed > 0) {
+            log.info("Наступившие бронирования перенесены в последние у {} вещей", refreshed);
+        }
+    }
+
+    /**
+     * Строка перезаписывается, только если ее ссылки не изменились после
+     * чтения: иначе параллельное подтверждение было бы потеряно, а вещь
+     * останется в выборке следующего запуска.
+     */
+    private int refresh(List<ItemRow> rows, LocalDateTime now) {
+        int refreshed = 0;
+        for (int from = 0; from < rows.size(); from += REFRESH_CHUNK_SIZE) {
+            List<ItemRow> chunk = rows.subList(from, Math.min(rows.size(), from + REFRESH_CHUNK_SIZE));
+            List<Long> itemIds = new ArrayList<>();
+            for (ItemRow row : chunk) {
+                itemIds.add(row.itemId);
+            }
+            Map<Long, Booking> lastBookings = toBookingsByItemId(bookingRepository.findLastBookings(itemIds, now));
+            Map<Long, Booking> nextBookings = toBookingsByItemId(bookingRepository.findNextBookings(itemIds, now));
+            int[] counts = jdbcTemplate.batchUpdate("update items set "
+                            + "last_booking_id = ?, last_booking_start = ?, last_booking_end = ?, last_booker_id = ?, "
+                            + "next_booking_id = ?, next_booking_start = ?, next_booking_end = ?, next_booker_id = ? "
+                            + "where id = ? and coalesce(last_booking_id, 0) = ? and coalesce(next_booking_id, 0) = ?",
+                    new BatchPreparedStatementSetter() {
+                        @Override
+                        public void setValues(PreparedStatement statement, int i) throws SQLException {
+                            ItemRow row = chunk.get(i);
+                            setBooking(statement, 1, lastBookings.get(row.itemId));
+                            setBooking(statement, 5, nextBookings.get(row.itemId));
+                            statement.setLong(9, row.itemId);
+                            statement.setLong(10, row.lastBookingId);
+                            statement.setLong(11, row.nextBookingId);
+                        }
+
+                        @Override
+                        public int getBatchSize() {
+                            return chunk.size();
+                        }
+                    });
+            for (int count : counts) {
+                refreshed += count;
+            }
+        }
+        return refreshed;
+    }
+
+    private void moveReference(List<Booking> bookings, String side, String condition) {
+        if (bookings.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate("update items set " + side + "_booking_id = ?, " + side + "_booking_start = ?, "
+                        + side + "_booking_end = ?, " + side + "_booker_id = ? where id = ? and (" + condition + ")",
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement statement, int i) throws SQLException {
+                        Booking booking = bookings.get(i);
+                        setBooking(statement, 1, booking);
+                        statement.setLong(5, booking.getItem().getId());
+                        statement.setTimestamp(6, Timestamp.valueOf(booking.getStart()));
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return bookings.size();
+                    }
+                });
+    }
+
+    private static void setBooking(PreparedStatement statement, int index, Booking booking) throws SQLException {
+        if (booking == null) {
+            statement.setNull(index, Types.BIGINT);
+            statement.setNull(index + 1, Types.TIMESTAMP);
+            statement.setNull(index + 2, Types.TIMESTAMP);
+            statement.setNull(index + 3, Types.BIGINT);
+            return;
+        }
+        statement.setLong(index, booking.getId());
+        statement.setTimestamp(index + 1, Timestamp.valueOf(booking.getStart()));
+        statement.setTimestamp(index + 2, Timestamp.valueOf(booking.getEnd()));
+        statement.setLong(index + 3, booking.getBooker().getId());
+    }
+
+    private static BookingSnapshot toSnapshot(Booking booking) {
+        if (booking == null) {
+            return null;
+        }
+        return new BookingSnapshot(booking.getId(), booking.getStart(), booking.getEnd(), booking.getBooker().getId());
+    }
+
+    private static Map<Long, Booking> toBookingsByItemId(List<Booking> bookings) {
+        Map<Long, Booking> bookingsByItemId = new HashMap<>();
+        for (Booking booking : bookings) {
+            bookingsByItemId.putIfAbsent(booking.getItem().getId(), booking);
+        }
+        return bookingsByItemId;
+    }
+
+    private static ItemRow toRow(long itemId, Object lastBookingId, Object nextBookingId) {
+        return new ItemRow(itemId, lastBookingId == null ? 0 : ((Number) lastBookingId).longValue(),
+                nextBookingId == null ? 0 : ((Number) nextBookingId).longValue());
+    }
+
+    @RequiredArgsConstructor
+    private static class ItemRow {
+        private final long itemId;
+        private final long lastBookingId;
+        private final long nextBookingId;
+    }
+}
@@ -1,14 +1,24 @@
 package ru.practicum.shareit.item.service;
 
+import ru.practicum.shareit.booking.interval.BookingInterval;
 import ru.practicum.shareit.item.dto.ItemResponseWithBookingDto;
+import ru.practicum.shareit.item.dto.ItemSearchFilterDto;
+import ru.practicum.shareit.item.dto.ItemSearchResultDto;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.pageable.KeysetCursor;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface ItemService {
     List<ItemResponseWithBookingDto> getItems(long userId, int from, int size);
 
+    List<ItemResponseWithBookingDto> getItemsAfter(long userId, KeysetCursor cursor, int size);
+
+    void streamItems(long userId, Consumer<ItemResponseWithBookingDto> consumer);
+
     Item addItem(Item item);
 
     Item updateItem(Item item);
@@ -17,5 +27,23 @@ public interface ItemService {
 
     List<Item> searchItem(String text, int from, int size);
 
+    void warmUpSearchCache(String text, int size);
+
+    List<Item> searchItemWithComments(String text, int from, int size);
+
+    List<Item> searchItemAfter(String text, boolean comments, KeysetCursor cursor, int size);
+
+    List<Item> fuzzySearchItem(String text, int from, int size);
+
+    ItemSearchResultDto filterItems(ItemSearchFilterDto filter, int from, int size);
+
+    List<Item> findAvailableItems(String text, LocalDateTime start, LocalDateTime end, int from, int size);
+
+    long getItemCalendarVersion(long itemId);
+
+    List<BookingInterval> getItemCalendar(long itemId, LocalDateTime from, LocalDateTime to);
+
+    List<String> suggestItemNames(String prefix, int size);
+
     Comment addComment(Comment comment);
 }
@@ -1,24 +1,43 @@
 package ru.practicum.shareit.item.service;
 
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.booking.dto.BookingForItemResponseDto;
 import ru.practicum.shareit.booking.dto.BookingMapper;
+import ru.practicum.shareit.booking.interval.BookingInterval;
+import ru.practicum.shareit.booking.interval.BookingIntervalIndex;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.exceptions.CommentValidationException;
+import ru.practicum.shareit.exceptions.CursorValidationException;
 import ru.practicum.shareit.exceptions.ObjectNotFoundException;
+import ru.practicum.shareit.exceptions.SearchFilterValidationException;
 import ru.practicum.shareit.exceptions.UpdateItemException;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.CommentMapper;
+import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemMapper;
 import ru.practicum.shareit.item.dto.ItemResponseWithBookingDto;
+import ru.practicum.shareit.item.dto.ItemSearchFilterDto;
+import ru.practicum.shareit.item.dto.ItemSearchResultDto;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.CommentRepository;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemFuzzyIndex;
+import ru.practicum.shareit.item.search.ItemNameSuggester;
+import ru.practicum.shareit.item.search.ItemSearchCache;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+import ru.practicum.shareit.item.search.ItemSearchMode;
+import ru.practicum.shareit.item.search.ItemSearchProperties;
+import ru.practicum.shareit.item.search.ItemSearchTermSketch;
+import ru.practicum.shareit.pageable.KeysetCursor;
 import ru.practicum.shareit.pageable.OffsetLimitPageable;
+import ru.practicum.shareit.stream.EntityStreamer;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
@@ -27,34 +46,69 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import static ru.practicum.shareit.item.repository.ItemSpecifications.bookedBetween;
+import static ru.practicum.shareit.item.repository.ItemSpecifications.isAvailable;
+import static ru.practicum.shareit.item.repository.ItemSpecifications.ownerIs;
+import static ru.practicum.shareit.item.repository.ItemSpecifications.requestIs;
+import static ru.practicum.shareit.item.repository.ItemSpecifications.textContains;
 
 @Service
 @RequiredArgsConstructor
 public class ItemServiceImpl implements ItemService {
+    private static final int AVAILABILITY_CHUNK_SIZE = 100;
+
     private final ItemRepository itemRepository;
     private final BookingRepository bookingRepository;
     private final UserRepository userRepository;
     private final CommentRepository commentRepository;
+    private final ItemSearchProperties searchProperties;
+    private final ItemSearchIndex itemSearchIndex;
+    private final ItemSearchCache itemSearchCache;
+    private final ItemNameSuggester itemNameSuggester;
+    private final ItemFuzzyIndex itemFuzzyIndex;
+    private final ItemSearchTermSketch itemSearchTermSketch;
+    private final BookingIntervalIndex bookingIntervalIndex;
+    private final EntityStreamer entityStreamer;
+    private final ItemBookingRefresher itemBookingRefresher;
 
     @Override
     public List<ItemResponseWithBookingDto> getItems(long userId, int from, int size) {
         OffsetLimitPageable pageable = new OffsetLimitPageable(from, size);
-        List<Item> items = itemRepository.findAllByOwnerIdIsOrderByIdAsc(userId, pageable);
-        List<ItemResponseWithBookingDto> itemDtos = new ArrayList<>();
-        for (Item item : items) {
-            BookingForItemResponseDto lastBooking = BookingMapper.toBookingForItemResponseDto(
-                    bookingRepository.findLastBooking(
-                            item.getId(), LocalDateTime.now(), PageRequest.of(0, 1)).stream().findFirst().orElse(null)
-            );
-            BookingForItemResponseDto nextBooking = BookingMapper.toBookingForItemResponseDto(
-                    bookingRepository.findNextBooking(
-                            item.getId(), LocalDateTime.now(), PageRequest.of(0, 1)).stream().findFirst().orElse(null)
-            );
-            itemDtos.add(ItemMapper.toItemResponseWithBookingDto(item, lastBooking, nextBooking, null));
+        return toItemResponseDtos(itemRepository.findAllByOwnerIdIsOrderByIdAsc(userId, pageable));
+    }
+
+    @Override
+    public List<ItemResponseWithBookingDto> getItemsAfter(long userId, KeysetCursor cursor, int size) {
+        long afterId = cursor == null ? 0 : cursor.getId();
+        return toItemResponseDtos(itemRepository.findAllByOwnerIdIsAndIdGreaterThanOrderByIdAsc(userId, afterId,
+                new OffsetLimitPageable(0, size)));
+    }
+
+    /**
+     * Отзывы загружаются одним запросом на пачку вещей из потока.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public void streamItems(long userId, Consumer<ItemResponseWithBookingDto> consumer) {
+        entityStreamer.forEachChunk(itemRepository.streamAllByOwnerIdIsOrderByIdAsc(userId),
+                items -> toItemResponseDtos(items).forEach(consumer));
+    }
+
+    private List<ItemResponseWithBookingDto> toItemResponseDtos(List<Item> items) {
+        if (items.isEmpty()) {
+            return new ArrayList<>();
         }
+        itemBookingRefresher.resolveStarted(items, LocalDateTime.now());
         List<Long> itemIds = new ArrayList<>();
+        List<ItemResponseWithBookingDto> itemDtos = new ArrayList<>();
         for (Item item : items) {
             itemIds.add(item.getId());
+            itemDtos.add(ItemMapper.toItemResponseWithBookingDto(item,
+                    BookingMapper.toBookingForItemResponseDto(item.getLastBooking()),
+                    BookingMapper.toBookingForItemResponseDto(item.getNextBooking()), null));
         }
         List<Comment> comments = commentRepository.findAllByItemIds(itemIds);
         Map<Long, List<CommentDto>> comentsMap = new HashMap<>();
@@ -72,7 +126,12 @@ public class ItemServiceImpl implements ItemService {
 
     @Override
     public Item addItem(Item item) {
-        return itemRepository.save(item);
+        Item addedItem = itemRepository.save(item);
+        itemSearchIndex.index(addedItem);
+        itemSearchCache.invalidate(null, addedItem);
+        itemNameSuggester.update(null, addedItem);
+        itemFuzzyIndex.index(addedItem);
+        return addedItem;
     }
 
     @Override
@@ -81,6 +140,11 @@ public class ItemServiceImpl implements ItemService {
         Item item = itemRepository.findById(updatedItem.getId())
                 .orElseThrow(() -> new ObjectNotFoundException("Нет итема с таким id"));
         validateOwner(item, updatedItem.getOwnerId());
+        Item previousItem = Item.builder()
+                .name(item.getName())
+                .description(item.getDescription())
+                .isAvailable(item.getIsAvailable())
+                .build();
         if (updatedItem.getIsAvailable() == null) {
             updatedItem.setIsAvailable(item.getIsAvailable());
         }
@@ -90,7 +154,12 @@ public class ItemServiceImpl implements ItemService {
         if (updatedItem.getName() == null) {
             updatedItem.setName(item.getName());
         }
-        return itemRepository.save(updatedItem);
+        Item savedItem = itemRepository.save(updatedItem);
+        itemSearchIndex.index(savedItem);
+        itemSearchCache.invalidate(previousItem, savedItem);
+        itemNameSuggester.update(previousItem, savedItem);
+        itemFuzzyIndex.index(savedItem);
+        return savedItem;
     }
 
     @Override
@@ -102,14 +171,9 @@ public class ItemServiceImpl implements ItemService {
             lastBooking = null;
             nextBooking = null;
         } else {
-            lastBooking = BookingMapper.toBookingForItemResponseDto(
-                    bookingRepository.findLastBooking(
-                            item.getId(), LocalDateTime.now(), PageRequest.of(0, 1)).stream().findFirst().orElse(null)
-            );
-            nextBooking = BookingMapper.toBookingForItemResponseDto(
-                    bookingRepository.findNextBooking(
-                            item.getId(), LocalDateTime.now(), PageRequest.of(0, 1)).stream().findFirst().orElse(null)
-            );
+            itemBookingRefresher.resolveStarted(List.of(item), LocalDateTime.now());
+            lastBooking = BookingMapper.toBookingForItemResponseDto(item.getLastBooking());
+            nextBooking = BookingMapper.toBookingForItemResponseDto(item.getNextBooking());
         }
         List<Comment> comments = commentRepository.findByItemId(itemId);
         List<CommentDto> commentDtos = new ArrayList<>();
@@ -121,13 +185,199 @@ public class ItemServiceImpl implements ItemService {
         return ItemMapper.toItemResponseWithBookingDto(item, lastBooking, nextBooking, commentDtos);
     }
 
+    /**
+     * Текст обрезается по краям до поиска: ключ кэша строится по обрезанному
+     * тексту, и под одним ключом не должны оказаться разные выборки.
+     */
     @Override
     public List<Item> searchItem(String text, int from, int size) {
-        OffsetLimitPageable pageable = new OffsetLimitPageable(from, size);
-        if (text.isEmpty()) {
+        String term = text.trim();
+        if (term.isEmpty()) {
             return new ArrayList<>();
         }
-        return itemRepository.findAllByNameOrDescriptionContainingIgnoreCase(text, pageable);
+        itemSearchTermSketch.record(term);
+        return itemSearchCache.get(term, from, size, () -> findItems(term, from, size));
+    }
+
+    @Override
+    public void warmUpSearchCache(String text, int size) {
+        String term = text.trim();
+        itemSearchCache.get(term, 0, size, () -> findItems(term, 0, size));
+    }
+
+    @Override
+    public List<Item> searchItemWithComments(String text, int from, int size) {
+        String term = text.trim();
+        if (term.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return itemSearchCache.get(term, true, from, size, () -> findItemsWithComments(term, from, size));
+    }
+
+    /**
+     * Страницы по курсору идут в порядке id без кэша и без ранжирования. В режимах
+     * LIKE, TRIGRAM и INDEX постраничная выдача тоже упорядочена по id, а в режиме
+     * FULLTEXT она упорядочена по ts_rank, и курсор по id вернул бы другой порядок,
+     * поэтому там курсор отклоняется: страницы листаются через from и size.
+     * В режиме INDEX поиск по вещам идет по индексу в памяти, а поиск с отзывами,
+     * как и без курсора, уходит в базу: отзывы в индекс не попадают.
+     */
+    @Override
+    public List<Item> searchItemAfter(String text, boolean comments, KeysetCursor cursor, int size) {
+        if (searchProperties.getMode() == ItemSearchMode.FULLTEXT) {
+            throw new CursorValidationException("Полнотекстовый поиск ранжирует результаты и не поддерживает курсор, "
+                    + "используйте from и size");
+        }
+        String term = text.trim();
+        if (term.isEmpty()) {
+            return new ArrayList<>();
+        }
+        itemSearchTermSketch.record(term);
+        long afterId = cursor == null ? 0 : cursor.getId();
+        OffsetLimitPageable pageable = new OffsetLimitPageable(0, size);
+        if (comments) {
+            return itemRepository.findAllByTextOrCommentContainingIgnoreCaseAfter(term, afterId, pageable);
+        }
+        if (searchProperties.getMode() == ItemSearchMode.INDEX) {
+            return itemSearchIndex.searchAfter(term, afterId, size);
+        }
+        return itemRepository.findAllByNameOrDescriptionContainingIgnoreCaseAfter(term, afterId, pageable);
+    }
+
+    @Override
+    public List<Item> fuzzySearchItem(String text, int from, int size) {
+        if (!searchProperties.isFuzzyEnabled()) {
+            return searchItem(text, from, size);
+        }
+        List<Long> itemIds = itemFuzzyIndex.search(text, from, size);
+        if (itemIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Long, Item> itemsById = new HashMap<>();
+        for (Item item : itemRepository.findAllById(itemIds)) {
+            itemsById.put(item.getId(), item);
+        }
+        List<Item> items = new ArrayList<>();
+        for (Long itemId : itemIds) {
+            Item item = itemsById.get(itemId);
+            if (item != null && Boolean.TRUE.equals(item.getIsAvailable())) {
+                items.add(item);
+            }
+        }
+        return items;
+    }
+
+    @Override
+    public ItemSearchResultDto filterItems(ItemSearchFilterDto filter, int from, int size) {
+        boolean period = filter.getStart() != null || filter.getEnd() != null;
+        if (period) {
+            validatePeriod(filter.getStart(), filter.getEnd());
+        }
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime start = period ? filter.getStart() : now;
+        LocalDateTime end = period ? filter.getEnd() : now;
+        Specification<Item> matches = Specification.where(isAvailable())
+                .and(textContains(filter.getText()))
+                .and(ownerIs(filter.getOwnerId()))
+                .and(requestIs(filter.getRequestId()));
+        Specification<Item> found = period ? matches.and(Specification.not(bookedBetween(start, end))) : matches;
+        Page<Item> page = itemRepository.findAll(found, new OffsetLimitPageable(from, size, Sort.by("id")));
+        long booked = itemRepository.count(matches.and(bookedBetween(start, end)));
+        long total = period ? page.getTotalElements() + booked : page.getTotalElements();
+        List<ItemDto> itemDtos = new ArrayList<>();
+        for (Item item : page.getContent()) {
+            itemDtos.add(ItemMapper.toItemDto(item));
+        }
+        return ItemSearchResultDto.builder()
+                .items(itemDtos)
+                .total(total)
+                .free(total - booked)
+                .booked(booked)
+                .build();
+    }
+
+    @Override
+    public List<Item> findAvailableItems(String text, LocalDateTime start, LocalDateTime end, int from, int size) {
+        validatePeriod(start, end);
+        List<Item> items = new ArrayList<>();
+        if (text.isEmpty()) {
+            return items;
+        }
+        int chunk = Math.max(size, AVAILABILITY_CHUNK_SIZE);
+        long skip = from;
+        for (int offset = 0; items.size() < size; offset += chunk) {
+            List<Item> candidates = findItems(text, offset, chunk);
+            List<Long> candidateIds = new ArrayList<>();
+            for (Item candidate : candidates) {
+                candidateIds.add(candidate.getId());
+            }
+            Set<Long> freeIds = bookingIntervalIndex.findFree(candidateIds, start, end);
+            for (Item candidate : candidates) {
+                if (!freeIds.contains(candidate.getId()) || items.size() == size) {
+                    continue;
+                }
+                if (skip > 0) {
+                    skip--;
+                } else {
+                    items.add(candidate);
+                }
+            }
+            if (candidates.size() < chunk) {
+                break;
+            }
+        }
+        return items;
+    }
+
+    @Override
+    public long getItemCalendarVersion(long itemId) {
+        if (!itemRepository.existsById(itemId)) {
+            throw new ObjectNotFoundException("Нет вещи с таким id");
+        }
+        return bookingIntervalIndex.getVersion(itemId);
+    }
+
+    @Override
+    public List<BookingInterval> getItemCalendar(long itemId, LocalDateTime from, LocalDateTime to) {
+        validatePeriod(from, to);
+        if (!itemRepository.existsById(itemId)) {
+            throw new ObjectNotFoundException("Нет вещи с таким id");
+        }
+        return bookingIntervalIndex.findBusy(itemId, from, to);
+    }
+
+    @Override
+    public List<String> suggestItemNames(String prefix, int size) {
+        return itemNameSuggester.suggest(prefix, size);
+    }
+
+    private List<Item> findItems(String text, int from, int size) {
+        OffsetLimitPageable pageable = new OffsetLimitPageable(from, size);
+        switch (searchProperties.getMode()) {
+            case FULLTEXT:
+                return itemRepository.findAllByFullTextSearch(text, pageable);
+            case TRIGRAM:
+                return itemRepository.findAllByTrigramSearch(text, pageable);
+            case INDEX:
+                return itemSearchIndex.search(text, from, size);
+            case LIKE:
+            default:
+                return itemRepository.findAllByNameOrDescriptionContainingIgnoreCase(text, pageable);
+        }
+    }
+
+    private List<Item> findItemsWithComments(String text, int from, int size) {
+        OffsetLimitPageable pageable = new OffsetLimitPageable(from, size);
+        switch (searchProperties.getMode()) {
+            case FULLTEXT:
+                return itemRepository.findAllByFullTextSearchWithComments(text, pageable);
+            case TRIGRAM:
+            case INDEX:
+                return itemRepository.findAllByTrigramSearchWithComments(text, pageable);
+            case LIKE:
+            default:
+                return itemRepository.findAllByTextOrCommentContainingIgnoreCase(text, pageable);
+        }
     }
 
     @Override
@@ -140,7 +390,15 @@ public class ItemServiceImpl implements ItemService {
         User author = userRepository.findById(comment.getAuthor().getId())
                 .orElseThrow(() -> new ObjectNotFoundException("Такого пользователя не существует"));
         comment.setAuthor(author);
-        return commentRepository.save(comment);
+        Comment addedComment = commentRepository.save(comment);
+        itemSearchCache.invalidate(comment);
+        return addedComment;
+    }
+
+    private void validatePeriod(LocalDateTime start, LocalDateTime end) {
+        if (start == null || end == null || end.isBefore(start)) {
+            throw new SearchFilterValidationException("Нужно указать начало и конец периода, начало не позже конца");
+        }
     }
 
     private boolean validateOwner(Item item, long userId) {
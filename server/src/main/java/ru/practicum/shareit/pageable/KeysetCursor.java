@@ -0,0 +1,77 @@
+package ru.practicum.shareit.pageable;
+
+import lombok.Value;
+import ru.practicum.shareit.exceptions.CursorValidationException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
+
+/**
+ * Курсор keyset-пагинации: ключ сортировки и id последней строки страницы.
+ * Следующая страница выбирается условием по индексу, а не пропуском from строк,
+ * поэтому ее стоимость не растет с глубиной и не сдвигается от новых записей.
+ */
+@Value
+public class KeysetCursor {
+    private static final String SEPARATOR = "|";
+
+    LocalDateTime key;
+    long id;
+
+    public static KeysetCursor of(long id) {
+        return new KeysetCursor(null, id);
+    }
+
+    /**
+     * Ключ обрезается до микросекунд - точности timestamp в базе. Иначе ключ,
+     * взятый из еще не перечитанной сущности, не совпадет с сохраненным значением
+     * и строки с тем же ключом выпадут со следующей страницы.
+     */
+    public static KeysetCursor of(LocalDateTime key, long id) {
+        return new KeysetCursor(key == null ? null : key.truncatedTo(ChronoUnit.MICROS), id);
+    }
+
+    public String encode() {
+        String value = key == null ? String.valueOf(id) : key + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Пустой курсор означает первую страницу и дает null.
+     */
+    public static KeysetCursor decodeId(String cursor) {
+        KeysetCursor decoded = decode(cursor);
+        if (decoded != null && decoded.key != null) {
+            throw new CursorValidationException("Курсор не подходит к этому списку");
+        }
+        return decoded;
+    }
+
+    public static KeysetCursor decodeKeyed(String cursor) {
+        KeysetCursor decoded = decode(cursor);
+        if (decoded != null && decoded.key == null) {
+            throw new CursorValidationException("Курсор не подходит к этому списку");
+        }
+        return decoded;
+    }
+
+    private static KeysetCursor decode(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = value.lastIndexOf(SEPARATOR);
+            if (separator < 0) {
+                return of(Long.parseLong(value));
+            }
+            return of(LocalDateTime.parse(value.substring(0, separator)),
+                    Long.parseLong(value.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new CursorValidationException("Некорректный курсор");
+        }
+    }
+}
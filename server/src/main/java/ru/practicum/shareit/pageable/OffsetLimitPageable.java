@@ -7,7 +7,11 @@ public class OffsetLimitPageable extends PageRequest {
     private int offset;
 
     public OffsetLimitPageable(int offset, int limit) {
-        super(offset, limit, Sort.unsorted());
+        this(offset, limit, Sort.unsorted());
+    }
+
+    public OffsetLimitPageable(int offset, int limit, Sort sort) {
+        super(offset, limit, sort);
         this.offset = offset;
     }
 
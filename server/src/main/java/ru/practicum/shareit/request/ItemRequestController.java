@@ -1,17 +1,24 @@
 package ru.practicum.shareit.request;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.pageable.KeysetCursor;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.dto.ItemRequestMapper;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.service.ItemRequestService;
+import ru.practicum.shareit.stream.NdjsonWriter;
 
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
 import java.time.LocalDateTime;
 import java.util.List;
 
+import static ru.practicum.shareit.Consts.APPLICATION_NDJSON;
+import static ru.practicum.shareit.Consts.X_NEXT_CURSOR;
 import static ru.practicum.shareit.Consts.X_SHARER_USER_ID;
 
 
@@ -22,6 +29,7 @@ import static ru.practicum.shareit.Consts.X_SHARER_USER_ID;
 @RequestMapping(path = "/requests")
 public class ItemRequestController {
     private final ItemRequestService itemRequestService;
+    private final ObjectMapper objectMapper;
 
     @PostMapping
     public ItemRequestDto addItemRequest(@RequestHeader(X_SHARER_USER_ID) long userId,
@@ -45,17 +53,37 @@ public class ItemRequestController {
     @GetMapping("/all")
     public List<ItemRequestDto> getItemRequestsSorted(@RequestHeader(X_SHARER_USER_ID) long userId,
                                                       @RequestParam(value = "from", required = false) Integer from,
-                                                      @RequestParam(value = "size", required = false) Integer size) {
+                                                      @RequestParam(value = "size", required = false) Integer size,
+                                                      @RequestParam(value = "cursor", required = false) String cursor,
+                                                      HttpServletResponse response) {
         if (from == null && size == null) {
             from = 0;
             size = Integer.MAX_VALUE;
             ;
         }
-        List<ItemRequestDto> itemRequestDtos = itemRequestService.getItemRequestsSorted(userId, from, size);
+        List<ItemRequestDto> itemRequestDtos;
+        if (cursor == null) {
+            itemRequestDtos = itemRequestService.getItemRequestsSorted(userId, from, size);
+        } else {
+            itemRequestDtos = itemRequestService.getItemRequestsSortedAfter(userId, KeysetCursor.decodeKeyed(cursor),
+                    size);
+            if (!itemRequestDtos.isEmpty() && itemRequestDtos.size() == size) {
+                ItemRequestDto last = itemRequestDtos.get(itemRequestDtos.size() - 1);
+                response.setHeader(X_NEXT_CURSOR, KeysetCursor.of(last.getCreated(), last.getId()).encode());
+            }
+        }
         log.info("Получен список всех запросов пользователя %s", userId);
         return itemRequestDtos;
     }
 
+    @GetMapping(value = "/all", produces = APPLICATION_NDJSON)
+    public void streamItemRequestsSorted(@RequestHeader(X_SHARER_USER_ID) long userId,
+                                         HttpServletResponse response) throws IOException {
+        try (NdjsonWriter writer = new NdjsonWriter(objectMapper, response)) {
+            itemRequestService.streamItemRequestsSorted(userId, writer::write);
+        }
+    }
+
     @GetMapping("/{requestId}")
     public ItemRequestDto getItemRequestById(@RequestHeader(X_SHARER_USER_ID) long userId, @PathVariable long requestId) {
         return itemRequestService.getItemRequestById(userId, requestId);
@@ -3,9 +3,16 @@ package ru.practicum.shareit.request.repository;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import ru.practicum.shareit.request.model.ItemRequest;
 
+import javax.persistence.QueryHint;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static ru.practicum.shareit.Consts.STREAM_FETCH_SIZE;
 
 public interface ItemRequestRepository extends JpaRepository<ItemRequest, Long> {
 
@@ -14,6 +21,20 @@ public interface ItemRequestRepository extends JpaRepository<ItemRequest, Long>
     @Query("select itemRequest  " +
             "from ItemRequest as itemRequest " +
             "where itemRequest.requestor.id != ?1 " +
-            "order by itemRequest.created desc")
+            "order by itemRequest.created desc, itemRequest.id desc")
     List<ItemRequest> getItemRequestsSorted(long userId, Pageable pageable);
+
+    @Query("select itemRequest " +
+            "from ItemRequest as itemRequest " +
+            "where itemRequest.requestor.id != ?1 " +
+            "and (itemRequest.created < ?2 or (itemRequest.created = ?2 and itemRequest.id < ?3)) " +
+            "order by itemRequest.created desc, itemRequest.id desc")
+    List<ItemRequest> getItemRequestsSortedBefore(long userId, LocalDateTime created, long id, Pageable pageable);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE))
+    @Query("select itemRequest " +
+            "from ItemRequest as itemRequest " +
+            "where itemRequest.requestor.id != ?1 " +
+            "order by itemRequest.created desc, itemRequest.id desc")
+    Stream<ItemRequest> streamItemRequestsSorted(long userId);
 }
@@ -1,9 +1,11 @@
 package ru.practicum.shareit.request.service;
 
+import ru.practicum.shareit.pageable.KeysetCursor;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.model.ItemRequest;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface ItemRequestService {
     ItemRequest addRequest(ItemRequest itemRequest);
@@ -12,5 +14,9 @@ public interface ItemRequestService {
 
     List<ItemRequestDto> getItemRequestsSorted(long userId, int from, int size);
 
+    List<ItemRequestDto> getItemRequestsSortedAfter(long userId, KeysetCursor cursor, int size);
+
+    void streamItemRequestsSorted(long userId, Consumer<ItemRequestDto> consumer);
+
     ItemRequestDto getItemRequestById(long userId, long requestId);
 }
@@ -2,22 +2,27 @@ package ru.practicum.shareit.request.service;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.exceptions.ObjectNotFoundException;
+import ru.practicum.shareit.pageable.KeysetCursor;
 import ru.practicum.shareit.pageable.OffsetLimitPageable;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.dto.ItemRequestMapper;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.stream.EntityStreamer;
 import ru.practicum.shareit.user.repository.UserRepository;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
 @Service
 @RequiredArgsConstructor
 public class ItemRequestServiceImpl implements ItemRequestService {
     private final ItemRequestRepository itemRequestRepository;
     private final UserRepository userRepository;
+    private final EntityStreamer entityStreamer;
 
     @Override
     public ItemRequest addRequest(ItemRequest itemRequest) {
@@ -41,11 +46,25 @@ public class ItemRequestServiceImpl implements ItemRequestService {
         validateUserIdExist(userId);
         List<ItemRequest> itemRequests = itemRequestRepository
                 .getItemRequestsSorted(userId, new OffsetLimitPageable(from, size));
-        List<ItemRequestDto> itemRequestDtos = new ArrayList<>();
-        for (ItemRequest itemRequest : itemRequests) {
-            itemRequestDtos.add(ItemRequestMapper.toItemRequestDto(itemRequest));
-        }
-        return itemRequestDtos;
+        return toItemRequestDtos(itemRequests);
+    }
+
+    @Override
+    public List<ItemRequestDto> getItemRequestsSortedAfter(long userId, KeysetCursor cursor, int size) {
+        validateUserIdExist(userId);
+        OffsetLimitPageable pageable = new OffsetLimitPageable(0, size);
+        List<ItemRequest> itemRequests = cursor == null
+                ? itemRequestRepository.getItemRequestsSorted(userId, pageable)
+                : itemRequestRepository.getItemRequestsSortedBefore(userId, cursor.getKey(), cursor.getId(), pageable);
+        return toItemRequestDtos(itemRequests);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void streamItemRequestsSorted(long userId, Consumer<ItemRequestDto> consumer) {
+        validateUserIdExist(userId);
+        entityStreamer.forEach(itemRequestRepository.streamItemRequestsSorted(userId),
+                itemRequest -> consumer.accept(ItemRequestMapper.toItemRequestDto(itemRequest)));
     }
 
     @Override
@@ -56,6 +75,14 @@ public class ItemRequestServiceImpl implements ItemRequestService {
         return ItemRequestMapper.toItemRequestDto(itemRequest);
     }
 
+    private static List<ItemRequestDto> toItemRequestDtos(List<ItemRequest> itemRequests) {
+        List<ItemRequestDto> itemRequestDtos = new ArrayList<>();
+        for (ItemRequest itemRequest : itemRequests) {
+            itemRequestDtos.add(ItemRequestMapper.toItemRequestDto(itemRequest));
+        }
+        return itemRequestDtos;
+    }
+
     private boolean validateUserIdExist(long userId) {
         userRepository.findById(userId)
                 .orElseThrow(() -> new ObjectNotFoundException("Такого пользователя не добавлено"));
@@ -0,0 +1,45 @@
+package ru.practicum.shareit.stream;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import static ru.practicum.shareit.Consts.STREAM_FETCH_SIZE;
+
+/**
+ * Обходит поток сущностей из репозитория пачками по размеру выборки JDBC.
+ * После каждой пачки контекст сохраняемости очищается, поэтому память не растет
+ * с числом строк. Вызывать нужно внутри транзакции, открывшей поток.
+ */
+@Component
+@RequiredArgsConstructor
+public class EntityStreamer {
+    private static final int CHUNK_SIZE = Integer.parseInt(STREAM_FETCH_SIZE);
+
+    private final EntityManager entityManager;
+
+    public <T> void forEach(Stream<T> rows, Consumer<T> consumer) {
+        forEachChunk(rows, chunk -> chunk.forEach(consumer));
+    }
+
+    public <T> void forEachChunk(Stream<T> rows, Consumer<List<T>> consumer) {
+        try (rows) {
+            Iterator<T> iterator = rows.iterator();
+            List<T> chunk = new ArrayList<>(CHUNK_SIZE);
+            while (iterator.hasNext()) {
+                chunk.add(iterator.next());
+                if (chunk.size() == CHUNK_SIZE || !iterator.hasNext()) {
+                    consumer.accept(chunk);
+                    chunk.clear();
+                    entityManager.clear();
+                }
+            }
+        }
+    }
+}
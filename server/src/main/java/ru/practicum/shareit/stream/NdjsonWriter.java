@@ -0,0 +1,53 @@
+package ru.practicum.shareit.stream;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+import static ru.practicum.shareit.Consts.APPLICATION_NDJSON;
+
+/**
+ * Пишет каждый объект отдельной строкой JSON прямо в ответ, не собирая список
+ * в памяти: буфер сервлета уходит клиенту по мере заполнения. Поток ответа
+ * открывается при первой записи, так что ошибка проверки до нее еще меняет статус.
+ */
+public class NdjsonWriter implements Closeable {
+    private static final int LINE_SEPARATOR = '\n';
+
+    private final ObjectMapper objectMapper;
+    private final HttpServletResponse response;
+    private OutputStream out;
+
+    public NdjsonWriter(ObjectMapper objectMapper, HttpServletResponse response) {
+        this.objectMapper = objectMapper;
+        this.response = response;
+        response.setContentType(APPLICATION_NDJSON);
+    }
+
+    public void write(Object value) {
+        try {
+            open().write(objectMapper.writeValueAsBytes(value));
+            out.write(LINE_SEPARATOR);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (out != null) {
+            out.flush();
+        }
+    }
+
+    private OutputStream open() throws IOException {
+        if (out == null) {
+            out = response.getOutputStream();
+        }
+        return out;
+    }
+}
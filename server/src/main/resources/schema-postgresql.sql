@@ -0,0 +1,37 @@
+ALTER TABLE items
+    ADD COLUMN IF NOT EXISTS search_vector TSVECTOR
+        GENERATED ALWAYS AS (setweight(to_tsvector('russian', coalesce(name, '')), 'A') ||
+                             setweight(to_tsvector('russian', coalesce(description, '')), 'B')) STORED;
+
+CREATE INDEX IF NOT EXISTS ix_items_search_vector ON items USING GIN (search_vector) WHERE is_available = true;
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX IF NOT EXISTS ix_items_name_trgm ON items USING GIN (upper(name) gin_trgm_ops) WHERE is_available = true;
+
+CREATE INDEX IF NOT EXISTS ix_items_description_trgm ON items USING GIN (upper(description) gin_trgm_ops) WHERE is_available = true;
+
+ALTER TABLE comments
+    ADD COLUMN IF NOT EXISTS search_vector TSVECTOR
+        GENERATED ALWAYS AS (to_tsvector('russian', coalesce(text, ''))) STORED;
+
+CREATE INDEX IF NOT EXISTS ix_comments_search_vector ON comments USING GIN (search_vector);
+
+CREATE INDEX IF NOT EXISTS ix_comments_text_trgm ON comments USING GIN (upper(text) gin_trgm_ops);
+
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+
+DO '
+BEGIN
+    IF EXISTS (SELECT 1 FROM pg_constraint
+               WHERE conname = ''ex_bookings_item_period''
+                 AND pg_get_constraintdef(oid) LIKE ''%''''[]''''%'') THEN
+        ALTER TABLE bookings DROP CONSTRAINT ex_bookings_item_period;
+    END IF;
+    ALTER TABLE bookings ADD CONSTRAINT ex_bookings_item_period
+        EXCLUDE USING gist (item_id WITH =, tsrange(start_date, end_date, ''[)'') WITH &&)
+        WHERE (status IN (''WAITING'', ''APPROVED''));
+EXCEPTION
+    WHEN duplicate_table OR duplicate_object THEN NULL;
+    WHEN exclusion_violation THEN RAISE WARNING ''ex_bookings_item_period не создано: в bookings есть пересечения'';
+END';
@@ -47,4 +47,44 @@ CREATE TABLE IF NOT EXISTS comments
     author_id BIGINT                                  NOT NULL REFERENCES users (id),
     created   TIMESTAMP WITHOUT TIME ZONE,
     CONSTRAINT pk_comment PRIMARY KEY (id)
-);
\ No newline at end of file
+);
+CREATE INDEX IF NOT EXISTS ix_items_owner_id ON items (owner_id, id);
+
+CREATE INDEX IF NOT EXISTS ix_items_request_id ON items (request_id);
+
+CREATE INDEX IF NOT EXISTS ix_requests_created ON requests (created, id);
+
+CREATE INDEX IF NOT EXISTS ix_bookings_item_id_start_date ON bookings (item_id, start_date, end_date);
+
+ALTER TABLE bookings
+    ADD COLUMN IF NOT EXISTS owner_id BIGINT REFERENCES users (id);
+
+UPDATE bookings
+SET owner_id = (SELECT i.owner_id FROM items AS i WHERE i.id = bookings.item_id)
+WHERE owner_id IS NULL;
+
+CREATE INDEX IF NOT EXISTS ix_bookings_owner_id_start_date ON bookings (owner_id, start_date);
+
+CREATE INDEX IF NOT EXISTS ix_bookings_owner_id_status_start_date ON bookings (owner_id, status, start_date);
+
+CREATE INDEX IF NOT EXISTS ix_bookings_booker_id_start_date ON bookings (booker_id, start_date);
+
+CREATE INDEX IF NOT EXISTS ix_bookings_booker_id_status_start_date ON bookings (booker_id, status, start_date);
+
+ALTER TABLE items ADD COLUMN IF NOT EXISTS last_booking_id BIGINT;
+ALTER TABLE items ADD COLUMN IF NOT EXISTS last_booking_start TIMESTAMP WITHOUT TIME ZONE;
+ALTER TABLE items ADD COLUMN IF NOT EXISTS last_booking_end TIMESTAMP WITHOUT TIME ZONE;
+ALTER TABLE items ADD COLUMN IF NOT EXISTS last_booker_id BIGINT;
+ALTER TABLE items ADD COLUMN IF NOT EXISTS next_booking_id BIGINT;
+ALTER TABLE items ADD COLUMN IF NOT EXISTS next_booking_start TIMESTAMP WITHOUT TIME ZONE;
+ALTER TABLE items ADD COLUMN IF NOT EXISTS next_booking_end TIMESTAMP WITHOUT TIME ZONE;
+ALTER TABLE items ADD COLUMN IF NOT EXISTS next_booker_id BIGINT;
+
+CREATE INDEX IF NOT EXISTS ix_items_next_booking_start ON items (next_booking_start);
+
+CREATE TABLE IF NOT EXISTS hot_search_terms
+(
+    term VARCHAR(255) NOT NULL,
+    hits BIGINT       NOT NULL,
+    CONSTRAINT pk_hot_search_term PRIMARY KEY (term)
+);
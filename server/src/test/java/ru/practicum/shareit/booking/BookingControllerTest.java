@@ -10,25 +10,35 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.ResultActions;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
+import ru.practicum.shareit.booking.dto.BookingFilterDto;
 import ru.practicum.shareit.booking.dto.BookingMapper;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingView;
 import ru.practicum.shareit.booking.service.BookingService;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.model.User;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 import static org.hamcrest.Matchers.startsWith;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -136,6 +146,69 @@ public class BookingControllerTest {
                 .andExpect(jsonPath("$.end").exists());
     }
 
+    @Test
+    public void addBookingsTest() throws Exception {
+        long userId = 200L;
+        LocalDateTime startTime = LocalDateTime.now().plusHours(1);
+        LocalDateTime endTime = startTime.plusHours(2);
+        String batchJson = "{\"bookings\": [" +
+                "{\"start\": \"" + startTime + "\", \"end\": \"" + endTime + "\", \"itemId\": 100}," +
+                "{\"start\": \"" + startTime + "\", \"end\": \"" + endTime + "\", \"itemId\": 101}]}";
+        when(bookingService.addBookings(eq(userId), any())).thenAnswer(invocation -> {
+            List<Booking> bookings = invocation.getArgument(1);
+            for (int i = 0; i < bookings.size(); i++) {
+                bookings.get(i).setId(i + 1L);
+            }
+            return bookings;
+        });
+
+        mockMvc.perform(post("/bookings/batch")
+                        .header("X-Sharer-User-Id", String.valueOf(userId))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(batchJson))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(1L))
+                .andExpect(jsonPath("$[0].item.id").value(100L))
+                .andExpect(jsonPath("$[1].item.id").value(101L))
+                .andExpect(jsonPath("$[1].booker.id").value(userId))
+                .andExpect(jsonPath("$[1].status").value("WAITING"));
+    }
+
+    @Test
+    public void getBookingsSummaryTest() throws Exception {
+        long userId = 200L;
+        Map<State, Long> summary = new EnumMap<>(State.class);
+        summary.put(State.ALL, 3L);
+        summary.put(State.WAITING, 1L);
+        when(bookingService.getBookingsSummaryByItems(userId)).thenReturn(summary);
+
+        mockMvc.perform(get("/bookings/owner/summary")
+                        .header("X-Sharer-User-Id", String.valueOf(userId)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.ALL").value(3L))
+                .andExpect(jsonPath("$.WAITING").value(1L));
+        verify(bookingService).getBookingsSummaryByItems(userId);
+    }
+
+    @Test
+    public void approveStatusesTest() throws Exception {
+        long userId = 200L;
+        when(bookingService.approveStatuses(userId, List.of(1L, 2L), true)).thenReturn(List.of(
+                BookingBatchResultDto.builder().bookingId(1L).status(Status.APPROVED).build(),
+                BookingBatchResultDto.builder().bookingId(2L).error("Нет бронирования с таким id").build()));
+
+        mockMvc.perform(patch("/bookings/batch")
+                        .header("X-Sharer-User-Id", String.valueOf(userId))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"bookingIds\": [1, 2], \"approved\": true}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].bookingId").value(1L))
+                .andExpect(jsonPath("$[0].status").value("APPROVED"))
+                .andExpect(jsonPath("$[1].bookingId").value(2L))
+                .andExpect(jsonPath("$[1].error").value("Нет бронирования с таким id"));
+        verify(bookingService).approveStatuses(userId, List.of(1L, 2L), true);
+    }
+
     @Test
     public void getBookingTest() throws Exception {
         long userId = 200L;
@@ -174,24 +247,12 @@ public class BookingControllerTest {
         State state = State.ALL;
         int from = 0;
         int size = 5;
-        List<Booking> bookingsList = new ArrayList<>();
+        List<BookingView> bookingsList = new ArrayList<>();
         for (long i = 1; i <= size; i++) {
-            Booking booking = new Booking();
-            booking.setId(i);
-            booking.setStart(LocalDateTime.now().plusHours(i));
-            booking.setEnd(LocalDateTime.now().plusHours(i + 1));
-            booking.setStatus(Status.WAITING);//статус будет разный
-            Item item = new Item();
-            item.setId(i + 10);
-            item.setName("name-" + (i + 10));
-            booking.setItem(item);
-            User booker = new User();
-            booker.setId(i + 20);
-            booker.setName("name-" + (i + 20));
-            booking.setBooker(booker);
-            bookingsList.add(booking);
+            bookingsList.add(new BookingView(i, LocalDateTime.now().plusHours(i), LocalDateTime.now().plusHours(i + 1),
+                    i + 10, "name-" + (i + 10), i + 20, "name-" + (i + 20), Status.WAITING));
         }
-        when(bookingService.getBookingsByUserIdSorted(userId, state, from, size)).thenReturn(bookingsList);
+        when(bookingService.getBookingsByUserIdSorted(userId, BookingFilterDto.builder().state(state).build(), from, size)).thenReturn(bookingsList);
 
         mockMvc.perform(get("/bookings")
                         .header("X-Sharer-User-Id", String.valueOf(userId))
@@ -201,10 +262,12 @@ public class BookingControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.length()").value(size))
                 .andExpect(jsonPath("$[0].id").value(1L))
+                .andExpect(jsonPath("$[0].item.name").value("name-11"))
+                .andExpect(jsonPath("$[0].booker.name").value("name-21"))
                 .andExpect(jsonPath("$[1].id").value(2L))
                 .andExpect(jsonPath("$[4].id").value(5L));
 
-        verify(bookingService).getBookingsByUserIdSorted(userId, state, from, size);
+        verify(bookingService).getBookingsByUserIdSorted(userId, BookingFilterDto.builder().state(state).build(), from, size);
     }
 
     @Test
@@ -213,25 +276,15 @@ public class BookingControllerTest {
         State state = State.ALL;
         int from = 0;
         int size = 5;
-        List<Booking> bookingList = new ArrayList<>();
+        List<BookingView> bookingList = new ArrayList<>();
         for (long i = 1; i <= size; i++) {
-            Booking booking = new Booking();
-            booking.setId(i);
-            booking.setStart(LocalDateTime.now().plusDays(i));
-            booking.setEnd(LocalDateTime.now().plusDays(i).plusHours(4));
-            Item item = new Item();
-            item.setId(100L + i);
-            booking.setItem(item);
-            User booker = new User();
-            booker.setId(200L + i);
-            booking.setBooker(booker);
-            booking.setStatus(Status.WAITING);
-            bookingList.add(booking);
+            bookingList.add(new BookingView(i, LocalDateTime.now().plusDays(i), LocalDateTime.now().plusDays(i).plusHours(4),
+                    100L + i, null, 200L + i, null, Status.WAITING));
         }
         List<BookingResponseDto> bookingDtos = bookingList.stream()
                 .map(BookingMapper::toBookingResponseDto)
                 .collect(Collectors.toList());
-        when(bookingService.getBookingsByItems(userId, state, from, size)).thenReturn(bookingList);
+        when(bookingService.getBookingsByItems(userId, BookingFilterDto.builder().state(state).build(), from, size)).thenReturn(bookingList);
 
         ResultActions result = mockMvc.perform(get("/bookings/owner")
                         .header("X-Sharer-User-Id", userId)
@@ -249,7 +302,62 @@ public class BookingControllerTest {
                     .andExpect(jsonPath(bookingBasePath + ".start").exists())
                     .andExpect(jsonPath(bookingBasePath + ".end").exists());
         }
-        verify(bookingService).getBookingsByItems(userId, state, from, size);
+        verify(bookingService).getBookingsByItems(userId, BookingFilterDto.builder().state(state).build(), from, size);
+    }
+
+    @Test
+    public void getBookingsByItems_ShouldPassFilter() throws Exception {
+        long userId = 1L;
+        LocalDateTime start = LocalDateTime.of(2030, 1, 1, 10, 0);
+        LocalDateTime end = LocalDateTime.of(2030, 1, 2, 10, 0);
+        BookingFilterDto filter = BookingFilterDto.builder()
+                .state(State.FUTURE)
+                .itemId(7L)
+                .status(Status.APPROVED)
+                .start(start)
+                .end(end)
+                .build();
+        when(bookingService.getBookingsByItems(userId, filter, 0, 10)).thenReturn(List.of());
+
+        mockMvc.perform(get("/bookings/owner")
+                        .header("X-Sharer-User-Id", userId)
+                        .param("state", "FUTURE")
+                        .param("itemId", "7")
+                        .param("status", "APPROVED")
+                        .param("start", "2030-01-01T10:00:00")
+                        .param("end", "2030-01-02T10:00:00")
+                        .param("from", "0")
+                        .param("size", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(0));
+
+        verify(bookingService).getBookingsByItems(userId, filter, 0, 10);
     }
 
-}
\ No newline at end of file
+    @Test
+    public void streamBookingsByUserIdSorted_ShouldWriteOneJsonLinePerBooking() throws Exception {
+        long userId = 1L;
+        List<BookingView> bookingsList = new ArrayList<>();
+        for (long i = 1; i <= 2; i++) {
+            bookingsList.add(new BookingView(i, LocalDateTime.now().plusHours(i), LocalDateTime.now().plusHours(i + 1),
+                    i + 10, null, i + 20, null, Status.WAITING));
+        }
+        doAnswer(invocation -> {
+            Consumer<BookingView> consumer = invocation.getArgument(2);
+            bookingsList.forEach(consumer);
+            return null;
+        }).when(bookingService).streamBookingsByUserId(eq(userId), eq(new BookingFilterDto()), any());
+
+        String body = mockMvc.perform(get("/bookings")
+                        .header("X-Sharer-User-Id", userId)
+                        .accept("application/x-ndjson"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].startsWith("{\"id\":1,"));
+        assertTrue(lines[1].startsWith("{\"id\":2,"));
+    }
+}
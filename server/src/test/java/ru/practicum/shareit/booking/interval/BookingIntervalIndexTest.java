@@ -0,0 +1,156 @@
+package ru.practicum.shareit.booking.interval;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.booking.Status;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.model.Item;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BookingIntervalIndexTest {
+    private static final LocalDateTime DAY = LocalDateTime.of(2030, 1, 1, 0, 0);
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    @InjectMocks
+    private BookingIntervalIndex bookingIntervalIndex;
+
+    @BeforeEach
+    void setUp() {
+        when(bookingRepository.findAllByStatusInAndEndGreaterThanEqual(any(), any())).thenReturn(List.of(
+                testBooking(1L, 1L, 1, 3, Status.APPROVED),
+                testBooking(2L, 1L, 10, 12, Status.WAITING),
+                testBooking(3L, 1L, 2, 20, Status.APPROVED),
+                testBooking(4L, 2L, 5, 6, Status.WAITING)));
+        bookingIntervalIndex.rebuild();
+    }
+
+    @Test
+    void testIsFree_ShouldDetectOverlap_WhenIntervalCoveredByLongBooking() {
+        assertFalse(bookingIntervalIndex.isFree(1L, DAY.plusDays(15), DAY.plusDays(16)));
+        assertTrue(bookingIntervalIndex.isFree(1L, DAY.plusDays(21), DAY.plusDays(25)));
+        assertTrue(bookingIntervalIndex.isFree(1L, DAY, DAY.plusHours(1)));
+    }
+
+    @Test
+    void testIsFree_ShouldTreatBoundariesAsFree_WhenPeriodTouchesBooking() {
+        assertTrue(bookingIntervalIndex.isFree(2L, DAY.plusDays(6), DAY.plusDays(7)));
+        assertTrue(bookingIntervalIndex.isFree(2L, DAY.plusDays(4), DAY.plusDays(5)));
+        assertFalse(bookingIntervalIndex.isFree(2L, DAY.plusDays(4), DAY.plusDays(5).plusSeconds(1)));
+        assertFalse(bookingIntervalIndex.isFree(2L, DAY.plusDays(6).minusSeconds(1), DAY.plusDays(7)));
+        assertTrue(bookingIntervalIndex.isFree(1L, DAY.plusDays(20), DAY.plusDays(21)));
+    }
+
+    @Test
+    void testFindFree_ShouldReturnFreeItems_WhenCheckingManyItems() {
+        assertEquals(Set.of(2L, 3L), bookingIntervalIndex.findFree(List.of(1L, 2L, 3L), DAY.plusDays(10), DAY.plusDays(11)));
+    }
+
+    @Test
+    void testUpdate_ShouldAddAndRemoveIntervals_WhenStatusChanges() {
+        bookingIntervalIndex.update(testBooking(5L, 3L, 1, 2, Status.WAITING));
+        assertFalse(bookingIntervalIndex.isFree(3L, DAY.plusDays(1), DAY.plusDays(2)));
+
+        bookingIntervalIndex.update(testBooking(3L, 1L, 2, 20, Status.REJECTED));
+        bookingIntervalIndex.update(testBooking(5L, 3L, 1, 2, Status.REJECTED));
+
+        assertTrue(bookingIntervalIndex.isFree(1L, DAY.plusDays(15), DAY.plusDays(16)));
+        assertFalse(bookingIntervalIndex.isFree(1L, DAY.plusDays(11), DAY.plusDays(16)));
+        assertTrue(bookingIntervalIndex.isFree(3L, DAY.plusDays(1), DAY.plusDays(2)));
+    }
+
+    @Test
+    void testFindBusy_ShouldReturnOverlappingIntervalsInStartOrder_WhenRangeGiven() {
+        List<BookingInterval> busy = bookingIntervalIndex.findBusy(1L, DAY.plusDays(11), DAY.plusDays(30));
+
+        assertEquals(List.of(3L, 2L), busy.stream().map(BookingInterval::getBookingId).toList());
+        assertEquals(DAY.plusDays(2), busy.get(0).getStart());
+        assertEquals(Status.WAITING, busy.get(1).getStatus());
+        assertTrue(bookingIntervalIndex.findBusy(1L, DAY.plusDays(21), DAY.plusDays(30)).isEmpty());
+        assertTrue(bookingIntervalIndex.findBusy(3L, DAY, DAY.plusDays(30)).isEmpty());
+    }
+
+    @Test
+    void testFindBusy_ShouldMatchLinearScan_WhenManyIntervals() {
+        for (int i = 0; i < 200; i++) {
+            bookingIntervalIndex.update(testBooking(100L + i, 5L, (i * 7) % 97, (i * 7) % 97 + i % 5, Status.APPROVED));
+        }
+        for (int from = 0; from < 110; from += 3) {
+            LocalDateTime start = DAY.plusDays(from);
+            LocalDateTime end = start.plusDays(2);
+            List<BookingInterval> busy = bookingIntervalIndex.findBusy(5L, start, end);
+            long expected = bookingIntervalIndex.findBusy(5L, DAY.minusDays(1), DAY.plusDays(200)).stream()
+                    .filter(interval -> interval.getStart().isBefore(end) && interval.getEnd().isAfter(start))
+                    .count();
+            assertEquals(expected, busy.size());
+            assertEquals(busy.isEmpty(), bookingIntervalIndex.isFree(5L, start, end));
+        }
+    }
+
+    @Test
+    void testGetVersion_ShouldChange_WhenItemBookingsChange() {
+        long version = bookingIntervalIndex.getVersion(2L);
+
+        bookingIntervalIndex.update(testBooking(6L, 2L, 8, 9, Status.WAITING));
+
+        assertNotEquals(version, bookingIntervalIndex.getVersion(2L));
+        assertEquals(0, bookingIntervalIndex.getVersion(3L));
+    }
+
+    @Test
+    void testPrune_ShouldDropIntervalsEndedBeforeHistory_WhenOk() {
+        LocalDateTime now = LocalDateTime.now();
+        Booking old = testBooking(7L, 4L, 0, 0, Status.APPROVED);
+        old.setStart(now.minusDays(BookingIntervalIndex.HISTORY_DAYS + 2));
+        old.setEnd(now.minusDays(BookingIntervalIndex.HISTORY_DAYS + 1));
+        when(bookingRepository.findAllByStatusInAndEndGreaterThanEqual(any(), any()))
+                .thenReturn(List.of(old, testBooking(8L, 4L, 1, 2, Status.APPROVED)));
+        bookingIntervalIndex.rebuild();
+
+        bookingIntervalIndex.prune();
+
+        assertTrue(bookingIntervalIndex.isFree(4L, old.getStart(), old.getEnd()));
+        assertFalse(bookingIntervalIndex.isFree(4L, DAY.plusDays(1), DAY.plusDays(2)));
+    }
+
+    @Test
+    void testUpdate_ShouldSkipBooking_WhenEndedBeforeHistory() {
+        LocalDateTime now = LocalDateTime.now();
+        Booking old = testBooking(9L, 3L, 0, 0, Status.APPROVED);
+        old.setStart(now.minusDays(BookingIntervalIndex.HISTORY_DAYS + 2));
+        old.setEnd(now.minusDays(BookingIntervalIndex.HISTORY_DAYS + 1));
+
+        bookingIntervalIndex.update(old);
+
+        assertEquals(0, bookingIntervalIndex.getVersion(3L));
+    }
+
+    private static Booking testBooking(long id, long itemId, int startDay, int endDay, Status status) {
+        Item item = new Item();
+        item.setId(itemId);
+        Booking booking = new Booking();
+        booking.setId(id);
+        booking.setItem(item);
+        booking.setStart(DAY.plusDays(startDay));
+        booking.setEnd(DAY.plusDays(endDay));
+        booking.setStatus(status);
+        return booking;
+    }
+}
@@ -0,0 +1,149 @@
+package ru.practicum.shareit.booking.repository;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.jpa.domain.Specification;
+import ru.practicum.shareit.booking.State;
+import ru.practicum.shareit.booking.Status;
+import ru.practicum.shareit.booking.model.Booking;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static ru.practicum.shareit.booking.repository.BookingSpecifications.BOOKING_ORDER;
+import static ru.practicum.shareit.booking.repository.BookingSpecifications.bookerIs;
+import static ru.practicum.shareit.booking.repository.BookingSpecifications.itemIs;
+import static ru.practicum.shareit.booking.repository.BookingSpecifications.overlaps;
+import static ru.practicum.shareit.booking.repository.BookingSpecifications.ownerIs;
+import static ru.practicum.shareit.booking.repository.BookingSpecifications.stateIs;
+import static ru.practicum.shareit.booking.repository.BookingSpecifications.statusIs;
+
+/**
+ * SQL страницы бронирований перехватывается у Hibernate и проверяется через EXPLAIN
+ * в H2: findViewsMatching в порядке BOOKING_ORDER должен идти по составному индексу
+ * из schema.sql, а не полным проходом по таблице. H2 сам создает индекс под каждый
+ * внешний ключ, а PostgreSQL нет, поэтому перед проверкой внешние ключи bookings
+ * снимаются, и индексы по booker_id, owner_id и item_id остаются только из schema.sql.
+ * У теста свой контекст и своя встроенная база, другие тесты это не затрагивает.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "ru.practicum.shareit.booking.repository.BookingQueryPlanTest$CapturingInspector")
+public class BookingQueryPlanTest {
+    private static final List<String> STATEMENTS = new ArrayList<>();
+    private static final Pattern INDEX_IN_PLAN = Pattern.compile("/\\* PUBLIC\\.(\\w+):");
+    private static final String BOOKER_START = "IX_BOOKINGS_BOOKER_ID_START_DATE";
+    private static final String BOOKER_STATUS_START = "IX_BOOKINGS_BOOKER_ID_STATUS_START_DATE";
+    private static final String OWNER_START = "IX_BOOKINGS_OWNER_ID_START_DATE";
+    private static final String OWNER_STATUS_START = "IX_BOOKINGS_OWNER_ID_STATUS_START_DATE";
+    private static final String ITEM_START = "IX_BOOKINGS_ITEM_ID_START_DATE";
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        STATEMENTS.clear();
+        try (Connection connection = dataSource.getConnection()) {
+            for (String constraint : foreignKeys(connection)) {
+                try (PreparedStatement statement = connection.prepareStatement(
+                        "ALTER TABLE bookings DROP CONSTRAINT " + constraint)) {
+                    statement.execute();
+                }
+            }
+        }
+    }
+
+    @Test
+    void testBookerFilters_ShouldUseBookerIndex() throws SQLException {
+        LocalDateTime now = LocalDateTime.now();
+        for (State state : State.values()) {
+            assertUsesIndex(bookerIs(1L).and(stateIs(state, now)), BOOKER_START, BOOKER_STATUS_START);
+        }
+        assertUsesIndex(bookerIs(1L).and(statusIs(Status.APPROVED)), BOOKER_STATUS_START);
+        assertUsesIndex(bookerIs(1L).and(overlaps(now, now.plusDays(1))), BOOKER_START);
+    }
+
+    @Test
+    void testOwnerFilters_ShouldUseOwnerIndex() throws SQLException {
+        LocalDateTime now = LocalDateTime.now();
+        for (State state : State.values()) {
+            assertUsesIndex(ownerIs(1L).and(stateIs(state, now)), OWNER_START, OWNER_STATUS_START);
+        }
+        assertUsesIndex(ownerIs(1L).and(statusIs(Status.APPROVED)), OWNER_STATUS_START);
+        assertUsesIndex(ownerIs(1L).and(overlaps(null, now)), OWNER_START);
+    }
+
+    @Test
+    void testItemFilter_ShouldUseItemOrUserIndex() throws SQLException {
+        LocalDateTime now = LocalDateTime.now();
+        assertUsesIndex(ownerIs(1L).and(itemIs(2L)).and(overlaps(now, now.plusDays(1))),
+                ITEM_START, OWNER_START);
+        assertUsesIndex(bookerIs(1L).and(itemIs(2L)).and(statusIs(Status.WAITING)),
+                ITEM_START, BOOKER_STATUS_START);
+    }
+
+    private void assertUsesIndex(Specification<Booking> specification, String... indexNames) throws SQLException {
+        STATEMENTS.clear();
+        bookingRepository.findViewsMatching(specification, PageRequest.of(0, 10, BOOKING_ORDER));
+        String sql = STATEMENTS.stream()
+                .filter(statement -> statement.contains("bookings"))
+                .findFirst()
+                .orElseThrow();
+        try (Connection connection = dataSource.getConnection()) {
+            String plan = explain(connection, sql);
+            assertFalse(plan.contains("tableScan"), plan);
+            Matcher index = INDEX_IN_PLAN.matcher(plan);
+            assertTrue(index.find(), plan);
+            assertTrue(List.of(indexNames).contains(index.group(1)), plan);
+        }
+    }
+
+    private static String explain(Connection connection, String sql) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql);
+             ResultSet resultSet = statement.executeQuery()) {
+            StringBuilder plan = new StringBuilder();
+            while (resultSet.next()) {
+                plan.append(resultSet.getString(1)).append('\n');
+            }
+            return plan.toString();
+        }
+    }
+
+    private static List<String> foreignKeys(Connection connection) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT CONSTRAINT_NAME "
+                + "FROM INFORMATION_SCHEMA.TABLE_CONSTRAINTS "
+                + "WHERE TABLE_NAME = 'BOOKINGS' AND CONSTRAINT_TYPE = 'FOREIGN KEY'");
+             ResultSet resultSet = statement.executeQuery()) {
+            List<String> constraints = new ArrayList<>();
+            while (resultSet.next()) {
+                constraints.add(resultSet.getString(1));
+            }
+            return constraints;
+        }
+    }
+
+    public static class CapturingInspector implements StatementInspector {
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
@@ -4,20 +4,33 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.jpa.domain.Specification;
+import ru.practicum.shareit.booking.State;
 import ru.practicum.shareit.booking.Status;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.CommentRepository;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.pageable.KeysetCursor;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
 import javax.transaction.Transactional;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static ru.practicum.shareit.booking.repository.BookingSpecifications.BOOKING_ORDER;
+import static ru.practicum.shareit.booking.repository.BookingSpecifications.bookerIs;
+import static ru.practicum.shareit.booking.repository.BookingSpecifications.itemIs;
+import static ru.practicum.shareit.booking.repository.BookingSpecifications.overlaps;
+import static ru.practicum.shareit.booking.repository.BookingSpecifications.ownerIs;
+import static ru.practicum.shareit.booking.repository.BookingSpecifications.startsBefore;
+import static ru.practicum.shareit.booking.repository.BookingSpecifications.stateIs;
+import static ru.practicum.shareit.booking.repository.BookingSpecifications.statusIs;
 
 @DataJpaTest
 @Transactional
@@ -62,7 +75,7 @@ public class BookingRepositoryTest {
     }
 
     @Test
-    public void testFindAllByBookerIdIsOrderByStartDesc() {
+    public void testFindViewsMatching_Booker() {
         User user1 = createUser("user1", "user1@example.com");
         User user2 = createUser("user2", "user2@example.com");
         userRepository.save(user1);
@@ -83,12 +96,41 @@ public class BookingRepositoryTest {
         bookingRepository.save(booking2);
         bookingRepository.save(booking3);
 
-        List<Booking> bookings = bookingRepository.findAllByBookerIdIsOrderByStartDesc(user1.getId(), PageRequest.of(0, 10));
+        List<BookingView> bookings = findMatching(bookerIs(user1.getId()));
 
         assertEquals(2, bookings.size());
         assertTrue(bookings.get(0).getStart().isAfter(bookings.get(1).getStart()));
     }
 
+    @Test
+    void testFindViewsMatching_BookerAfterCursor() {
+        User booker = userRepository.save(createUser("booker", "booker@test.com"));
+        User owner = userRepository.save(createUser("owner", "owner@test.com"));
+        LocalDateTime start = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.MICROS);
+        Booking latest = bookingRepository.save(createBooking(booker, createItem(owner), Status.WAITING,
+                start.plusHours(1), start.plusHours(2)));
+        Booking tiedFirst = bookingRepository.save(createBooking(booker, createItem(owner), Status.WAITING,
+                start, start.plusHours(1)));
+        Booking tiedSecond = bookingRepository.save(createBooking(booker, createItem(owner), Status.WAITING,
+                start, start.plusHours(1)));
+        PageRequest page = PageRequest.of(0, 2, BOOKING_ORDER);
+
+        List<BookingView> firstPage = bookingRepository.findViewsMatching(bookerIs(booker.getId()), page);
+        BookingView last = firstPage.get(firstPage.size() - 1);
+        KeysetCursor cursor = KeysetCursor.decodeKeyed(KeysetCursor.of(last.getStart(), last.getId()).encode());
+        List<BookingView> secondPage = bookingRepository.findViewsMatching(bookerIs(booker.getId())
+                .and(startsBefore(cursor)), page);
+
+        assertEquals(List.of(latest.getId(), tiedSecond.getId()),
+                firstPage.stream().map(BookingView::getId).collect(Collectors.toList()));
+        assertEquals(List.of(tiedFirst.getId()),
+                secondPage.stream().map(BookingView::getId).collect(Collectors.toList()));
+    }
+
+    private List<BookingView> findMatching(Specification<Booking> specification) {
+        return bookingRepository.findViewsMatching(specification, PageRequest.of(0, 10, BOOKING_ORDER));
+    }
+
     private User createUser(String username, String email) {
         User user = new User();
         user.setName(username);
@@ -117,7 +159,7 @@ public class BookingRepositoryTest {
     }
 
     @Test
-    public void testFindAllByBookerIdIsAndAndStatusIsOrderByStartDesc() {
+    public void testFindViewsMatching_BookerStatus() {
         User user = new User();
         user.setName("User1");
         user.setEmail("user1@example.com");
@@ -143,7 +185,7 @@ public class BookingRepositoryTest {
         booking2.setEnd(LocalDateTime.now().plusDays(1).plusHours(1));
         bookingRepository.save(booking2);
 
-        List<Booking> approvedBookings = bookingRepository.findAllByBookerIdIsAndAndStatusIsOrderByStartDesc(user.getId(), Status.APPROVED, PageRequest.of(0, 10));
+        List<BookingView> approvedBookings = findMatching(bookerIs(user.getId()).and(statusIs(Status.APPROVED)));
 
         assertEquals(1, approvedBookings.size());
         assertEquals(Status.APPROVED, approvedBookings.get(0).getStatus());
@@ -181,6 +223,80 @@ public class BookingRepositoryTest {
         assertEquals(booking2, nextBookings.get(0));
     }
 
+    @Test
+    public void testFindLastBookings() {
+        User user = createUser("user1", "user1@example.com");
+        userRepository.save(user);
+        Item item1 = createItem(user);
+        Item item2 = createItem(user);
+        Item item3 = createItem(user);
+        LocalDateTime now = LocalDateTime.now();
+        Booking item1Old = bookingRepository.save(createBooking(user, item1, Status.APPROVED, now.minusDays(3), now.minusDays(2)));
+        Booking item1Last = bookingRepository.save(createBooking(user, item1, Status.APPROVED, now.minusDays(1), now));
+        bookingRepository.save(createBooking(user, item1, Status.REJECTED, now.minusHours(1), now));
+        bookingRepository.save(createBooking(user, item1, Status.APPROVED, now.plusDays(1), now.plusDays(2)));
+        Booking item2Last = bookingRepository.save(createBooking(user, item2, Status.APPROVED, now.minusDays(2), now));
+        bookingRepository.save(createBooking(user, item3, Status.WAITING, now.minusDays(2), now));
+
+        List<Booking> lastBookings = bookingRepository.findLastBookings(
+                List.of(item1.getId(), item2.getId(), item3.getId()), now);
+
+        assertEquals(2, lastBookings.size());
+        assertTrue(lastBookings.contains(item1Last));
+        assertTrue(lastBookings.contains(item2Last));
+        assertFalse(lastBookings.contains(item1Old));
+    }
+
+    @Test
+    public void testFindNextBookings() {
+        User user = createUser("user1", "user1@example.com");
+        userRepository.save(user);
+        Item item1 = createItem(user);
+        Item item2 = createItem(user);
+        LocalDateTime now = LocalDateTime.now();
+        bookingRepository.save(createBooking(user, item1, Status.APPROVED, now.minusDays(1), now));
+        Booking item1Next = bookingRepository.save(createBooking(user, item1, Status.APPROVED, now.plusDays(1), now.plusDays(2)));
+        Booking item1Later = bookingRepository.save(createBooking(user, item1, Status.APPROVED, now.plusDays(3), now.plusDays(4)));
+        bookingRepository.save(createBooking(user, item2, Status.WAITING, now.plusDays(1), now.plusDays(2)));
+
+        List<Booking> nextBookings = bookingRepository.findNextBookings(List.of(item1.getId(), item2.getId()), now);
+
+        assertEquals(1, nextBookings.size());
+        assertEquals(item1Next, nextBookings.get(0));
+        assertFalse(nextBookings.contains(item1Later));
+    }
+
+    @Test
+    public void testFindLastAndNextBookings_ShouldPickOneBookingById_WhenStartsTie() {
+        User user = createUser("user1", "user1@example.com");
+        userRepository.save(user);
+        Item item = createItem(user);
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        bookingRepository.save(createBooking(user, item, Status.APPROVED, now.minusDays(1), now));
+        Booking lastTie = bookingRepository.save(createBooking(user, item, Status.APPROVED, now.minusDays(1), now));
+        Booking nextTie = bookingRepository.save(createBooking(user, item, Status.APPROVED, now.plusDays(1), now.plusDays(2)));
+        bookingRepository.save(createBooking(user, item, Status.APPROVED, now.plusDays(1), now.plusDays(2)));
+
+        assertEquals(List.of(lastTie), bookingRepository.findLastBookings(List.of(item.getId()), now));
+        assertEquals(List.of(nextTie), bookingRepository.findNextBookings(List.of(item.getId()), now));
+        assertEquals(List.of(lastTie),
+                bookingRepository.findLastBooking(item.getId(), now, PageRequest.of(0, 1)));
+        assertEquals(List.of(nextTie),
+                bookingRepository.findNextBooking(item.getId(), now, PageRequest.of(0, 1)));
+    }
+
+    @Test
+    public void testFindNextBookings_ShouldSkipBookingStartingNow_WhenItIsLast() {
+        User user = createUser("user1", "user1@example.com");
+        userRepository.save(user);
+        Item item = createItem(user);
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        Booking startingNow = bookingRepository.save(createBooking(user, item, Status.APPROVED, now, now.plusDays(1)));
+
+        assertEquals(List.of(startingNow), bookingRepository.findLastBookings(List.of(item.getId()), now));
+        assertTrue(bookingRepository.findNextBookings(List.of(item.getId()), now).isEmpty());
+    }
+
     @Test
     public void testFindAllByItemIdForComment() {
         User user1 = new User();
@@ -229,7 +345,7 @@ public class BookingRepositoryTest {
     }
 
     @Test
-    void testFindAllByBookerIdIsAndStartIsBeforeAndEndIsAfterOrderByStartDesc() {
+    void testFindViewsMatching_BookerCurrent() {
         User booker = createUser("booker", "booker@test.com");
         booker = userRepository.save(booker);
         User owner = createUser("owner", "owner@test.com");
@@ -242,15 +358,14 @@ public class BookingRepositoryTest {
         Booking futureBooking = createBooking(booker, createItem(owner), Status.APPROVED, now.plusHours(1), now.plusHours(2));
         futureBooking = bookingRepository.save(futureBooking);
 
-        List<Booking> bookings = bookingRepository.findAllByBookerIdIsAndStartIsBeforeAndEndIsAfterOrderByStartDesc(
-                booker.getId(), now, now, PageRequest.of(0, 10));
+        List<BookingView> bookings = findMatching(bookerIs(booker.getId()).and(stateIs(State.CURRENT, now)));
 
         assertEquals(1, bookings.size());
         assertEquals(currentBooking.getId(), bookings.get(0).getId());
     }
 
     @Test
-    void testFindAllByBookerIdIsAndEndIsBeforeOrderByStartDesc() {
+    void testFindViewsMatching_BookerPast() {
         User booker = createUser("booker", "booker@test.com");
         booker = userRepository.save(booker);
         User owner = createUser("owner", "owner@test.com");
@@ -263,15 +378,14 @@ public class BookingRepositoryTest {
         Booking futureBooking = createBooking(booker, createItem(owner), Status.APPROVED, now.plusHours(1), now.plusHours(2));
         futureBooking = bookingRepository.save(futureBooking);
 
-        List<Booking> bookings = bookingRepository.findAllByBookerIdIsAndEndIsBeforeOrderByStartDesc(
-                booker.getId(), now, PageRequest.of(0, 10));
+        List<BookingView> bookings = findMatching(bookerIs(booker.getId()).and(stateIs(State.PAST, now)));
 
         assertEquals(1, bookings.size());
         assertEquals(pastBooking.getId(), bookings.get(0).getId());
     }
 
     @Test
-    void testFindAllByBookerIdIsAndStartIsAfterOrderByStartDesc() {
+    void testFindViewsMatching_BookerFuture() {
         User booker = createUser("booker", "booker@test.com");
         booker = userRepository.save(booker);
         User owner = createUser("owner", "owner@test.com");
@@ -284,15 +398,14 @@ public class BookingRepositoryTest {
         Booking futureBooking = createBooking(booker, createItem(owner), Status.APPROVED, now.plusHours(1), now.plusHours(2));
         futureBooking = bookingRepository.save(futureBooking);
 
-        List<Booking> bookings = bookingRepository.findAllByBookerIdIsAndStartIsAfterOrderByStartDesc(
-                booker.getId(), now, PageRequest.of(0, 10));
+        List<BookingView> bookings = findMatching(bookerIs(booker.getId()).and(stateIs(State.FUTURE, now)));
 
         assertEquals(1, bookings.size());
         assertEquals(futureBooking.getId(), bookings.get(0).getId());
     }
 
     @Test
-    void testFindAllByOwner() {
+    void testFindViewsMatching_Owner() {
         User booker = createUser("booker", "booker@test.com");
         booker = userRepository.save(booker);
         User owner1 = createUser("owner", "owner@test.com");
@@ -305,14 +418,31 @@ public class BookingRepositoryTest {
         Booking owner2Booking = createBooking(booker, createItem(owner2), Status.APPROVED, now.minusMinutes(30), now.plusMinutes(30));
         owner2Booking = bookingRepository.save(owner2Booking);
 
-        List<Booking> bookings = bookingRepository.findAllByOwner(owner1.getId(), PageRequest.of(0, 10));
+        List<BookingView> bookings = findMatching(ownerIs(owner1.getId()));
 
         assertEquals(1, bookings.size());
         assertEquals(owner1Booking.getId(), bookings.get(0).getId());
     }
 
     @Test
-    void testFindAllByOwnerCurrent() {
+    void testFindViewsMatching_OwnerIncludesBatchInsertedBookings() {
+        User booker = userRepository.save(createUser("booker", "booker@test.com"));
+        User owner = userRepository.save(createUser("owner", "owner@test.com"));
+        LocalDateTime now = LocalDateTime.now();
+        Booking saved = bookingRepository.save(createBooking(booker, createItem(owner), Status.APPROVED,
+                now.minusHours(2), now.minusHours(1)));
+        Booking inserted = createBooking(booker, createItem(owner), Status.WAITING, now.plusHours(1), now.plusHours(2));
+        bookingRepository.insertAll(List.of(inserted));
+
+        List<BookingView> bookings = findMatching(ownerIs(owner.getId()));
+
+        assertEquals(owner.getId(), saved.getOwnerId());
+        assertEquals(List.of(inserted.getId(), saved.getId()),
+                List.of(bookings.get(0).getId(), bookings.get(1).getId()));
+    }
+
+    @Test
+    void testFindViewsMatching_OwnerCurrent() {
         User booker = createUser("booker", "booker@test.com");
         booker = userRepository.save(booker);
         User owner1 = createUser("owner", "owner@test.com");
@@ -329,14 +459,14 @@ public class BookingRepositoryTest {
         Booking owner2Booking = createBooking(booker, createItem(owner2), Status.APPROVED, now.minusMinutes(30), now.plusMinutes(30));
         owner2Booking = bookingRepository.save(owner2Booking);
 
-        List<Booking> bookings = bookingRepository.findAllByOwnerCurrent(owner1.getId(), now, now, PageRequest.of(0, 10));
+        List<BookingView> bookings = findMatching(ownerIs(owner1.getId()).and(stateIs(State.CURRENT, now)));
 
         assertEquals(1, bookings.size());
         assertEquals(owner1NowBooking.getId(), bookings.get(0).getId());
     }
 
     @Test
-    void findAllByOwnerPast() {
+    void testFindViewsMatching_OwnerPast() {
         User booker = createUser("booker", "booker@test.com");
         booker = userRepository.save(booker);
         User owner1 = createUser("owner", "owner@test.com");
@@ -354,14 +484,14 @@ public class BookingRepositoryTest {
         owner2Booking = bookingRepository.save(owner2Booking);
 
 
-        List<Booking> bookings = bookingRepository.findAllByOwnerPast(owner1.getId(), now, PageRequest.of(0, 10));
+        List<BookingView> bookings = findMatching(ownerIs(owner1.getId()).and(stateIs(State.PAST, now)));
 
         assertEquals(1, bookings.size());
         assertEquals(owner1PastBooking.getId(), bookings.get(0).getId());
     }
 
     @Test
-    void findAllByOwnerFuture() {
+    void testFindViewsMatching_OwnerFuture() {
         User booker = createUser("booker", "booker@test.com");
         booker = userRepository.save(booker);
         User owner1 = createUser("owner", "owner@test.com");
@@ -378,14 +508,14 @@ public class BookingRepositoryTest {
         Booking owner2Booking = createBooking(booker, createItem(owner2), Status.APPROVED, now.minusMinutes(30), now.plusMinutes(30));
         owner2Booking = bookingRepository.save(owner2Booking);
 
-        List<Booking> bookings = bookingRepository.findAllByOwnerFuture(owner1.getId(), now, PageRequest.of(0, 10));
+        List<BookingView> bookings = findMatching(ownerIs(owner1.getId()).and(stateIs(State.FUTURE, now)));
 
         assertEquals(1, bookings.size());
         assertEquals(owner1FutureBooking.getId(), bookings.get(0).getId());
     }
 
     @Test
-    void findAllByOwnerStatusIs() {
+    void testFindViewsMatching_OwnerRejected() {
         User booker = createUser("booker", "booker@test.com");
         booker = userRepository.save(booker);
         User owner1 = createUser("owner", "owner@test.com");
@@ -402,9 +532,33 @@ public class BookingRepositoryTest {
         Booking owner2Booking = createBooking(booker, createItem(owner2), Status.APPROVED, now.minusMinutes(30), now.plusMinutes(30));
         owner2Booking = bookingRepository.save(owner2Booking);
 
-        List<Booking> bookings = bookingRepository.findAllByOwnerStatusIs(owner1.getId(), Status.REJECTED, PageRequest.of(0, 10));
+        List<BookingView> bookings = findMatching(ownerIs(owner1.getId()).and(stateIs(State.REJECTED, now)));
 
         assertEquals(1, bookings.size());
         assertEquals(owner1RejectedBooking.getId(), bookings.get(0).getId());
     }
-}
\ No newline at end of file
+
+    @Test
+    void testFindViewsMatching_OwnerItemAndPeriod() {
+        User booker = userRepository.save(createUser("booker", "booker@test.com"));
+        User owner = userRepository.save(createUser("owner", "owner@test.com"));
+        Item item = createItem(owner);
+        Item otherItem = createItem(owner);
+        LocalDateTime now = LocalDateTime.now();
+        Booking early = bookingRepository.save(createBooking(booker, item, Status.APPROVED,
+                now.plusDays(1), now.plusDays(2)));
+        Booking late = bookingRepository.save(createBooking(booker, item, Status.WAITING,
+                now.plusDays(5), now.plusDays(6)));
+        bookingRepository.save(createBooking(booker, otherItem, Status.APPROVED, now.plusDays(1), now.plusDays(2)));
+
+        List<BookingView> inPeriod = findMatching(ownerIs(owner.getId()).and(itemIs(item.getId()))
+                .and(overlaps(now.plusDays(1).plusHours(12), now.plusDays(3))));
+        List<BookingView> waitingFromDate = findMatching(ownerIs(owner.getId()).and(itemIs(item.getId()))
+                .and(statusIs(Status.WAITING)).and(overlaps(now, null)));
+
+        assertEquals(1, inPeriod.size());
+        assertEquals(early.getId(), inPeriod.get(0).getId());
+        assertEquals(1, waitingFromDate.size());
+        assertEquals(late.getId(), waitingFromDate.get(0).getId());
+    }
+}
@@ -0,0 +1,195 @@
+package ru.practicum.shareit.booking.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.booking.Status;
+import ru.practicum.shareit.booking.interval.BookingIntervalIndex;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.exceptions.BookingConflictException;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Бронирование из многих потоков: одна популярная вещь и много редко бронируемых.
+ * Запуск: mvn test -P benchmark
+ */
+@Slf4j
+@Tag("benchmark")
+@SpringBootTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+public class BookingConcurrencyStressTest {
+    private static final int THREADS = 16;
+    private static final int REQUESTS_PER_THREAD = 200;
+    private static final int SLOTS = 400;
+    private static final int COLD_ITEMS = 256;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private BookingIntervalIndex bookingIntervalIndex;
+
+    @AfterEach
+    void tearDown() {
+        bookingRepository.deleteAll();
+        itemRepository.deleteAll();
+        userRepository.deleteAll();
+        bookingIntervalIndex.rebuild();
+    }
+
+    @Test
+    void bookHotAndColdItems() throws Exception {
+        User owner = createUser("owner");
+        List<User> bookers = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            bookers.add(createUser("booker" + i));
+        }
+        Item hotItem = createItem(owner);
+        List<Item> coldItems = new ArrayList<>();
+        for (int i = 0; i < COLD_ITEMS; i++) {
+            coldItems.add(createItem(owner));
+        }
+        LocalDateTime base = LocalDateTime.now().plusDays(1).withNano(0);
+
+        Set<Integer> hotSlots = ConcurrentHashMap.newKeySet();
+        Result hot = run(bookers, (random, thread) -> {
+            int slot = random.nextInt(SLOTS);
+            hotSlots.add(slot);
+            return booking(hotItem, bookers.get(thread), base, slot);
+        });
+        log.info("Одна вещь: {} запросов за {} мс, {} в секунду, {} успешных, {} конфликтов",
+                hot.requests(), hot.millis, hot.perSecond(), hot.succeeded, hot.conflicts);
+        assertEquals(hotSlots.size(), hot.succeeded);
+        assertNoOverlaps(hotItem.getId());
+
+        Result cold = run(bookers, (random, thread) ->
+                booking(coldItems.get(random.nextInt(COLD_ITEMS)), bookers.get(thread), base, random.nextInt(SLOTS)));
+        log.info("{} вещей: {} запросов за {} мс, {} в секунду, {} успешных, {} конфликтов", COLD_ITEMS,
+                cold.requests(), cold.millis, cold.perSecond(), cold.succeeded, cold.conflicts);
+        for (Item item : coldItems) {
+            assertNoOverlaps(item.getId());
+        }
+    }
+
+    private Result run(List<User> bookers, BookingFactory factory) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger conflicts = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        long start = System.nanoTime();
+        for (int thread = 0; thread < bookers.size(); thread++) {
+            int threadNumber = thread;
+            futures.add(executor.submit(() -> {
+                Random random = new Random(threadNumber);
+                for (int i = 0; i < REQUESTS_PER_THREAD; i++) {
+                    try {
+                        bookingService.addBooking(factory.create(random, threadNumber));
+                        succeeded.incrementAndGet();
+                    } catch (BookingConflictException e) {
+                        conflicts.incrementAndGet();
+                    }
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+        return new Result(succeeded.get(), conflicts.get(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private void assertNoOverlaps(long itemId) {
+        List<Booking> bookings = new ArrayList<>();
+        for (Booking booking : bookingRepository.findAllByStatusInAndEndGreaterThanEqual(
+                List.of(Status.WAITING, Status.APPROVED), LocalDateTime.now())) {
+            if (booking.getItem().getId() == itemId) {
+                bookings.add(booking);
+            }
+        }
+        bookings.sort((first, second) -> first.getStart().compareTo(second.getStart()));
+        for (int i = 1; i < bookings.size(); i++) {
+            assertTrue(bookings.get(i).getStart().isAfter(bookings.get(i - 1).getEnd()));
+        }
+    }
+
+    private static Booking booking(Item item, User booker, LocalDateTime base, int slot) {
+        Booking booking = new Booking();
+        booking.setItem(item);
+        booking.setBooker(booker);
+        booking.setStatus(Status.WAITING);
+        booking.setStart(base.plusHours(slot));
+        booking.setEnd(base.plusHours(slot).plusMinutes(59));
+        return booking;
+    }
+
+    private User createUser(String name) {
+        User user = new User();
+        user.setName(name);
+        user.setEmail(name + "@stress.com");
+        return userRepository.save(user);
+    }
+
+    private Item createItem(User owner) {
+        Item item = new Item();
+        item.setName("Дрель");
+        item.setDescription("Аккумуляторная дрель");
+        item.setIsAvailable(true);
+        item.setOwnerId(owner.getId());
+        return itemRepository.save(item);
+    }
+
+    private interface BookingFactory {
+        Booking create(Random random, int thread);
+    }
+
+    private static class Result {
+        private final int succeeded;
+        private final int conflicts;
+        private final long millis;
+
+        Result(int succeeded, int conflicts, long millis) {
+            this.succeeded = succeeded;
+            this.conflicts = conflicts;
+            this.millis = millis;
+        }
+
+        int requests() {
+            return succeeded + conflicts;
+        }
+
+        long perSecond() {
+            return requests() * 1000L / Math.max(1, millis);
+        }
+    }
+}
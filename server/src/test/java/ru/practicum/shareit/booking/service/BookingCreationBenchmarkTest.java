@@ -0,0 +1,129 @@
+package ru.practicum.shareit.booking.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.booking.Status;
+import ru.practicum.shareit.booking.interval.BookingIntervalIndex;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Скорость создания бронирований: прежняя последовательность из четырех чтений
+ * и вставки против проверки одним запросом.
+ * Запуск: mvn test -P benchmark
+ */
+@Slf4j
+@Tag("benchmark")
+@SpringBootTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+public class BookingCreationBenchmarkTest {
+    private static final int BOOKINGS = 2_000;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private BookingIntervalIndex bookingIntervalIndex;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @AfterEach
+    void tearDown() {
+        bookingRepository.deleteAll();
+        itemRepository.deleteAll();
+        userRepository.deleteAll();
+        bookingIntervalIndex.rebuild();
+    }
+
+    @Test
+    void compareCreationPaths() {
+        User owner = createUser("owner");
+        User booker = createUser("booker");
+        Item legacyItem = createItem(owner);
+        Item item = createItem(owner);
+        LocalDateTime base = LocalDateTime.now().plusDays(1).withNano(0);
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        statistics.clear();
+        long legacyStart = System.nanoTime();
+        for (int i = 0; i < BOOKINGS; i++) {
+            Booking booking = booking(legacyItem.getId(), booker.getId(), base, i);
+            userRepository.findById(booking.getBooker().getId()).orElseThrow();
+            itemRepository.findById(booking.getItem().getId()).orElseThrow();
+            booking.setItem(itemRepository.findById(booking.getItem().getId()).orElseThrow());
+            booking.setBooker(userRepository.findById(booking.getBooker().getId()).orElseThrow());
+            bookingRepository.save(booking);
+        }
+        long legacyMillis = (System.nanoTime() - legacyStart) / 1_000_000;
+        long legacyStatements = statistics.getPrepareStatementCount();
+
+        statistics.clear();
+        long start = System.nanoTime();
+        for (int i = 0; i < BOOKINGS; i++) {
+            bookingService.addBooking(booking(item.getId(), booker.getId(), base, i));
+        }
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        long statements = statistics.getPrepareStatementCount();
+
+        log.info("Прежний путь: {} бронирований в секунду, {} запросов на бронирование",
+                BOOKINGS * 1000L / Math.max(1, legacyMillis), legacyStatements / BOOKINGS);
+        log.info("Новый путь: {} бронирований в секунду, {} запросов на бронирование",
+                BOOKINGS * 1000L / Math.max(1, millis), statements / BOOKINGS);
+        assertEquals(5L * BOOKINGS, legacyStatements);
+        assertEquals(2L * BOOKINGS, statements);
+    }
+
+    private static Booking booking(long itemId, long bookerId, LocalDateTime base, int slot) {
+        Booking booking = new Booking();
+        booking.setItem(Item.builder().id(itemId).build());
+        User booker = new User();
+        booker.setId(bookerId);
+        booking.setBooker(booker);
+        booking.setStatus(Status.WAITING);
+        booking.setStart(base.plusHours(slot));
+        booking.setEnd(base.plusHours(slot).plusMinutes(59));
+        return booking;
+    }
+
+    private User createUser(String name) {
+        User user = new User();
+        user.setName(name);
+        user.setEmail(name + "@benchmark.com");
+        return userRepository.save(user);
+    }
+
+    private Item createItem(User owner) {
+        Item item = new Item();
+        item.setName("Дрель");
+        item.setDescription("Аккумуляторная дрель");
+        item.setIsAvailable(true);
+        item.setOwnerId(owner.getId());
+        return itemRepository.save(item);
+    }
+}
@@ -1,24 +1,38 @@
 package ru.practicum.shareit.booking.service;
 
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.context.SpringBootTest;
 import ru.practicum.shareit.booking.State;
 import ru.practicum.shareit.booking.Status;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
+import ru.practicum.shareit.booking.dto.BookingFilterDto;
+import ru.practicum.shareit.booking.dto.BookingMapper;
+import ru.practicum.shareit.booking.dto.BookingResponseDto;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.repository.BookingView;
+import ru.practicum.shareit.exceptions.BookingConflictException;
+import ru.practicum.shareit.exceptions.BookingValidationException;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
+import javax.persistence.EntityManager;
 import javax.transaction.Transactional;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 @SpringBootTest
 @AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
@@ -37,6 +51,9 @@ public class BookingServiceImplIntegrationTest {
     @Autowired
     private ItemRepository itemRepository;
 
+    @Autowired
+    private EntityManager entityManager;
+
     @Test
     public void testAddBooking() {
         User user1 = new User();
@@ -68,6 +85,229 @@ public class BookingServiceImplIntegrationTest {
         assertNotNull(addedBooking.getId());
     }
 
+    @Test
+    public void testAddBooking_RejectsOverlap_WhenItemAlreadyBooked() {
+        User owner = new User();
+        owner.setName("Owner");
+        owner.setEmail("owner@example.com");
+        userRepository.save(owner);
+        User booker = new User();
+        booker.setName("Booker");
+        booker.setEmail("booker@example.com");
+        userRepository.save(booker);
+        Item item = new Item();
+        item.setName("Item");
+        item.setDescription("Description");
+        item.setIsAvailable(true);
+        item.setOwnerId(owner.getId());
+        itemRepository.save(item);
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        bookingService.addBooking(newBooking(item, booker, start, start.plusHours(2)));
+
+        assertThrows(BookingConflictException.class,
+                () -> bookingService.addBooking(newBooking(item, booker, start.plusHours(1), start.plusHours(3))));
+        assertNotNull(bookingService.addBooking(newBooking(item, booker, start.plusHours(3), start.plusHours(4))).getId());
+    }
+
+    @Test
+    public void testAddBooking_ValidatesAndInsertsInTwoStatements() {
+        User owner = new User();
+        owner.setName("Owner");
+        owner.setEmail("owner@example.com");
+        userRepository.save(owner);
+        User booker = new User();
+        booker.setName("Booker");
+        booker.setEmail("booker@example.com");
+        userRepository.save(booker);
+        Item item = new Item();
+        item.setName("Item");
+        item.setDescription("Description");
+        item.setIsAvailable(true);
+        item.setOwnerId(owner.getId());
+        itemRepository.save(item);
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        Booking booking = newBooking(item, booker, start, start.plusHours(2));
+        booking.setItem(Item.builder().id(item.getId()).build());
+        User bookerReference = new User();
+        bookerReference.setId(booker.getId());
+        booking.setBooker(bookerReference);
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        Booking addedBooking = bookingService.addBooking(booking);
+
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals("Item", addedBooking.getItem().getName());
+        assertEquals("Booker", addedBooking.getBooker().getName());
+    }
+
+    @Test
+    public void testAddBookings_LoadsParticipantsOnceAndInsertsInBatch() {
+        User owner = new User();
+        owner.setName("Owner");
+        owner.setEmail("owner@example.com");
+        userRepository.save(owner);
+        User booker = new User();
+        booker.setName("Booker");
+        booker.setEmail("booker@example.com");
+        userRepository.save(booker);
+        Item first = new Item();
+        first.setName("First");
+        first.setDescription("Description");
+        first.setIsAvailable(true);
+        first.setOwnerId(owner.getId());
+        itemRepository.save(first);
+        Item second = new Item();
+        second.setName("Second");
+        second.setDescription("Description");
+        second.setIsAvailable(true);
+        second.setOwnerId(owner.getId());
+        itemRepository.save(second);
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        List<Booking> bookings = List.of(newBooking(first, booker, start, start.plusHours(2)),
+                newBooking(second, booker, start, start.plusHours(2)),
+                newBooking(first, booker, start.plusHours(3), start.plusHours(4)));
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<Booking> added = bookingService.addBookings(booker.getId(), bookings);
+
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals("Second", added.get(1).getItem().getName());
+        for (Booking booking : added) {
+            assertEquals(Status.WAITING, bookingRepository.findById(booking.getId()).orElseThrow().getStatus());
+        }
+        assertThrows(BookingConflictException.class, () -> bookingService.addBookings(booker.getId(),
+                List.of(newBooking(second, booker, start.plusHours(5), start.plusHours(6)),
+                        newBooking(first, booker, start.plusHours(1), start.plusHours(5)))));
+        assertEquals(3, bookingRepository.findAllByStatusInAndEndGreaterThanEqual(List.of(Status.WAITING),
+                LocalDateTime.now()).size());
+    }
+
+    @Test
+    public void testGetBookingsSummary_CountsAllStatesInOneQuery() {
+        User owner = new User();
+        owner.setName("Owner");
+        owner.setEmail("owner@example.com");
+        userRepository.save(owner);
+        User booker = new User();
+        booker.setName("Booker");
+        booker.setEmail("booker@example.com");
+        userRepository.save(booker);
+        Item item = new Item();
+        item.setName("Item");
+        item.setDescription("Description");
+        item.setIsAvailable(true);
+        item.setOwnerId(owner.getId());
+        itemRepository.save(item);
+        LocalDateTime now = LocalDateTime.now();
+        bookingRepository.save(newBooking(item, booker, now.minusDays(3), now.minusDays(2)));
+        bookingRepository.save(newBooking(item, booker, now.minusHours(1), now.plusHours(1)));
+        Booking rejected = newBooking(item, booker, now.plusDays(1), now.plusDays(2));
+        rejected.setStatus(Status.REJECTED);
+        bookingRepository.save(rejected);
+        bookingRepository.save(newBooking(item, booker, now.plusDays(3), now.plusDays(4)));
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        Map<State, Long> summary = bookingService.getBookingsSummary(booker.getId());
+
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(Map.of(State.ALL, 4L, State.CURRENT, 1L, State.PAST, 1L, State.FUTURE, 2L,
+                State.WAITING, 3L, State.REJECTED, 1L), summary);
+        assertEquals(summary, bookingService.getBookingsSummaryByItems(owner.getId()));
+        assertEquals(0L, bookingService.getBookingsSummaryByItems(booker.getId()).get(State.ALL));
+    }
+
+    @Test
+    public void testApproveStatus_UpdatesOnceWithConditionalStatement() {
+        User owner = new User();
+        owner.setName("Owner");
+        owner.setEmail("owner@example.com");
+        userRepository.save(owner);
+        User booker = new User();
+        booker.setName("Booker");
+        booker.setEmail("booker@example.com");
+        userRepository.save(booker);
+        Item item = new Item();
+        item.setName("Item");
+        item.setDescription("Description");
+        item.setIsAvailable(true);
+        item.setOwnerId(owner.getId());
+        itemRepository.save(item);
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        Booking booking = bookingRepository.save(newBooking(item, booker, start, start.plusHours(2)));
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        Booking approvedBooking = bookingService.approveStatus(owner.getId(), booking.getId(), true);
+
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(Status.APPROVED, approvedBooking.getStatus());
+        entityManager.clear();
+        assertEquals(booking.getId(),
+                itemRepository.findById(item.getId()).orElseThrow().getNextBooking().getBookingId());
+        assertEquals("Booker", approvedBooking.getBooker().getName());
+        assertThrows(BookingValidationException.class,
+                () -> bookingService.approveStatus(owner.getId(), booking.getId(), false));
+        assertEquals(Status.APPROVED, bookingRepository.findById(booking.getId()).orElseThrow().getStatus());
+    }
+
+    @Test
+    public void testApproveStatuses_ApprovesWaitingBookingsInOneBatch() {
+        User owner = new User();
+        owner.setName("Owner");
+        owner.setEmail("owner@example.com");
+        userRepository.save(owner);
+        User booker = new User();
+        booker.setName("Booker");
+        booker.setEmail("booker@example.com");
+        userRepository.save(booker);
+        Item item = new Item();
+        item.setName("Item");
+        item.setDescription("Description");
+        item.setIsAvailable(true);
+        item.setOwnerId(owner.getId());
+        itemRepository.save(item);
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        Booking first = bookingRepository.save(newBooking(item, booker, start, start.plusHours(1)));
+        Booking second = bookingRepository.save(newBooking(item, booker, start.plusHours(2), start.plusHours(3)));
+        Booking rejected = newBooking(item, booker, start.plusHours(4), start.plusHours(5));
+        rejected.setStatus(Status.REJECTED);
+        bookingRepository.save(rejected);
+        entityManager.flush();
+        entityManager.clear();
+
+        List<BookingBatchResultDto> results = bookingService.approveStatuses(owner.getId(),
+                List.of(first.getId(), second.getId(), rejected.getId()), true);
+
+        assertEquals(Status.APPROVED, results.get(0).getStatus());
+        assertEquals(Status.APPROVED, results.get(1).getStatus());
+        assertNotNull(results.get(2).getError());
+        entityManager.clear();
+        assertEquals(Status.APPROVED, bookingRepository.findById(first.getId()).orElseThrow().getStatus());
+        assertEquals(Status.APPROVED, bookingRepository.findById(second.getId()).orElseThrow().getStatus());
+        assertEquals(Status.REJECTED, bookingRepository.findById(rejected.getId()).orElseThrow().getStatus());
+    }
+
+    private static Booking newBooking(Item item, User booker, LocalDateTime start, LocalDateTime end) {
+        Booking booking = new Booking();
+        booking.setItem(item);
+        booking.setBooker(booker);
+        booking.setStatus(Status.WAITING);
+        booking.setStart(start);
+        booking.setEnd(end);
+        return booking;
+    }
+
     @Test
     public void testApproveStatus() {
         User user = new User();
@@ -163,7 +403,8 @@ public class BookingServiceImplIntegrationTest {
         booking2.setEnd(end2);
         bookingRepository.save(booking2);
 
-        List<Booking> bookings = bookingService.getBookingsByUserIdSorted(user2.getId(), State.WAITING, 0, 10);
+        List<BookingView> bookings = bookingService.getBookingsByUserIdSorted(user2.getId(),
+                BookingFilterDto.builder().state(State.WAITING).build(), 0, 10);
 
         assertNotNull(bookings);
         assertEquals(2, bookings.size());
@@ -206,12 +447,51 @@ public class BookingServiceImplIntegrationTest {
         booking2.setEnd(end2);
         bookingRepository.save(booking2);
 
-        List<Booking> bookings = bookingService.getBookingsByItems(user1.getId(), State.ALL, 0, 10);
+        List<BookingView> bookings = bookingService.getBookingsByItems(user1.getId(), new BookingFilterDto(), 0, 10);
 
         assertNotNull(bookings);
         assertEquals(2, bookings.size());
     }
 
+    @Test
+    public void testGetBookingsByUserIdSorted_ShouldReadPageInOneQuery() {
+        User owner = new User();
+        owner.setName("Owner");
+        owner.setEmail("owner@example.com");
+        userRepository.save(owner);
+        User booker = new User();
+        booker.setName("Booker");
+        booker.setEmail("booker@example.com");
+        userRepository.save(booker);
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        int size = 100;
+        for (int i = 0; i < size; i++) {
+            Item item = new Item();
+            item.setName("Item" + i);
+            item.setDescription("Description");
+            item.setIsAvailable(true);
+            item.setOwnerId(owner.getId());
+            itemRepository.save(item);
+            bookingRepository.save(newBooking(item, booker, start.plusHours(i * 2L), start.plusHours(i * 2L + 1)));
+        }
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<BookingResponseDto> bookings = new ArrayList<>();
+        for (BookingView booking : bookingService.getBookingsByUserIdSorted(booker.getId(), new BookingFilterDto(),
+                0, size)) {
+            bookings.add(BookingMapper.toBookingResponseDto(booking));
+        }
+
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(size, bookings.size());
+        assertEquals("Item" + (size - 1), bookings.get(0).getItem().getName());
+        assertEquals("Item0", bookings.get(size - 1).getItem().getName());
+        assertEquals("Booker", bookings.get(0).getBooker().getName());
+    }
+
     @Test
     public void testGetBookingByItemId() {
         User user = new User();
@@ -243,4 +523,44 @@ public class BookingServiceImplIntegrationTest {
         assertEquals(start, retrievedBooking.getStart());
         assertEquals(end, retrievedBooking.getEnd());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testStreamBookingsByUserId_ShouldVisitAllBookingsAcrossChunks() {
+        User owner = new User();
+        owner.setName("Owner");
+        owner.setEmail("owner@example.com");
+        userRepository.save(owner);
+        User booker = new User();
+        booker.setName("Booker");
+        booker.setEmail("booker@example.com");
+        userRepository.save(booker);
+        Item item = new Item();
+        item.setName("Item");
+        item.setDescription("Description");
+        item.setIsAvailable(true);
+        item.setOwnerId(owner.getId());
+        itemRepository.save(item);
+        LocalDateTime start = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.SECONDS);
+        int count = 1200;
+        for (int i = 0; i < count; i++) {
+            Booking booking = new Booking();
+            booking.setItem(item);
+            booking.setBooker(booker);
+            booking.setStatus(Status.WAITING);
+            booking.setStart(start.plusHours(i * 2L));
+            booking.setEnd(start.plusHours(i * 2L + 1));
+            bookingRepository.save(booking);
+        }
+        entityManager.flush();
+        List<LocalDateTime> starts = new ArrayList<>();
+
+        bookingService.streamBookingsByUserId(booker.getId(), new BookingFilterDto(), booking -> {
+            assertEquals(item.getId(), booking.getItemId());
+            starts.add(booking.getStart());
+        });
+
+        assertEquals(count, starts.size());
+        assertEquals(start.plusHours((count - 1) * 2L), starts.get(0));
+        assertEquals(start, starts.get(count - 1));
+    }
+}
@@ -6,23 +6,34 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import ru.practicum.shareit.booking.State;
 import ru.practicum.shareit.booking.Status;
+import ru.practicum.shareit.booking.interval.BookingIntervalIndex;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
+import ru.practicum.shareit.booking.dto.BookingFilterDto;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingParticipants;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.repository.BookingView;
+import ru.practicum.shareit.booking.repository.BookingStateCounts;
+import ru.practicum.shareit.exceptions.BookingConflictException;
 import ru.practicum.shareit.exceptions.BookingValidationException;
 import ru.practicum.shareit.exceptions.ItemUnavailableException;
 import ru.practicum.shareit.exceptions.ObjectNotFoundException;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
-import ru.practicum.shareit.pageable.OffsetLimitPageable;
+import ru.practicum.shareit.item.service.ItemBookingRefresher;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
 import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -39,9 +50,39 @@ public class BookingServiceImplTest {
     private UserRepository userRepository;
     @Mock
     private ItemRepository itemRepository;
+    @Mock
+    private BookingIntervalIndex bookingIntervalIndex;
+    @Mock
+    private ItemBookingRefresher itemBookingRefresher;
     @InjectMocks
     private BookingServiceImpl bookingService;
 
+    private static BookingParticipants participants(Item item, User booker) {
+        return new BookingParticipants() {
+            @Override
+            public Item getItem() {
+                return item;
+            }
+
+            @Override
+            public User getBooker() {
+                return booker;
+            }
+        };
+    }
+
+    private static Booking batchBooking(long itemId, long bookerId, LocalDateTime start, LocalDateTime end) {
+        Booking booking = new Booking();
+        booking.setItem(Item.builder().id(itemId).build());
+        User booker = new User();
+        booker.setId(bookerId);
+        booking.setBooker(booker);
+        booking.setStatus(Status.WAITING);
+        booking.setStart(start);
+        booking.setEnd(end);
+        return booking;
+    }
+
     private static Item testItem(long id, long userId) {
         Item item1 = new Item();
         item1.setId(id);
@@ -64,14 +105,13 @@ public class BookingServiceImplTest {
         booking.setItem(item);
         booking.setEnd(LocalDateTime.now().plusHours(2));
         booking.setStart(LocalDateTime.now().plusHours(1));
-        when(userRepository.findById(booker.getId())).thenReturn(Optional.of(booker));
-        when(itemRepository.findById(item.getId())).thenReturn(Optional.of(item));
+        when(bookingRepository.findParticipants(item.getId(), booker.getId())).thenReturn(Optional.of(participants(item, booker)));
+        when(bookingIntervalIndex.isFree(item.getId(), booking.getStart(), booking.getEnd())).thenReturn(true);
         when(bookingRepository.save(booking)).thenReturn(booking);
 
         Booking result = bookingService.addBooking(booking);
 
-        verify(userRepository, times(2)).findById(booker.getId());
-        verify(itemRepository, times(2)).findById(item.getId());
+        verifyNoInteractions(userRepository, itemRepository);
         ArgumentCaptor<Booking> captor = ArgumentCaptor.forClass(Booking.class);
         verify(bookingRepository).save(captor.capture());
         Booking savedBooking = captor.getValue();
@@ -80,6 +120,162 @@ public class BookingServiceImplTest {
         assertEquals(booker, savedBooking.getBooker());
         assertEquals(3L, savedBooking.getItem().getId());
         assertEquals(item, savedBooking.getItem());
+        verify(bookingIntervalIndex).update(booking);
+    }
+
+    @Test
+    public void testAddBooking_ShouldThrowConflict_WhenPeriodAlreadyBooked() {
+        User booker = new User();
+        booker.setId(1L);
+        Item item = testItem(3L, 2L);
+        Booking booking = new Booking();
+        booking.setBooker(booker);
+        booking.setItem(item);
+        booking.setStart(LocalDateTime.now().plusHours(1));
+        booking.setEnd(LocalDateTime.now().plusHours(2));
+        when(bookingRepository.findParticipants(item.getId(), booker.getId())).thenReturn(Optional.of(participants(item, booker)));
+        when(bookingIntervalIndex.isFree(item.getId(), booking.getStart(), booking.getEnd())).thenReturn(false);
+
+        assertThrows(BookingConflictException.class, () -> bookingService.addBooking(booking));
+        verify(bookingRepository, never()).save(any());
+    }
+
+    @Test
+    public void testAddBookings_ShouldInsertAllInOneBatch_WhenValid() {
+        User booker = new User();
+        booker.setId(1L);
+        Item first = testItem(3L, 2L);
+        Item second = testItem(4L, 2L);
+        LocalDateTime start = LocalDateTime.now().plusHours(1);
+        Booking firstBooking = batchBooking(3L, 1L, start, start.plusHours(1));
+        Booking secondBooking = batchBooking(4L, 1L, start, start.plusHours(1));
+        Booking laterBooking = batchBooking(3L, 1L, start.plusHours(2), start.plusHours(3));
+        List<Booking> bookings = List.of(firstBooking, secondBooking, laterBooking);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(booker));
+        when(itemRepository.findAllById(Set.of(3L, 4L))).thenReturn(List.of(first, second));
+        when(bookingIntervalIndex.isFree(anyLong(), any(), any())).thenReturn(true);
+
+        List<Booking> result = bookingService.addBookings(1L, bookings);
+
+        assertEquals(bookings, result);
+        assertEquals(first, laterBooking.getItem());
+        assertEquals(booker, secondBooking.getBooker());
+        verify(bookingRepository).insertAll(bookings);
+        verify(bookingRepository, never()).save(any());
+        verify(bookingIntervalIndex, times(3)).update(any());
+    }
+
+    @Test
+    public void testAddBookings_ShouldInsertNothing_WhenBookingsInBatchOverlap() {
+        User booker = new User();
+        booker.setId(1L);
+        LocalDateTime start = LocalDateTime.now().plusHours(1);
+        List<Booking> bookings = List.of(batchBooking(3L, 1L, start, start.plusHours(2)),
+                batchBooking(3L, 1L, start.plusHours(1), start.plusHours(3)));
+        when(userRepository.findById(1L)).thenReturn(Optional.of(booker));
+        when(itemRepository.findAllById(Set.of(3L))).thenReturn(List.of(testItem(3L, 2L)));
+        when(bookingIntervalIndex.isFree(anyLong(), any(), any())).thenReturn(true);
+
+        assertThrows(BookingValidationException.class, () -> bookingService.addBookings(1L, bookings));
+        verify(bookingRepository, never()).insertAll(any());
+        verify(bookingIntervalIndex, never()).update(any());
+    }
+
+    @Test
+    public void testAddBookings_ShouldInsertBackToBackBookings_WhenPeriodsOnlyTouch() {
+        User booker = new User();
+        booker.setId(1L);
+        LocalDateTime start = LocalDateTime.now().plusHours(1);
+        List<Booking> bookings = List.of(batchBooking(3L, 1L, start, start.plusHours(1)),
+                batchBooking(3L, 1L, start.plusHours(1), start.plusHours(2)));
+        when(userRepository.findById(1L)).thenReturn(Optional.of(booker));
+        when(itemRepository.findAllById(Set.of(3L))).thenReturn(List.of(testItem(3L, 2L)));
+        when(bookingIntervalIndex.isFree(anyLong(), any(), any())).thenReturn(true);
+
+        assertEquals(bookings, bookingService.addBookings(1L, bookings));
+        verify(bookingRepository).insertAll(bookings);
+    }
+
+    @Test
+    public void testAddBookings_ShouldThrowException_WhenItemDoesNotExist() {
+        User booker = new User();
+        booker.setId(1L);
+        LocalDateTime start = LocalDateTime.now().plusHours(1);
+        List<Booking> bookings = List.of(batchBooking(3L, 1L, start, start.plusHours(1)),
+                batchBooking(5L, 1L, start, start.plusHours(1)));
+        when(userRepository.findById(1L)).thenReturn(Optional.of(booker));
+        when(itemRepository.findAllById(Set.of(3L, 5L))).thenReturn(List.of(testItem(3L, 2L)));
+
+        assertThrows(ObjectNotFoundException.class, () -> bookingService.addBookings(1L, bookings));
+        verify(bookingRepository, never()).insertAll(any());
+    }
+
+    @Test
+    public void testGetBookingsSummary_ShouldReturnCountPerState() {
+        when(userRepository.findById(1L)).thenReturn(Optional.of(new User()));
+        when(bookingRepository.countStatesByBooker(eq(1L), any(LocalDateTime.class))).thenReturn(
+                new BookingStateCounts() {
+                    @Override
+                    public long getAllCount() {
+                        return 6;
+                    }
+
+                    @Override
+                    public long getCurrentCount() {
+                        return 1;
+                    }
+
+                    @Override
+                    public long getPastCount() {
+                        return 2;
+                    }
+
+                    @Override
+                    public long getFutureCount() {
+                        return 3;
+                    }
+
+                    @Override
+                    public long getWaitingCount() {
+                        return 4;
+                    }
+
+                    @Override
+                    public long getRejectedCount() {
+                        return 5;
+                    }
+                });
+
+        Map<State, Long> summary = bookingService.getBookingsSummary(1L);
+
+        assertEquals(List.of(State.values()), List.copyOf(summary.keySet()));
+        assertEquals(List.of(6L, 1L, 2L, 3L, 4L, 5L), List.copyOf(summary.values()));
+        verify(bookingRepository, never()).countStatesByOwner(anyLong(), any());
+    }
+
+    @Test
+    public void testGetBookingsSummary_ShouldThrowException_WhenUserDoesNotExist() {
+        when(userRepository.findById(1L)).thenReturn(Optional.empty());
+
+        assertThrows(ObjectNotFoundException.class, () -> bookingService.getBookingsSummary(1L));
+        verifyNoInteractions(bookingRepository);
+    }
+
+    @Test
+    public void testApproveStatus_ShouldThrowConflict_WhenRejectedBookingOverlaps() {
+        Booking booking = new Booking();
+        booking.setId(1L);
+        booking.setItem(testItem(3L, 1L));
+        booking.setStatus(Status.REJECTED);
+        booking.setStart(LocalDateTime.now().plusHours(1));
+        booking.setEnd(LocalDateTime.now().plusHours(2));
+        when(bookingRepository.findByIdWithParticipants(1L)).thenReturn(Optional.of(booking));
+        when(bookingIntervalIndex.isFree(3L, booking.getStart(), booking.getEnd())).thenReturn(false);
+
+        assertThrows(BookingConflictException.class, () -> bookingService.approveStatus(1L, 1L, true));
+        assertEquals(Status.REJECTED, booking.getStatus());
+        verify(bookingRepository).updateStatus(1L, 1L, Status.WAITING, Status.APPROVED);
+        verify(bookingRepository, never()).updateStatus(1L, 1L, Status.REJECTED, Status.APPROVED);
     }
 
     @Test
@@ -88,10 +284,15 @@ public class BookingServiceImplTest {
         User user = new User();
         user.setId(1L);
         booking.setBooker(user);
+        Item item = new Item();
+        item.setId(2L);
+        booking.setItem(item);
 
-        when(userRepository.findById(user.getId())).thenReturn(Optional.empty());
+        when(bookingRepository.findParticipants(item.getId(), user.getId())).thenReturn(Optional.empty());
+        when(userRepository.existsById(user.getId())).thenReturn(false);
 
-        assertThrows(ObjectNotFoundException.class, () -> bookingService.addBooking(booking));
+        assertEquals("нет пользователя с таким id",
+                assertThrows(ObjectNotFoundException.class, () -> bookingService.addBooking(booking)).getMessage());
     }
 
     @Test
@@ -104,10 +305,11 @@ public class BookingServiceImplTest {
         item.setId(2L);
         booking.setItem(item);
 
-        when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
-        when(itemRepository.findById(item.getId())).thenReturn(Optional.empty());
+        when(bookingRepository.findParticipants(item.getId(), user.getId())).thenReturn(Optional.empty());
+        when(userRepository.existsById(user.getId())).thenReturn(true);
 
-        assertThrows(ObjectNotFoundException.class, () -> bookingService.addBooking(booking));
+        assertEquals("нет вещи с таким id",
+                assertThrows(ObjectNotFoundException.class, () -> bookingService.addBooking(booking)).getMessage());
     }
 
     @Test
@@ -121,8 +323,7 @@ public class BookingServiceImplTest {
         item.setOwnerId(1L);
         booking.setItem(item);
 
-        when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
-        when(itemRepository.findById(item.getId())).thenReturn(Optional.of(item));
+        when(bookingRepository.findParticipants(item.getId(), user.getId())).thenReturn(Optional.of(participants(item, user)));
 
         String message =
                 assertThrows(ObjectNotFoundException.class,
@@ -141,8 +342,7 @@ public class BookingServiceImplTest {
         item.setIsAvailable(false);
         booking.setItem(item);
 
-        when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
-        when(itemRepository.findById(item.getId())).thenReturn(Optional.of(item));
+        when(bookingRepository.findParticipants(item.getId(), user.getId())).thenReturn(Optional.of(participants(item, user)));
 
         assertThrows(ItemUnavailableException.class, () -> bookingService.addBooking(booking));
     }
@@ -160,8 +360,7 @@ public class BookingServiceImplTest {
         booking.setStart(LocalDateTime.now().minusDays(2));
         booking.setEnd(LocalDateTime.now().minusDays(3));
 
-        when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
-        when(itemRepository.findById(item.getId())).thenReturn(Optional.of(item));
+        when(bookingRepository.findParticipants(item.getId(), user.getId())).thenReturn(Optional.of(participants(item, user)));
 
         assertThrows(BookingValidationException.class, () -> bookingService.addBooking(booking));
     }
@@ -171,16 +370,72 @@ public class BookingServiceImplTest {
         Booking booking = new Booking();
         Item item = testItem(3L, 1L);
         booking.setItem(item);
-        booking.setStatus(Status.WAITING);
-        when(bookingRepository.findById(anyLong())).thenReturn(Optional.of(booking));
+        booking.setStatus(Status.APPROVED);
+        when(bookingRepository.updateStatus(1L, 1L, Status.WAITING, Status.APPROVED)).thenReturn(1);
+        when(bookingRepository.findByIdWithParticipants(1L)).thenReturn(Optional.of(booking));
 
         Booking result = bookingService.approveStatus(1L, 1L, true);
 
-        verify(bookingRepository).findById(1L);
-        ArgumentCaptor<Booking> captor = ArgumentCaptor.forClass(Booking.class);
-        verify(bookingRepository).save(captor.capture());
-        Booking savedBooking = captor.getValue();
-        assertEquals(Status.APPROVED, savedBooking.getStatus());
+        assertEquals(booking, result);
+        verify(bookingRepository, never()).save(any());
+        verify(bookingRepository, never()).findById(anyLong());
+        verify(bookingIntervalIndex).update(booking);
+        verify(itemBookingRefresher).onApproved(List.of(booking));
+    }
+
+    @Test
+    public void testApproveStatus_ShouldReapproveRejectedBooking_WhenItemFree() {
+        Booking booking = new Booking();
+        booking.setId(1L);
+        booking.setItem(testItem(3L, 1L));
+        booking.setStatus(Status.REJECTED);
+        booking.setStart(LocalDateTime.now().plusHours(1));
+        booking.setEnd(LocalDateTime.now().plusHours(2));
+        when(bookingRepository.findByIdWithParticipants(1L)).thenReturn(Optional.of(booking));
+        when(bookingIntervalIndex.isFree(3L, booking.getStart(), booking.getEnd())).thenReturn(true);
+        when(bookingRepository.updateStatus(1L, 1L, Status.WAITING, Status.APPROVED)).thenReturn(0);
+        when(bookingRepository.updateStatus(1L, 1L, Status.REJECTED, Status.APPROVED)).thenReturn(1);
+
+        Booking result = bookingService.approveStatus(1L, 1L, true);
+
+        assertEquals(Status.APPROVED, result.getStatus());
+        verify(bookingIntervalIndex).update(booking);
+    }
+
+    @Test
+    public void testApproveStatuses_ShouldReturnResultPerId_WhenBatchMixed() {
+        Booking waiting = new Booking();
+        waiting.setId(1L);
+        waiting.setItem(testItem(3L, 1L));
+        waiting.setStatus(Status.WAITING);
+        Booking raced = new Booking();
+        raced.setId(2L);
+        raced.setItem(testItem(3L, 1L));
+        raced.setStatus(Status.WAITING);
+        Booking foreign = new Booking();
+        foreign.setId(4L);
+        foreign.setItem(testItem(5L, 7L));
+        foreign.setStatus(Status.WAITING);
+        Booking approved = new Booking();
+        approved.setId(6L);
+        approved.setItem(testItem(3L, 1L));
+        approved.setStatus(Status.APPROVED);
+        List<Long> bookingIds = List.of(1L, 2L, 3L, 4L, 6L, 1L);
+        when(bookingRepository.findAllByIdInWithItem(bookingIds)).thenReturn(List.of(waiting, raced, foreign, approved));
+        when(bookingRepository.updateStatuses(List.of(1L, 2L), Status.WAITING, Status.REJECTED))
+                .thenReturn(new int[]{1, 0});
+
+        List<BookingBatchResultDto> results = bookingService.approveStatuses(1L, bookingIds, false);
+
+        assertEquals(List.of(
+                BookingBatchResultDto.builder().bookingId(1L).status(Status.REJECTED).build(),
+                BookingBatchResultDto.builder().bookingId(2L).error("Статус бронирования изменился, повторите запрос").build(),
+                BookingBatchResultDto.builder().bookingId(3L).error("Нет бронирования с таким id").build(),
+                BookingBatchResultDto.builder().bookingId(4L)
+                        .error("Подтвердить бронирование может только владелец вещи").build(),
+                BookingBatchResultDto.builder().bookingId(6L).error("Бронирование уже подтверждено").build()), results);
+        verify(bookingIntervalIndex).update(waiting);
+        verify(bookingIntervalIndex, never()).update(raced);
     }
 
     @Test
@@ -193,7 +448,7 @@ public class BookingServiceImplTest {
         booking.setId(bookingId);
         booking.setStatus(Status.APPROVED);
 
-        when(bookingRepository.findById(bookingId)).thenReturn(Optional.of(booking));
+        when(bookingRepository.findByIdWithParticipants(bookingId)).thenReturn(Optional.of(booking));
 
         assertThrows(BookingValidationException.class, () -> bookingService.approveStatus(userId, bookingId, true));
     }
@@ -213,7 +468,7 @@ public class BookingServiceImplTest {
         owner.setId(3L);
         item.setOwnerId(owner.getId());
         booking.setItem(item);
-        when(bookingRepository.findById(bookingId)).thenReturn(Optional.of(booking));
+        when(bookingRepository.findByIdWithParticipants(bookingId)).thenReturn(Optional.of(booking));
 
         assertThrows(ObjectNotFoundException.class, () -> bookingService.approveStatus(userId, bookingId, true));
     }
@@ -223,7 +478,7 @@ public class BookingServiceImplTest {
         long userId = 1L;
         long bookingId = 2L;
 
-        when(bookingRepository.findById(bookingId)).thenReturn(Optional.empty());
+        when(bookingRepository.findByIdWithParticipants(bookingId)).thenReturn(Optional.empty());
 
         String message =
                 assertThrows(ObjectNotFoundException.class,
@@ -262,125 +517,47 @@ public class BookingServiceImplTest {
     @Test
     public void testGetBookingsByUserIdSorted_ShouldThrowException_InvalidUser() {
         long userId = -1; // Некорректное значение
-        State state = State.ALL;
+        BookingFilterDto filter = new BookingFilterDto();
         int from = 0;
         int size = 10;
         when(userRepository.findById(userId)).thenReturn(Optional.empty());
 
-        assertThrows(ObjectNotFoundException.class, () -> bookingService.getBookingsByUserIdSorted(userId, state, from, size));
-        verify(userRepository).findById(userId);
-    }
-
-    @Test
-    public void testGetBookingsByUserIdSorted_ShouldReturnBookings_All() {
-        long userId = 1L;
-        List<Booking> expectedBookings = Collections.singletonList(new Booking());
-        when(userRepository.findById(userId)).thenReturn(Optional.of(new User()));
-        when(bookingRepository.findAllByBookerIdIsOrderByStartDesc(eq(userId), any(OffsetLimitPageable.class)))
-                .thenReturn(expectedBookings);
-
-        List<Booking> result = bookingService.getBookingsByUserIdSorted(userId, State.ALL, 0, 10);
-
-        verify(userRepository).findById(userId);
-        verify(bookingRepository).findAllByBookerIdIsOrderByStartDesc(eq(userId), any(OffsetLimitPageable.class));
-        assertEquals(expectedBookings, result);
-    }
-
-    @Test
-    public void testGetBookingsByUserIdSorted_ShouldReturnBookings_Current() {
-        long userId = 1L;
-        List<Booking> expectedBookings = Collections.singletonList(new Booking());
-        when(userRepository.findById(userId)).thenReturn(Optional.of(new User()));
-        when(bookingRepository.findAllByBookerIdIsAndStartIsBeforeAndEndIsAfterOrderByStartDesc(
-                eq(userId), any(LocalDateTime.class), any(LocalDateTime.class), any(OffsetLimitPageable.class)))
-                .thenReturn(expectedBookings);
-
-        List<Booking> result = bookingService.getBookingsByUserIdSorted(userId, State.CURRENT, 0, 10);
-
-        verify(userRepository).findById(userId);
-        verify(bookingRepository).findAllByBookerIdIsAndStartIsBeforeAndEndIsAfterOrderByStartDesc(
-                eq(userId), any(LocalDateTime.class), any(LocalDateTime.class), any(OffsetLimitPageable.class));
-        assertEquals(expectedBookings, result);
-    }
-
-    @Test
-    public void testGetBookingsByUserIdSorted_ShouldReturnBookings_Past() {
-        long userId = 1L;
-        List<Booking> expectedBookings = Collections.singletonList(new Booking());
-        when(userRepository.findById(userId)).thenReturn(Optional.of(new User()));
-        when(bookingRepository.findAllByBookerIdIsAndEndIsBeforeOrderByStartDesc(
-                eq(userId), any(LocalDateTime.class), any(OffsetLimitPageable.class)))
-                .thenReturn(expectedBookings);
-
-        List<Booking> result = bookingService.getBookingsByUserIdSorted(userId, State.PAST, 0, 10);
-
-        verify(userRepository).findById(userId);
-        verify(bookingRepository).findAllByBookerIdIsAndEndIsBeforeOrderByStartDesc(
-                eq(userId), any(LocalDateTime.class), any(OffsetLimitPageable.class));
-        assertEquals(expectedBookings, result);
-    }
-
-    @Test
-    public void testGetBookingsByUserIdSorted_ShouldReturnBookings_Future() {
-        long userId = 1L;
-        List<Booking> expectedBookings = Collections.singletonList(new Booking());
-        when(userRepository.findById(userId)).thenReturn(Optional.of(new User()));
-        when(bookingRepository.findAllByBookerIdIsAndStartIsAfterOrderByStartDesc(
-                eq(userId), any(LocalDateTime.class), any(OffsetLimitPageable.class)))
-                .thenReturn(expectedBookings);
-
-        List<Booking> result = bookingService.getBookingsByUserIdSorted(userId, State.FUTURE, 0, 10);
-
+        assertThrows(ObjectNotFoundException.class,
+                () -> bookingService.getBookingsByUserIdSorted(userId, filter, from, size));
         verify(userRepository).findById(userId);
-        verify(bookingRepository).findAllByBookerIdIsAndStartIsAfterOrderByStartDesc(
-                eq(userId), any(LocalDateTime.class), any(OffsetLimitPageable.class));
-        assertEquals(expectedBookings, result);
+        verify(bookingRepository, never()).findViewsMatching(any(), any());
     }
 
     @Test
-    public void testGetBookingsByUserIdSorted_ShouldReturnBookings_Waiting() {
+    public void testGetBookingsByUserIdSorted_ShouldReturnBookings() {
         long userId = 1L;
-        List<Booking> expectedBookings = Collections.singletonList(new Booking());
+        List<BookingView> expectedBookings = Collections.singletonList(new BookingView(1L, LocalDateTime.now(),
+                LocalDateTime.now().plusHours(1), 2L, "item", 3L, "booker", Status.WAITING));
         when(userRepository.findById(userId)).thenReturn(Optional.of(new User()));
-        when(bookingRepository.findAllByBookerIdIsAndAndStatusIsOrderByStartDesc(
-                eq(userId), eq(Status.WAITING), any(OffsetLimitPageable.class)))
-                .thenReturn(expectedBookings);
+        when(bookingRepository.findViewsMatching(any(), any())).thenReturn(expectedBookings);
+        ArgumentCaptor<Pageable> pageable = ArgumentCaptor.forClass(Pageable.class);
 
-        List<Booking> result = bookingService.getBookingsByUserIdSorted(userId, State.WAITING, 0, 10);
+        List<BookingView> result = bookingService.getBookingsByUserIdSorted(userId,
+                BookingFilterDto.builder().state(State.FUTURE).status(Status.WAITING).build(), 20, 10);
 
         verify(userRepository).findById(userId);
-        verify(bookingRepository).findAllByBookerIdIsAndAndStatusIsOrderByStartDesc(
-                eq(userId), eq(Status.WAITING), any(OffsetLimitPageable.class));
-        assertEquals(expectedBookings, result);
-    }
-
-    @Test
-    public void testGetBookingsByUserIdSorted_ShouldReturnBookings_Rejected() {
-        long userId = 1L;
-        List<Booking> expectedBookings = Collections.singletonList(new Booking());
-        when(userRepository.findById(userId)).thenReturn(Optional.of(new User()));
-        when(bookingRepository.findAllByBookerIdIsAndAndStatusIsOrderByStartDesc(
-                eq(userId), eq(Status.REJECTED), any(OffsetLimitPageable.class)))
-                .thenReturn(expectedBookings);
-
-        List<Booking> result = bookingService.getBookingsByUserIdSorted(userId, State.REJECTED, 0, 10);
-
-        verify(userRepository).findById(userId);
-        verify(bookingRepository).findAllByBookerIdIsAndAndStatusIsOrderByStartDesc(
-                eq(userId), eq(Status.REJECTED), any(OffsetLimitPageable.class));
+        verify(bookingRepository).findViewsMatching(any(), pageable.capture());
         assertEquals(expectedBookings, result);
+        assertEquals(20, pageable.getValue().getOffset());
+        assertEquals(10, pageable.getValue().getPageSize());
+        assertEquals(Sort.by(Sort.Direction.DESC, "start", "id"), pageable.getValue().getSort());
     }
 
     @Test
     public void testGetBookingsByItems_InvalidUser() {
         long userId = 10L;
-        State state = State.ALL;
+        BookingFilterDto filter = new BookingFilterDto();
         int from = 0;
         int size = 10;
         when(userRepository.findById(userId)).thenReturn(Optional.empty());
 
         assertThrows(ObjectNotFoundException.class,
-                () -> bookingService.getBookingsByItems(userId, state, from, size));
+                () -> bookingService.getBookingsByItems(userId, filter, from, size));
         verify(userRepository).findById(userId);
     }
 
@@ -389,121 +566,42 @@ public class BookingServiceImplTest {
         long userId = 1L;
         User user = new User();
         user.setId(userId);
-        State state = State.ALL;
+        BookingFilterDto filter = new BookingFilterDto();
         int from = 0;
         int size = 10;
         when(userRepository.findById(userId)).thenReturn(Optional.of(user));
         when(itemRepository.findAllByOwnerIdIs(userId)).thenReturn(Collections.emptyList());
 
         assertThrows(ObjectNotFoundException.class,
-                () -> bookingService.getBookingsByItems(userId, state, from, size));
-        verify(itemRepository).findAllByOwnerIdIs(userId);
-    }
-
-    @Test
-    public void testGetBookingsByItems_ShouldReturnBookings_All() {
-        long userId = 1L;
-        List<Booking> expectedBookings = Collections.singletonList(new Booking());
-        when(userRepository.findById(userId)).thenReturn(Optional.of(new User()));
-        when(itemRepository.findAllByOwnerIdIs(userId)).thenReturn(Collections.singletonList(new Item()));
-        when(bookingRepository.findAllByOwner(eq(userId), any(OffsetLimitPageable.class)))
-                .thenReturn(expectedBookings);
-
-        List<Booking> result = bookingService.getBookingsByItems(userId, State.ALL, 0, 10);
-
-        verify(userRepository).findById(userId);
+                () -> bookingService.getBookingsByItems(userId, filter, from, size));
         verify(itemRepository).findAllByOwnerIdIs(userId);
-        verify(bookingRepository).findAllByOwner(eq(userId), any(OffsetLimitPageable.class));
-        assertEquals(expectedBookings, result);
-    }
-
-    @Test
-    public void testGetBookingsByItems_ShouldReturnBookings_Current() {
-        long userId = 1L;
-        List<Booking> expectedBookings = Collections.singletonList(new Booking());
-        when(userRepository.findById(userId)).thenReturn(Optional.of(new User()));
-        when(itemRepository.findAllByOwnerIdIs(userId)).thenReturn(Collections.singletonList(new Item()));
-        when(bookingRepository.findAllByOwnerCurrent(
-                eq(userId), any(LocalDateTime.class), any(LocalDateTime.class), any(OffsetLimitPageable.class)))
-                .thenReturn(expectedBookings);
-
-        List<Booking> result = bookingService.getBookingsByItems(userId, State.CURRENT, 0, 10);
-
-        verify(userRepository).findById(userId);
-        verify(itemRepository).findAllByOwnerIdIs(userId);
-        verify(bookingRepository).findAllByOwnerCurrent(
-                eq(userId), any(LocalDateTime.class), any(LocalDateTime.class), any(OffsetLimitPageable.class));
-        assertEquals(expectedBookings, result);
-    }
-
-    @Test
-    public void testGetBookingsByItems_ShouldReturnBookings_Past() {
-        long userId = 1L;
-        List<Booking> expectedBookings = Collections.singletonList(new Booking());
-        when(userRepository.findById(userId)).thenReturn(Optional.of(new User()));
-        when(itemRepository.findAllByOwnerIdIs(userId)).thenReturn(Collections.singletonList(new Item()));
-        when(bookingRepository.findAllByOwnerPast(
-                eq(userId), any(LocalDateTime.class), any(OffsetLimitPageable.class)))
-                .thenReturn(expectedBookings);
-
-        List<Booking> result = bookingService.getBookingsByItems(userId, State.PAST, 0, 10);
-
-        verify(userRepository).findById(userId);
-        verify(itemRepository).findAllByOwnerIdIs(userId);
-        verify(bookingRepository).findAllByOwnerPast(
-                eq(userId), any(LocalDateTime.class), any(OffsetLimitPageable.class));
-        assertEquals(expectedBookings, result);
-    }
-
-    @Test
-    public void testGetBookingsByItems_ShouldReturnBookings_Future() {
-        long userId = 1L;
-        List<Booking> expectedBookings = Collections.singletonList(new Booking());
-        when(userRepository.findById(userId)).thenReturn(Optional.of(new User()));
-        when(itemRepository.findAllByOwnerIdIs(userId)).thenReturn(Collections.singletonList(new Item()));
-        when(bookingRepository.findAllByOwnerFuture(eq(userId), any(LocalDateTime.class), any(OffsetLimitPageable.class)))
-                .thenReturn(expectedBookings);
-
-        List<Booking> result = bookingService.getBookingsByItems(userId, State.FUTURE, 0, 10);
-
-        verify(userRepository).findById(userId);
-        verify(itemRepository).findAllByOwnerIdIs(userId);
-        verify(bookingRepository).findAllByOwnerFuture(eq(userId), any(LocalDateTime.class), any(OffsetLimitPageable.class));
-        assertEquals(expectedBookings, result);
-    }
-
-    @Test
-    public void testGetBookingsByItems_ShouldReturnBookings_Waiting() {
-        long userId = 1L;
-        List<Booking> expectedBookings = Collections.singletonList(new Booking());
-        when(userRepository.findById(userId)).thenReturn(Optional.of(new User()));
-        when(itemRepository.findAllByOwnerIdIs(userId)).thenReturn(Collections.singletonList(new Item()));
-        when(bookingRepository.findAllByOwnerStatusIs(eq(userId), eq(Status.WAITING), any(OffsetLimitPageable.class)))
-                .thenReturn(expectedBookings);
-
-        List<Booking> result = bookingService.getBookingsByItems(userId, State.WAITING, 0, 10);
-
-        verify(userRepository).findById(userId);
-        verify(itemRepository).findAllByOwnerIdIs(userId);
-        verify(bookingRepository).findAllByOwnerStatusIs(eq(userId), eq(Status.WAITING), any(OffsetLimitPageable.class));
-        assertEquals(expectedBookings, result);
+        verify(bookingRepository, never()).findViewsMatching(any(), any());
     }
 
     @Test
-    public void testGetBookingsByItems_ShouldReturnBookings_Rejected() {
+    public void testGetBookingsByItems_ShouldReturnBookings() {
         long userId = 1L;
-        List<Booking> expectedBookings = Collections.singletonList(new Booking());
+        List<BookingView> expectedBookings = Collections.singletonList(new BookingView(1L, LocalDateTime.now(),
+                LocalDateTime.now().plusHours(1), 2L, "item", 3L, "booker", Status.WAITING));
         when(userRepository.findById(userId)).thenReturn(Optional.of(new User()));
         when(itemRepository.findAllByOwnerIdIs(userId)).thenReturn(Collections.singletonList(new Item()));
-        when(bookingRepository.findAllByOwnerStatusIs(eq(userId), eq(Status.REJECTED), any(OffsetLimitPageable.class)))
-                .thenReturn(expectedBookings);
+        when(bookingRepository.findViewsMatching(any(), any())).thenReturn(expectedBookings);
+        ArgumentCaptor<Pageable> pageable = ArgumentCaptor.forClass(Pageable.class);
+        BookingFilterDto filter = BookingFilterDto.builder()
+                .state(State.CURRENT)
+                .itemId(2L)
+                .start(LocalDateTime.now().minusDays(1))
+                .end(LocalDateTime.now().plusDays(1))
+                .build();
 
-        List<Booking> result = bookingService.getBookingsByItems(userId, State.REJECTED, 0, 10);
+        List<BookingView> result = bookingService.getBookingsByItems(userId, filter, 0, 10);
 
         verify(userRepository).findById(userId);
         verify(itemRepository).findAllByOwnerIdIs(userId);
-        verify(bookingRepository).findAllByOwnerStatusIs(eq(userId), eq(Status.REJECTED), any(OffsetLimitPageable.class));
+        verify(bookingRepository).findViewsMatching(any(), pageable.capture());
         assertEquals(expectedBookings, result);
+        assertEquals(0, pageable.getValue().getOffset());
+        assertEquals(Sort.by(Sort.Direction.DESC, "start", "id"), pageable.getValue().getSort());
     }
 
     @Test
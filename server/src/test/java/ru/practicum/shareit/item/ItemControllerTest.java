@@ -10,6 +10,9 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
+import ru.practicum.shareit.booking.Status;
+import ru.practicum.shareit.booking.interval.BookingInterval;
+import ru.practicum.shareit.exceptions.ObjectNotFoundException;
 import ru.practicum.shareit.item.dto.*;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
@@ -27,6 +30,7 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -205,6 +209,215 @@ public class ItemControllerTest {
         verifyNoMoreInteractions(itemService);
     }
 
+    @Test
+    public void fuzzySearchItemTest() throws Exception {
+        Item mockedItem = Item.builder()
+                .id(1L)
+                .name("Велосипед")
+                .description("Горный велосипед")
+                .isAvailable(true)
+                .build();
+        when(userRepository.findById(1L)).thenReturn(Optional.of(new User()));
+        when(itemService.fuzzySearchItem("велосепед", 0, 5)).thenReturn(List.of(mockedItem));
+
+        mockMvc.perform(get("/items/search")
+                        .header("X-Sharer-User-Id", 1L)
+                        .param("text", "велосепед")
+                        .param("from", "0")
+                        .param("size", "5")
+                        .param("fuzzy", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].id").value(1L))
+                .andExpect(jsonPath("$[0].name").value("Велосипед"));
+        verify(itemService, times(1)).fuzzySearchItem("велосепед", 0, 5);
+        verifyNoMoreInteractions(itemService);
+    }
+
+    @Test
+    public void fuzzySearchItemWithCommentsTest() throws Exception {
+        when(userRepository.findById(1L)).thenReturn(Optional.of(new User()));
+
+        mockMvc.perform(get("/items/search")
+                        .header("X-Sharer-User-Id", 1L)
+                        .param("text", "велосепед")
+                        .param("fuzzy", "true")
+                        .param("comments", "true"))
+                .andExpect(status().isBadRequest());
+        verifyNoInteractions(itemService);
+    }
+
+    @Test
+    public void searchItemWithCommentsTest() throws Exception {
+        Item mockedItem = Item.builder()
+                .id(1L)
+                .name("Шуруповерт")
+                .description("Мощный")
+                .isAvailable(true)
+                .build();
+        when(userRepository.findById(1L)).thenReturn(Optional.of(new User()));
+        when(itemService.searchItemWithComments("дрель", 0, 5)).thenReturn(List.of(mockedItem));
+
+        mockMvc.perform(get("/items/search")
+                        .header("X-Sharer-User-Id", 1L)
+                        .param("text", "дрель")
+                        .param("from", "0")
+                        .param("size", "5")
+                        .param("comments", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].id").value(1L))
+                .andExpect(jsonPath("$[0].name").value("Шуруповерт"));
+        verify(itemService, times(1)).searchItemWithComments("дрель", 0, 5);
+        verifyNoMoreInteractions(itemService);
+    }
+
+    @Test
+    public void filterItemsTest() throws Exception {
+        LocalDateTime start = LocalDateTime.of(2030, 1, 1, 10, 0);
+        LocalDateTime end = LocalDateTime.of(2030, 1, 3, 10, 0);
+        ItemSearchFilterDto filter = ItemSearchFilterDto.builder()
+                .text("дрель")
+                .ownerId(2L)
+                .start(start)
+                .end(end)
+                .build();
+        ItemSearchResultDto result = ItemSearchResultDto.builder()
+                .items(List.of(ItemDto.builder().id(1L).name("Дрель").available(true).build()))
+                .total(3)
+                .free(1)
+                .booked(2)
+                .build();
+        when(userRepository.findById(1L)).thenReturn(Optional.of(new User()));
+        when(itemService.filterItems(filter, 0, 10)).thenReturn(result);
+
+        mockMvc.perform(get("/items/filter")
+                        .header("X-Sharer-User-Id", 1L)
+                        .param("text", "дрель")
+                        .param("ownerId", "2")
+                        .param("start", "2030-01-01T10:00:00")
+                        .param("end", "2030-01-03T10:00:00"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(1)))
+                .andExpect(jsonPath("$.items[0].id").value(1L))
+                .andExpect(jsonPath("$.total").value(3))
+                .andExpect(jsonPath("$.free").value(1))
+                .andExpect(jsonPath("$.booked").value(2));
+        verify(itemService, times(1)).filterItems(filter, 0, 10);
+    }
+
+    @Test
+    public void findAvailableItemsTest() throws Exception {
+        LocalDateTime start = LocalDateTime.of(2030, 1, 1, 10, 0);
+        LocalDateTime end = LocalDateTime.of(2030, 1, 3, 10, 0);
+        Item item = new Item();
+        item.setId(1L);
+        item.setName("Дрель");
+        item.setIsAvailable(true);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(new User()));
+        when(itemService.findAvailableItems("дрель", start, end, 0, 10)).thenReturn(List.of(item));
+
+        mockMvc.perform(get("/items/available")
+                        .header("X-Sharer-User-Id", 1L)
+                        .param("text", "дрель")
+                        .param("start", "2030-01-01T10:00:00")
+                        .param("end", "2030-01-03T10:00:00"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].id").value(1L))
+                .andExpect(jsonPath("$[0].name").value("Дрель"));
+        verify(itemService).findAvailableItems("дрель", start, end, 0, 10);
+    }
+
+    @Test
+    public void getItemCalendarTest() throws Exception {
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2030, 2, 1, 0, 0);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(new User()));
+        when(itemService.getItemCalendarVersion(2L)).thenReturn(7L);
+        when(itemService.getItemCalendar(2L, from, to)).thenReturn(List.of(
+                new BookingInterval(3L, from.plusDays(1), from.plusDays(2), Status.APPROVED)));
+
+        mockMvc.perform(get("/items/2/calendar")
+                        .header("X-Sharer-User-Id", 1L)
+                        .param("from", "2030-01-01T00:00:00")
+                        .param("to", "2030-02-01T00:00:00"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"2-7@2030-01-01T00:00/2030-02-01T00:00\""))
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].start").value("2030-01-02T00:00:00"))
+                .andExpect(jsonPath("$[0].status").value("APPROVED"));
+    }
+
+    @Test
+    public void getItemCalendarNotModifiedTest() throws Exception {
+        when(userRepository.findById(1L)).thenReturn(Optional.of(new User()));
+        when(itemService.getItemCalendarVersion(2L)).thenReturn(7L);
+
+        mockMvc.perform(get("/items/2/calendar")
+                        .header("X-Sharer-User-Id", 1L)
+                        .header("If-None-Match", "\"2-7@2030-01-01T00:00/\"")
+                        .param("from", "2030-01-01T00:00:00"))
+                .andExpect(status().isNotModified());
+        verify(itemService, never()).getItemCalendar(anyLong(), any(), any());
+    }
+
+    @Test
+    public void getItemCalendarWithoutFromTest() throws Exception {
+        when(userRepository.findById(1L)).thenReturn(Optional.of(new User()));
+        when(itemService.getItemCalendar(eq(2L), any(), eq(LocalDateTime.MAX))).thenReturn(List.of());
+
+        mockMvc.perform(get("/items/2/calendar")
+                        .header("X-Sharer-User-Id", 1L)
+                        .header("If-None-Match", "\"2-7@2030-01-01T00:00/\""))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("ETag"))
+                .andExpect(jsonPath("$", hasSize(0)));
+        verify(itemService, never()).getItemCalendarVersion(anyLong());
+    }
+
+    @Test
+    public void getItemCalendarWithoutFromNotFoundTest() throws Exception {
+        when(userRepository.findById(1L)).thenReturn(Optional.of(new User()));
+        when(itemService.getItemCalendar(eq(99L), any(), eq(LocalDateTime.MAX)))
+                .thenThrow(new ObjectNotFoundException("Нет вещи с таким id"));
+
+        mockMvc.perform(get("/items/99/calendar")
+                        .header("X-Sharer-User-Id", 1L))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    public void getItemCalendarOtherWindowTest() throws Exception {
+        LocalDateTime from = LocalDateTime.of(2030, 1, 2, 0, 0);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(new User()));
+        when(itemService.getItemCalendarVersion(2L)).thenReturn(7L);
+        when(itemService.getItemCalendar(2L, from, LocalDateTime.MAX)).thenReturn(List.of());
+
+        mockMvc.perform(get("/items/2/calendar")
+                        .header("X-Sharer-User-Id", 1L)
+                        .header("If-None-Match", "\"2-7@2030-01-01T00:00/\"")
+                        .param("from", "2030-01-02T00:00:00"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"2-7@2030-01-02T00:00/\""));
+    }
+
+    @Test
+    public void suggestItemNamesTest() throws Exception {
+        when(itemService.suggestItemNames("вел", 5)).thenReturn(List.of("Велосипед", "Велотренажер"));
+
+        mockMvc.perform(get("/items/suggest")
+                        .header("X-Sharer-User-Id", 1L)
+                        .param("prefix", "вел")
+                        .param("size", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0]").value("Велосипед"))
+                .andExpect(jsonPath("$[1]").value("Велотренажер"));
+        verify(itemService).suggestItemNames("вел", 5);
+        verifyNoInteractions(userRepository);
+    }
+
     @Test
     public void addCommentTest() throws Exception {
         long userId = 1L;
@@ -0,0 +1,74 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.item.dto.ItemSearchIndexReportDto;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+
+import java.util.List;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "shareit.search.admin-user-ids=1")
+@AutoConfigureMockMvc
+public class ItemSearchIndexControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private ItemSearchIndex itemSearchIndex;
+
+    @Test
+    public void rebuildTest() throws Exception {
+        when(itemSearchIndex.rebuild()).thenReturn(ItemSearchIndexReportDto.builder()
+                .indexedItems(3)
+                .storedItems(3)
+                .consistent(true)
+                .build());
+
+        mockMvc.perform(post("/items/search/index/rebuild")
+                        .header("X-Sharer-User-Id", 1))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.indexedItems").value(3))
+                .andExpect(jsonPath("$.consistent").value(true));
+        verify(itemSearchIndex).rebuild();
+    }
+
+    @Test
+    public void checkTest() throws Exception {
+        when(itemSearchIndex.check()).thenReturn(ItemSearchIndexReportDto.builder()
+                .indexedItems(2)
+                .storedItems(3)
+                .missingItemIds(List.of(3L))
+                .consistent(false)
+                .build());
+
+        mockMvc.perform(get("/items/search/index/check")
+                        .header("X-Sharer-User-Id", 1))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.storedItems").value(3))
+                .andExpect(jsonPath("$.missingItemIds", hasSize(1)))
+                .andExpect(jsonPath("$.consistent").value(false));
+        verify(itemSearchIndex).check();
+    }
+
+    @Test
+    public void rebuildTest_ShouldForbid_WhenUserIsNotAdmin() throws Exception {
+        mockMvc.perform(post("/items/search/index/rebuild")
+                        .header("X-Sharer-User-Id", 2))
+                .andExpect(status().isForbidden());
+        verify(itemSearchIndex, never()).rebuild();
+    }
+}
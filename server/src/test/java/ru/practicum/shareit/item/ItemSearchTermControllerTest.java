@@ -0,0 +1,54 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.item.dto.HotSearchTermDto;
+import ru.practicum.shareit.item.search.ItemSearchTermSketch;
+
+import java.util.List;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "shareit.search.admin-user-ids=1")
+@AutoConfigureMockMvc
+public class ItemSearchTermControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private ItemSearchTermSketch termSketch;
+
+    @Test
+    public void getHotTermsTest() throws Exception {
+        when(termSketch.top(2)).thenReturn(List.of(new HotSearchTermDto("дрель", 42),
+                new HotSearchTermDto("пила", 7)));
+
+        mockMvc.perform(get("/items/search/terms")
+                        .header("X-Sharer-User-Id", 1)
+                        .param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].term").value("дрель"))
+                .andExpect(jsonPath("$[0].hits").value(42));
+        verify(termSketch).top(2);
+    }
+
+    @Test
+    public void getHotTermsTest_ShouldForbid_WhenUserIsNotAdmin() throws Exception {
+        mockMvc.perform(get("/items/search/terms")
+                        .header("X-Sharer-User-Id", 2))
+                .andExpect(status().isForbidden());
+        verifyNoInteractions(termSketch);
+    }
+}
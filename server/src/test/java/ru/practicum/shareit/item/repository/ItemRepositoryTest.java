@@ -5,10 +5,13 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.pageable.OffsetLimitPageable;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -22,6 +25,9 @@ public class ItemRepositoryTest {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private CommentRepository commentRepository;
+
     @Test
     public void testFindAllByOwnerIdIs() {
         User user = new User();
@@ -73,6 +79,38 @@ public class ItemRepositoryTest {
         assertEquals(item2.getId(), items.get(1).getId());
     }
 
+    @Test
+    public void testFindAllByOwnerIdIsAndIdGreaterThanOrderByIdAsc() {
+        User user = new User();
+        user.setName("User1");
+        user.setEmail("user1@example.com");
+        userRepository.save(user);
+        Item item1 = new Item();
+        item1.setName("Item1");
+        item1.setDescription("Description1");
+        item1.setIsAvailable(true);
+        item1.setOwnerId(user.getId());
+        itemRepository.save(item1);
+        Item item2 = new Item();
+        item2.setName("Item2");
+        item2.setDescription("Description2");
+        item2.setIsAvailable(false);
+        item2.setOwnerId(user.getId());
+        itemRepository.save(item2);
+
+        List<Item> items = itemRepository.findAllByOwnerIdIsAndIdGreaterThanOrderByIdAsc(user.getId(),
+                item1.getId(), PageRequest.of(0, 10));
+        List<Item> found = itemRepository.findAllByNameOrDescriptionContainingIgnoreCaseAfter("item", 0,
+                PageRequest.of(0, 10));
+
+        assertEquals(1, items.size());
+        assertEquals(item2.getId(), items.get(0).getId());
+        assertEquals(1, found.size());
+        assertEquals(item1.getId(), found.get(0).getId());
+        assertEquals(0, itemRepository.findAllByNameOrDescriptionContainingIgnoreCaseAfter("item",
+                item1.getId(), PageRequest.of(0, 10)).size());
+    }
+
     @Test
     public void testFindAllByNameOrDescriptionContainingIgnoreCase() {
         User user = new User();
@@ -97,4 +135,110 @@ public class ItemRepositoryTest {
 
         assertEquals(2, items.size());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testFindAllByTrigramSearch_ShouldMatchLikeSearch() {
+        User user = new User();
+        user.setName("User1");
+        user.setEmail("user1@example.com");
+        userRepository.save(user);
+        Item drill = new Item();
+        drill.setName("Дрель");
+        drill.setDescription("Аккумуляторная");
+        drill.setIsAvailable(true);
+        drill.setOwnerId(user.getId());
+        itemRepository.save(drill);
+        Item screwdriver = new Item();
+        screwdriver.setName("Шуруповерт");
+        screwdriver.setDescription("Можно использовать как ДРЕЛЬ");
+        screwdriver.setIsAvailable(true);
+        screwdriver.setOwnerId(user.getId());
+        itemRepository.save(screwdriver);
+        Item unavailableDrill = new Item();
+        unavailableDrill.setName("Дрель ударная");
+        unavailableDrill.setDescription("Сломана");
+        unavailableDrill.setIsAvailable(false);
+        unavailableDrill.setOwnerId(user.getId());
+        itemRepository.save(unavailableDrill);
+        Pageable pageable = PageRequest.of(0, 10);
+
+        List<Item> items = itemRepository.findAllByTrigramSearch("дрел", pageable);
+
+        assertEquals(itemRepository.findAllByNameOrDescriptionContainingIgnoreCase("дрел", pageable), items);
+        assertEquals(List.of(drill, screwdriver), items);
+    }
+
+    @Test
+    public void testFindAllByTrigramSearchWithComments_ShouldMatchCommentsOnce() {
+        User user = new User();
+        user.setName("User1");
+        user.setEmail("user1@example.com");
+        userRepository.save(user);
+        Item drill = new Item();
+        drill.setName("Дрель");
+        drill.setDescription("Аккумуляторная");
+        drill.setIsAvailable(true);
+        drill.setOwnerId(user.getId());
+        itemRepository.save(drill);
+        Item screwdriver = new Item();
+        screwdriver.setName("Шуруповерт");
+        screwdriver.setDescription("Мощный");
+        screwdriver.setIsAvailable(true);
+        screwdriver.setOwnerId(user.getId());
+        itemRepository.save(screwdriver);
+        Item unavailableDrill = new Item();
+        unavailableDrill.setName("Перфоратор");
+        unavailableDrill.setDescription("Сломан");
+        unavailableDrill.setIsAvailable(false);
+        unavailableDrill.setOwnerId(user.getId());
+        itemRepository.save(unavailableDrill);
+        saveComment(drill, user, "Отличная дрель");
+        saveComment(screwdriver, user, "Сверлит как дрель");
+        saveComment(screwdriver, user, "Лучше любой дрели");
+        saveComment(unavailableDrill, user, "Дрель в ремонте");
+        Pageable pageable = PageRequest.of(0, 10);
+
+        List<Item> items = itemRepository.findAllByTrigramSearchWithComments("дрел", pageable);
+
+        assertEquals(itemRepository.findAllByTextOrCommentContainingIgnoreCase("дрел", pageable), items);
+        assertEquals(List.of(drill, screwdriver), items);
+        assertEquals(List.of(screwdriver),
+                itemRepository.findAllByTrigramSearchWithComments("дрел", new OffsetLimitPageable(1, 10)));
+        assertEquals(List.of(drill), itemRepository.findAllByTrigramSearch("дрел", pageable));
+    }
+
+    @Test
+    public void testFindAllAvailableNames() {
+        User user = new User();
+        user.setName("User1");
+        user.setEmail("user1@example.com");
+        userRepository.save(user);
+        Item item1 = new Item();
+        item1.setName("Item1");
+        item1.setDescription("Description1");
+        item1.setIsAvailable(true);
+        item1.setOwnerId(user.getId());
+        itemRepository.save(item1);
+        Item item2 = new Item();
+        item2.setName("Item2");
+        item2.setDescription("Description2");
+        item2.setIsAvailable(false);
+        item2.setOwnerId(user.getId());
+        itemRepository.save(item2);
+
+        List<AvailableItemName> names = itemRepository.findAllAvailableNames();
+
+        assertEquals(1, names.size());
+        assertEquals(item1.getId(), names.get(0).getId());
+        assertEquals("Item1", names.get(0).getName());
+    }
+
+    private void saveComment(Item item, User author, String text) {
+        Comment comment = new Comment();
+        comment.setItem(item);
+        comment.setAuthor(author);
+        comment.setText(text);
+        comment.setCreated(LocalDateTime.now());
+        commentRepository.save(comment);
+    }
+}
@@ -0,0 +1,161 @@
+package ru.practicum.shareit.item.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ItemFuzzyIndexTest {
+
+    @Mock
+    private ItemRepository itemRepository;
+    @Spy
+    private ItemSearchProperties searchProperties = new ItemSearchProperties();
+
+    @InjectMocks
+    private ItemFuzzyIndex itemFuzzyIndex;
+
+    private final List<Item> storedItems = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        searchProperties.setFuzzyEnabled(true);
+        storedItems.add(testItem(1L, "Дрель", "Аккумуляторная", true));
+        storedItems.add(testItem(2L, "Шуруповерт", "Можно использовать как дрель", true));
+        storedItems.add(testItem(3L, "Дрель ударная", "Сломана", false));
+        storedItems.add(testItem(4L, "Велосипед горный", null, true));
+        storedItems.add(testItem(5L, "Дрели", "Набор", true));
+    }
+
+    @Test
+    void testSearch_ShouldMatchWithTypo_WhenWithinDistance() {
+        when(itemRepository.findAll()).thenReturn(storedItems);
+        itemFuzzyIndex.rebuild();
+
+        assertEquals(List.of(1L, 2L), itemFuzzyIndex.search("дрнль", 0, 10));
+        assertEquals(List.of(4L), itemFuzzyIndex.search("Велосепет", 0, 10));
+    }
+
+    @Test
+    void testAfterSingletonsInstantiated_ShouldBuildDictionary_WhenFuzzyEnabled() {
+        when(itemRepository.findAll()).thenReturn(storedItems);
+
+        itemFuzzyIndex.afterSingletonsInstantiated();
+
+        assertEquals(List.of(4L), itemFuzzyIndex.search("Велосепет", 0, 10));
+    }
+
+    @Test
+    void testAfterSingletonsInstantiated_ShouldSkipBuild_WhenFuzzyDisabled() {
+        searchProperties.setFuzzyEnabled(false);
+
+        itemFuzzyIndex.afterSingletonsInstantiated();
+
+        verifyNoInteractions(itemRepository);
+    }
+
+    @Test
+    void testSearch_ShouldRankByDistance_WhenOk() {
+        when(itemRepository.findAll()).thenReturn(storedItems);
+        itemFuzzyIndex.rebuild();
+
+        assertEquals(List.of(5L, 1L, 2L), itemFuzzyIndex.search("дрели", 0, 10));
+    }
+
+    @Test
+    void testSearch_ShouldRequireEveryWord_WhenSeveralWords() {
+        when(itemRepository.findAll()).thenReturn(storedItems);
+        itemFuzzyIndex.rebuild();
+
+        assertEquals(List.of(4L), itemFuzzyIndex.search("велосипед горнй", 0, 10));
+        assertTrue(itemFuzzyIndex.search("велосипед ударный", 0, 10).isEmpty());
+    }
+
+    @Test
+    void testSearch_ShouldNotMatch_WhenTooManyTypos() {
+        when(itemRepository.findAll()).thenReturn(storedItems);
+        itemFuzzyIndex.rebuild();
+
+        assertTrue(itemFuzzyIndex.search("дрыыь", 0, 10).isEmpty());
+        assertTrue(itemFuzzyIndex.search("", 0, 10).isEmpty());
+    }
+
+    @Test
+    void testSearch_ShouldApplyFromAndSize_WhenOk() {
+        when(itemRepository.findAll()).thenReturn(storedItems);
+        itemFuzzyIndex.rebuild();
+
+        assertEquals(List.of(2L), itemFuzzyIndex.search("дрнль", 1, 1));
+        assertTrue(itemFuzzyIndex.search("дрнль", 2, 10).isEmpty());
+    }
+
+    @Test
+    void testIndex_ShouldReplaceTerms_WhenItemUpdated() {
+        when(itemRepository.findAll()).thenReturn(storedItems);
+        itemFuzzyIndex.rebuild();
+
+        itemFuzzyIndex.index(testItem(1L, "Перфоратор", "Аккумуляторный", true));
+        itemFuzzyIndex.index(testItem(3L, "Дрель ударная", "Починена", true));
+
+        assertEquals(List.of(1L), itemFuzzyIndex.search("перфаратор", 0, 10));
+        assertEquals(List.of(2L, 3L), itemFuzzyIndex.search("дрнль", 0, 10));
+    }
+
+    @Test
+    void testRebuild_ShouldKeepOldDictionaryAndWrites_WhenItemsChangeDuringScan() {
+        when(itemRepository.findAll()).thenReturn(storedItems);
+        itemFuzzyIndex.rebuild();
+        when(itemRepository.findAll()).thenAnswer(invocation -> {
+            List<Item> items = new ArrayList<>(storedItems);
+            assertEquals(List.of(1L, 2L), itemFuzzyIndex.search("дрнль", 0, 10));
+            itemFuzzyIndex.index(testItem(1L, "Перфоратор", "Аккумуляторный", true));
+            itemFuzzyIndex.index(testItem(6L, "Дрель угловая", null, true));
+            return items;
+        });
+
+        itemFuzzyIndex.rebuild();
+
+        assertEquals(List.of(1L), itemFuzzyIndex.search("перфаратор", 0, 10));
+        assertEquals(List.of(2L, 6L), itemFuzzyIndex.search("дрнль", 0, 10));
+    }
+
+    @Test
+    void testIndex_ShouldDoNothing_WhenFuzzyDisabled() {
+        searchProperties.setFuzzyEnabled(false);
+
+        itemFuzzyIndex.index(testItem(1L, "Перфоратор", "Аккумуляторный", true));
+
+        assertTrue(itemFuzzyIndex.search("перфоратор", 0, 10).isEmpty());
+    }
+
+    @Test
+    void testDistance_ShouldStopEarly_WhenLimitExceeded() {
+        assertEquals(0, ItemFuzzyIndex.distance("дрель", "дрель", 1));
+        assertEquals(1, ItemFuzzyIndex.distance("дрель", "дрели", 1));
+        assertEquals(2, ItemFuzzyIndex.distance("велосипед", "велосепет", 2));
+        assertEquals(2, ItemFuzzyIndex.distance("дрель", "шуруповерт", 1));
+    }
+
+    private static Item testItem(long id, String name, String description, boolean available) {
+        Item item = new Item();
+        item.setId(id);
+        item.setName(name);
+        item.setDescription(description);
+        item.setIsAvailable(available);
+        item.setOwnerId(100L);
+        return item;
+    }
+}
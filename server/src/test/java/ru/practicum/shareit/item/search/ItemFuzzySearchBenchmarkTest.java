@@ -0,0 +1,79 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Задержка поиска с опечатками на синтетическом каталоге.
+ * Запуск: mvn test -P benchmark
+ */
+@Slf4j
+@Tag("benchmark")
+public class ItemFuzzySearchBenchmarkTest {
+    private static final int ITEMS = 200_000;
+    private static final int ROUNDS = 500;
+    private static final long P99_BUDGET_MICROS = 20_000;
+    private static final String ALPHABET = "абвгдежзийклмнопрстуфхцчшщыэюя";
+    private static final String[] QUERIES = {"дрнль", "шуруповрт", "велосепед горный", "пелесос", "рюкзк", "мангл"};
+    private static final String[] WORDS = {"дрель", "шуруповерт", "перфоратор", "лобзик", "велосипед", "палатка",
+            "самокат", "гамак", "мангал", "лестница", "пылесос", "проектор", "удочка", "рюкзак", "коньки", "горный"};
+
+    @Test
+    void measureLatency() {
+        Random random = new Random(42);
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < ITEMS; i++) {
+            Item item = new Item();
+            item.setId((long) i + 1);
+            item.setName(WORDS[random.nextInt(WORDS.length)] + " " + randomWord(random));
+            item.setDescription(randomWord(random) + " " + WORDS[random.nextInt(WORDS.length)]);
+            item.setIsAvailable(random.nextInt(10) != 0);
+            items.add(item);
+        }
+        ItemRepository itemRepository = mock(ItemRepository.class);
+        when(itemRepository.findAll()).thenReturn(items);
+        ItemSearchProperties searchProperties = new ItemSearchProperties();
+        searchProperties.setFuzzyEnabled(true);
+        ItemFuzzyIndex itemFuzzyIndex = new ItemFuzzyIndex(itemRepository, searchProperties);
+        long buildStart = System.nanoTime();
+        itemFuzzyIndex.rebuild();
+        log.info("Словарь на {} вещей построен за {} мс", ITEMS, (System.nanoTime() - buildStart) / 1_000_000);
+
+        for (String query : QUERIES) {
+            assertFalse(itemFuzzyIndex.search(query, 0, 20).isEmpty(), query);
+            long[] micros = new long[ROUNDS];
+            for (int i = 0; i < ROUNDS; i++) {
+                long start = System.nanoTime();
+                itemFuzzyIndex.search(query, 0, 20);
+                micros[i] = (System.nanoTime() - start) / 1_000;
+            }
+            Arrays.sort(micros);
+            long p50 = micros[ROUNDS / 2];
+            long p99 = micros[ROUNDS * 99 / 100];
+            log.info("Запрос \"{}\": p50 {} мкс, p99 {} мкс", query, p50, p99);
+            assertTrue(p99 < P99_BUDGET_MICROS, query);
+        }
+    }
+
+    private static String randomWord(Random random) {
+        StringBuilder word = new StringBuilder();
+        int length = 4 + random.nextInt(6);
+        for (int i = 0; i < length; i++) {
+            word.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+        }
+        return word.toString();
+    }
+}
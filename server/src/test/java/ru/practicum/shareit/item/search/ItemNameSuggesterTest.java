@@ -0,0 +1,151 @@
+package ru.practicum.shareit.item.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.AvailableItemName;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ItemNameSuggesterTest {
+
+    @Mock
+    private ItemRepository itemRepository;
+
+    @InjectMocks
+    private ItemNameSuggester itemNameSuggester;
+
+    @BeforeEach
+    void setUp() {
+        when(itemRepository.findAllAvailableNames())
+                .thenReturn(availableNames("Дрель", "Дрель ударная", "Дрезина", "Диван", "Лобзик", "дрель"));
+        itemNameSuggester.rebuild();
+    }
+
+    @Test
+    void testSuggest_ShouldReturnNamesInAlphabeticalOrder_WhenPrefixMatches() {
+        assertEquals(List.of("Дрезина", "Дрель", "Дрель ударная"), itemNameSuggester.suggest("ДР", 10));
+    }
+
+    @Test
+    void testSuggest_ShouldShowSameSpelling_WhenNamesInsertedInAnyOrder() {
+        List<AvailableItemName> names = availableNames("дрель", "Дрель", "ДРЕЛЬ", "дрель");
+        Collections.reverse(names);
+        when(itemRepository.findAllAvailableNames()).thenReturn(names);
+        itemNameSuggester.rebuild();
+
+        assertEquals(List.of("дрель"), itemNameSuggester.suggest("дрель", 10));
+
+        itemNameSuggester.update(testItem(1L, "дрель", true), testItem(1L, "дрель", false));
+
+        assertEquals(List.of("ДРЕЛЬ"), itemNameSuggester.suggest("дрель", 10));
+    }
+
+    @Test
+    void testAfterSingletonsInstantiated_ShouldBuildTree_WhenOk() {
+        when(itemRepository.findAllAvailableNames()).thenReturn(availableNames("Пила"));
+
+        itemNameSuggester.afterSingletonsInstantiated();
+
+        assertEquals(List.of("Пила"), itemNameSuggester.suggest("пи", 10));
+    }
+
+    @Test
+    void testRebuild_ShouldKeepUpdates_WhenMadeDuringScan() {
+        when(itemRepository.findAllAvailableNames()).thenAnswer(invocation -> {
+            List<AvailableItemName> names = availableNames("Дрель", "Пила");
+            itemNameSuggester.update(null, testItem(3L, "Перфоратор", true));
+            itemNameSuggester.update(testItem(2L, "Пила", true), testItem(2L, "Пила", false));
+            return names;
+        });
+
+        itemNameSuggester.rebuild();
+
+        assertEquals(List.of("Перфоратор"), itemNameSuggester.suggest("п", 10));
+        assertEquals(List.of("Дрель"), itemNameSuggester.suggest("д", 10));
+    }
+
+    @Test
+    void testSuggest_ShouldLimitResult_WhenSizeSmaller() {
+        assertEquals(List.of("Диван", "Дрезина"), itemNameSuggester.suggest("д", 2));
+    }
+
+    @Test
+    void testSuggest_ShouldReturnEmptyList_WhenNothingMatchesOrPrefixBlank() {
+        assertTrue(itemNameSuggester.suggest("пила", 10).isEmpty());
+        assertTrue(itemNameSuggester.suggest(" ", 10).isEmpty());
+        assertTrue(itemNameSuggester.suggest("д", 0).isEmpty());
+    }
+
+    @Test
+    void testUpdate_ShouldAddAndRemoveNames_WhenItemsChange() {
+        itemNameSuggester.update(null, testItem("Дрель-миксер", true));
+        itemNameSuggester.update(testItem("Дрезина", true), testItem("Дрезина", false));
+        itemNameSuggester.update(testItem("Лобзик", true), testItem("Лобзик электрический", true));
+
+        assertEquals(List.of("Дрель", "Дрель ударная", "Дрель-миксер"), itemNameSuggester.suggest("дре", 10));
+        assertEquals(List.of("Лобзик электрический"), itemNameSuggester.suggest("лоб", 10));
+    }
+
+    @Test
+    void testUpdate_ShouldKeepNameWhileOtherItemsHaveIt_WhenOneRemoved() {
+        itemNameSuggester.update(testItem("Дрель", true), testItem("Дрель", false));
+
+        assertEquals(List.of("дрель", "Дрель ударная"), itemNameSuggester.suggest("дрел", 10));
+
+        itemNameSuggester.update(testItem("дрель", true), testItem("дрель", false));
+
+        assertEquals(List.of("Дрель ударная"), itemNameSuggester.suggest("дрел", 10));
+    }
+
+    @Test
+    void testUpdate_ShouldIgnoreUnavailableItem_WhenAdded() {
+        itemNameSuggester.update(null, testItem("Пила", false));
+
+        assertTrue(itemNameSuggester.suggest("пи", 10).isEmpty());
+    }
+
+    private static Item testItem(String name, boolean available) {
+        return testItem(null, name, available);
+    }
+
+    private static Item testItem(Long id, String name, boolean available) {
+        Item item = new Item();
+        item.setId(id);
+        item.setName(name);
+        item.setIsAvailable(available);
+        return item;
+    }
+
+    private static List<AvailableItemName> availableNames(String... names) {
+        List<AvailableItemName> result = new ArrayList<>();
+        for (int i = 0; i < names.length; i++) {
+            long id = i + 1;
+            String name = names[i];
+            result.add(new AvailableItemName() {
+                @Override
+                public Long getId() {
+                    return id;
+                }
+
+                @Override
+                public String getName() {
+                    return name;
+                }
+            });
+        }
+        return result;
+    }
+}
@@ -0,0 +1,93 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.pageable.OffsetLimitPageable;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Сравнение поиска по индексу в памяти с LIKE-поиском в базе.
+ * Запуск: mvn test -P benchmark
+ */
+@Slf4j
+@Tag("benchmark")
+@SpringBootTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+public class ItemSearchBenchmarkTest {
+    private static final int ITEMS = 20_000;
+    private static final int ROUNDS = 200;
+    private static final String[] WORDS = {"Дрель", "Шуруповерт", "Перфоратор", "Лобзик", "Велосипед", "Палатка",
+            "Самокат", "Гамак", "Мангал", "Лестница", "Пылесос", "Проектор", "Удочка", "Рюкзак", "Коньки"};
+    private static final String[] ADJECTIVES = {"аккумуляторный", "горный", "детский", "складной", "мощный",
+            "туристический", "новый", "легкий", "профессиональный", "компактный"};
+    private static final String[] QUERIES = {"дрел", "горн", "ка", "туристический рюкзак", "пылесос", "нет такого"};
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ItemSearchIndex itemSearchIndex;
+
+    @AfterEach
+    void tearDown() {
+        itemRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void compareIndexWithSql() {
+        User owner = new User();
+        owner.setName("Owner");
+        owner.setEmail("owner@benchmark.com");
+        userRepository.save(owner);
+        Random random = new Random(42);
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < ITEMS; i++) {
+            Item item = new Item();
+            item.setName(WORDS[random.nextInt(WORDS.length)] + " " + i);
+            item.setDescription(ADJECTIVES[random.nextInt(ADJECTIVES.length)] + " "
+                    + WORDS[random.nextInt(WORDS.length)].toLowerCase());
+            item.setIsAvailable(random.nextInt(10) != 0);
+            item.setOwnerId(owner.getId());
+            items.add(item);
+        }
+        itemRepository.saveAll(items);
+        long buildStart = System.nanoTime();
+        itemSearchIndex.rebuild();
+        log.info("Индекс на {} вещей построен за {} мс", ITEMS, (System.nanoTime() - buildStart) / 1_000_000);
+
+        for (String query : QUERIES) {
+            OffsetLimitPageable pageable = new OffsetLimitPageable(0, 20);
+            assertEquals(itemRepository.findAllByNameOrDescriptionContainingIgnoreCase(query, pageable),
+                    itemSearchIndex.search(query, 0, 20));
+            long sqlStart = System.nanoTime();
+            for (int i = 0; i < ROUNDS; i++) {
+                itemRepository.findAllByNameOrDescriptionContainingIgnoreCase(query, pageable);
+            }
+            long sqlMicros = (System.nanoTime() - sqlStart) / 1_000 / ROUNDS;
+            long indexStart = System.nanoTime();
+            for (int i = 0; i < ROUNDS; i++) {
+                itemSearchIndex.search(query, 0, 20);
+            }
+            long indexMicros = (System.nanoTime() - indexStart) / 1_000 / ROUNDS;
+            log.info("Запрос \"{}\": SQL {} мкс, индекс {} мкс", query, sqlMicros, indexMicros);
+        }
+    }
+}
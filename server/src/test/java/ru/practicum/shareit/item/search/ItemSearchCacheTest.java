@@ -0,0 +1,247 @@
+package ru.practicum.shareit.item.search;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ItemSearchCacheTest {
+    private ItemSearchProperties searchProperties;
+    private ItemSearchCache itemSearchCache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        searchProperties = new ItemSearchProperties();
+        searchProperties.setCacheSize(2);
+        itemSearchCache = new ItemSearchCache(searchProperties);
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    void testGet_ShouldLoadOnce_WhenSameNormalizedQuery() {
+        List<Item> first = search("Дрель", 0, 10);
+        List<Item> second = search("дРЕЛЬ", 0, 10);
+
+        assertEquals(first, second);
+        assertEquals(1, loads.get());
+        assertEquals(1, itemSearchCache.getHits());
+        assertEquals(1, itemSearchCache.getMisses());
+    }
+
+    @Test
+    void testGet_ShouldShareKeyWithTermSketch_WhenTextHasSpaces() {
+        ItemSearchTermSketch termSketch = new ItemSearchTermSketch(searchProperties);
+        termSketch.record("  Дрель ");
+        search(termSketch.top(1).get(0).getTerm(), 0, 10);
+
+        search("  Дрель ", 0, 10);
+
+        assertEquals(1, loads.get());
+        assertEquals(1, itemSearchCache.getHits());
+    }
+
+    @Test
+    void testGet_ShouldCachePagesSeparately_WhenOk() {
+        search("дрель", 0, 10);
+        search("дрель", 10, 10);
+
+        assertEquals(2, loads.get());
+        assertEquals(2, itemSearchCache.size());
+    }
+
+    @Test
+    void testGet_ShouldEvictLeastRecentlyUsed_WhenFull() {
+        search("дрель", 0, 10);
+        search("пила", 0, 10);
+        search("дрель", 0, 10);
+        search("лобзик", 0, 10);
+        search("дрель", 0, 10);
+        search("пила", 0, 10);
+
+        assertEquals(4, loads.get());
+        assertEquals(2, itemSearchCache.getEvictions());
+        assertEquals(2, itemSearchCache.size());
+    }
+
+    @Test
+    void testGet_ShouldNotCache_WhenCacheDisabled() {
+        searchProperties.setCacheSize(0);
+
+        search("дрель", 0, 10);
+        search("дрель", 0, 10);
+
+        assertEquals(2, loads.get());
+        assertEquals(0, itemSearchCache.size());
+    }
+
+    @Test
+    void testInvalidate_ShouldEvictOnlyMatchingQueries_WhenItemAdded() {
+        search("дрел", 0, 10);
+        search("пила", 0, 10);
+
+        itemSearchCache.invalidate(null, testItem("Дрель ударная", "Мощная", true));
+
+        assertEquals(1, itemSearchCache.size());
+        assertEquals(1, itemSearchCache.getInvalidations());
+        search("пила", 0, 10);
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void testInvalidate_ShouldKeepEntries_WhenItemUnavailableBeforeAndAfter() {
+        search("дрел", 0, 10);
+
+        itemSearchCache.invalidate(testItem("Дрель", null, false), testItem("Дрель", "Сломана", false));
+
+        assertEquals(1, itemSearchCache.size());
+    }
+
+    @Test
+    void testInvalidate_ShouldEvict_WhenAvailabilityChanged() {
+        search("дрел", 0, 10);
+
+        itemSearchCache.invalidate(testItem("Дрель", null, false), testItem("Дрель", null, true));
+
+        assertEquals(0, itemSearchCache.size());
+    }
+
+    @Test
+    void testInvalidate_ShouldEvict_WhenPreviousVersionMatched() {
+        search("дрел", 0, 10);
+
+        itemSearchCache.invalidate(testItem("Дрель", null, true), testItem("Перфоратор", null, true));
+
+        assertEquals(0, itemSearchCache.size());
+    }
+
+    @Test
+    void testInvalidate_ShouldKeepEntries_WhenFullTextModeAndUnrelatedItem() {
+        searchProperties.setMode(ItemSearchMode.FULLTEXT);
+        search("дрель", 0, 10);
+        search("пила", 0, 10);
+
+        itemSearchCache.invalidate(null, testItem("Лобзик", "Для фанеры", true));
+
+        assertEquals(2, itemSearchCache.size());
+        assertEquals(0, itemSearchCache.getInvalidations());
+    }
+
+    @Test
+    void testInvalidate_ShouldEvictOtherWordForm_WhenFullTextMode() {
+        searchProperties.setMode(ItemSearchMode.FULLTEXT);
+        search("дрель", 0, 10);
+        search("пила", 0, 10);
+
+        itemSearchCache.invalidate(null, testItem("Набор", "Сверла для дрели", true));
+
+        assertEquals(1, itemSearchCache.size());
+        search("пила", 0, 10);
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void testInvalidate_ShouldKeepEntries_WhenFullTextModeAndItemUnavailable() {
+        searchProperties.setMode(ItemSearchMode.FULLTEXT);
+        search("дрель", 0, 10);
+
+        itemSearchCache.invalidate(null, testItem("Дрель", null, false));
+
+        assertEquals(1, itemSearchCache.size());
+    }
+
+    @Test
+    void testInvalidate_ShouldEvictCommentSearches_WhenAnyItemChanged() {
+        search("дрел", 0, 10);
+        itemSearchCache.get("дрел", true, 0, 10, List::of);
+
+        itemSearchCache.invalidate(null, testItem("Лобзик", null, true));
+
+        assertEquals(1, itemSearchCache.size());
+        search("дрел", 0, 10);
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void testInvalidateComment_ShouldEvictOnlyMatchingCommentSearches_WhenOk() {
+        searchProperties.setCacheSize(3);
+        search("дрел", 0, 10);
+        itemSearchCache.get("дрел", true, 0, 10, List::of);
+        itemSearchCache.get("пила", true, 0, 10, List::of);
+
+        itemSearchCache.invalidate(testComment("Лучше любой ДРЕЛИ"));
+
+        assertEquals(2, itemSearchCache.size());
+        AtomicInteger commentLoads = new AtomicInteger();
+        itemSearchCache.get("пила", true, 0, 10, () -> {
+            commentLoads.incrementAndGet();
+            return List.of();
+        });
+        assertEquals(0, commentLoads.get());
+    }
+
+    @Test
+    void testGet_ShouldReturnDetachedCopies_WhenCallerChangesResult() {
+        Item loaded = testItem("Дрель", "Аккумуляторная", true);
+        itemSearchCache.get("дрель", 0, 10, () -> List.of(loaded));
+        loaded.setName("Перфоратор");
+
+        Item first = itemSearchCache.get("дрель", 0, 10, List::of).get(0);
+        first.setDescription("Сломана");
+        Item second = itemSearchCache.get("дрель", 0, 10, List::of).get(0);
+
+        assertNotSame(first, second);
+        assertEquals("Дрель", second.getName());
+        assertEquals("Аккумуляторная", second.getDescription());
+    }
+
+    @Test
+    void testGet_ShouldNotStoreResult_WhenInvalidatedDuringLoad() {
+        itemSearchCache.get("дрель", 0, 10, () -> {
+            itemSearchCache.invalidate(null, testItem("Лобзик", null, true));
+            return new ArrayList<>();
+        });
+
+        assertEquals(0, itemSearchCache.size());
+    }
+
+    @Test
+    void testBindTo_ShouldExposeMetrics_WhenOk() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        itemSearchCache.bindTo(registry);
+        search("дрель", 0, 10);
+        search("дрель", 0, 10);
+
+        assertEquals(1.0, registry.get("item.search.cache.hits").functionCounter().count());
+        assertEquals(1.0, registry.get("item.search.cache.misses").functionCounter().count());
+        assertEquals(1.0, registry.get("item.search.cache.size").gauge().value());
+    }
+
+    private List<Item> search(String text, int from, int size) {
+        return itemSearchCache.get(text, from, size, () -> {
+            loads.incrementAndGet();
+            return List.of(testItem(text, null, true));
+        });
+    }
+
+    private static Comment testComment(String text) {
+        Comment comment = new Comment();
+        comment.setText(text);
+        return comment;
+    }
+
+    private static Item testItem(String name, String description, boolean available) {
+        Item item = new Item();
+        item.setName(name);
+        item.setDescription(description);
+        item.setIsAvailable(available);
+        return item;
+    }
+}
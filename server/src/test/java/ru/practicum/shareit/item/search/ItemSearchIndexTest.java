@@ -0,0 +1,212 @@
+package ru.practicum.shareit.item.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.item.dto.ItemSearchIndexReportDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ItemSearchIndexTest {
+
+    @Mock
+    private ItemRepository itemRepository;
+    @Spy
+    private ItemSearchProperties searchProperties = new ItemSearchProperties();
+
+    @InjectMocks
+    private ItemSearchIndex itemSearchIndex;
+
+    private final List<Item> storedItems = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        searchProperties.setMode(ItemSearchMode.INDEX);
+        storedItems.add(testItem(1L, "Дрель", "Аккумуляторная", true));
+        storedItems.add(testItem(2L, "Шуруповерт", "Можно использовать как ДРЕЛЬ", true));
+        storedItems.add(testItem(3L, "Дрель ударная", "Сломана", false));
+        storedItems.add(testItem(4L, "Отвертка", null, true));
+    }
+
+    @Test
+    void testAfterSingletonsInstantiated_ShouldBuildIndex_WhenIndexMode() {
+        when(itemRepository.findAll()).thenReturn(storedItems);
+
+        itemSearchIndex.afterSingletonsInstantiated();
+
+        assertFalse(itemSearchIndex.search("дрель", 0, 10).isEmpty());
+    }
+
+    @Test
+    void testAfterSingletonsInstantiated_ShouldSkipBuild_WhenOtherMode() {
+        searchProperties.setMode(ItemSearchMode.FULLTEXT);
+
+        itemSearchIndex.afterSingletonsInstantiated();
+
+        verifyNoInteractions(itemRepository);
+    }
+
+    @Test
+    void testSearch_ShouldMatchSubstringIgnoringCase_WhenOk() {
+        when(itemRepository.findAll()).thenReturn(storedItems);
+        itemSearchIndex.rebuild();
+
+        List<Item> result = itemSearchIndex.search("дрел", 0, 10);
+
+        assertEquals(List.of(1L, 2L), ids(result));
+    }
+
+    @Test
+    void testSearch_ShouldScanAvailableItems_WhenQueryShorterThanGram() {
+        when(itemRepository.findAll()).thenReturn(storedItems);
+        itemSearchIndex.rebuild();
+
+        List<Item> result = itemSearchIndex.search("ка", 0, 10);
+
+        assertEquals(List.of(2L, 4L), ids(result));
+    }
+
+    @Test
+    void testSearch_ShouldApplyFromAndSize_WhenOk() {
+        when(itemRepository.findAll()).thenReturn(storedItems);
+        itemSearchIndex.rebuild();
+
+        assertEquals(List.of(2L), ids(itemSearchIndex.search("дрел", 1, 10)));
+        assertEquals(List.of(1L), ids(itemSearchIndex.search("дрел", 0, 1)));
+        assertEquals(List.of(1L, 2L), ids(itemSearchIndex.search("дрел", 0, Integer.MAX_VALUE)));
+    }
+
+    @Test
+    void testSearchAfter_ShouldStartAfterCursor_WhenOk() {
+        when(itemRepository.findAll()).thenReturn(storedItems);
+        itemSearchIndex.rebuild();
+
+        assertEquals(List.of(2L), ids(itemSearchIndex.searchAfter("дрел", 1L, 10)));
+        assertEquals(List.of(4L), ids(itemSearchIndex.searchAfter("ка", 2L, 10)));
+        assertEquals(List.of(1L), ids(itemSearchIndex.searchAfter("дрел", 0L, 1)));
+        assertTrue(itemSearchIndex.searchAfter("дрел", 2L, 10).isEmpty());
+    }
+
+    @Test
+    void testSearch_ShouldNotMatchAcrossFields_WhenOk() {
+        when(itemRepository.findAll()).thenReturn(storedItems);
+        itemSearchIndex.rebuild();
+
+        assertTrue(itemSearchIndex.search("ельакк", 0, 10).isEmpty());
+    }
+
+    @Test
+    void testIndex_ShouldReflectUpdatedItem_WhenItemChanged() {
+        when(itemRepository.findAll()).thenReturn(storedItems);
+        itemSearchIndex.rebuild();
+
+        itemSearchIndex.index(testItem(1L, "Перфоратор", "Аккумуляторный", true));
+        itemSearchIndex.index(testItem(3L, "Дрель ударная", "Починена", true));
+        itemSearchIndex.index(testItem(5L, "Дрель-миксер", null, true));
+
+        assertEquals(List.of(2L, 3L, 5L), ids(itemSearchIndex.search("дрел", 0, 10)));
+        assertEquals(List.of(1L), ids(itemSearchIndex.search("перфо", 0, 10)));
+    }
+
+    @Test
+    void testRebuild_ShouldKeepWritesMadeDuringRebuild_WhenOk() {
+        when(itemRepository.findAll()).thenAnswer(invocation -> {
+            List<Item> snapshot = new ArrayList<>(storedItems);
+            itemSearchIndex.index(testItem(1L, "Перфоратор", "Аккумуляторный", true));
+            itemSearchIndex.index(testItem(5L, "Дрель-миксер", null, true));
+            return snapshot;
+        });
+
+        itemSearchIndex.rebuild();
+
+        assertEquals(List.of(2L, 5L), ids(itemSearchIndex.search("дрел", 0, 10)));
+        assertEquals(List.of(1L), ids(itemSearchIndex.search("перфо", 0, 10)));
+    }
+
+    @Test
+    void testSearch_ShouldFindItem_WhenIdAboveIntRange() {
+        long id = Integer.MAX_VALUE + 10L;
+        storedItems.add(testItem(id, "Дрель большая", null, true));
+        when(itemRepository.findAll()).thenReturn(storedItems);
+        itemSearchIndex.rebuild();
+
+        assertEquals(List.of(1L, 2L, id), ids(itemSearchIndex.search("дрел", 0, 10)));
+        assertEquals(List.of(id), ids(itemSearchIndex.search("бо", 0, 10)));
+    }
+
+    @Test
+    void testIndex_ShouldDoNothing_WhenIndexDisabled() {
+        searchProperties.setMode(ItemSearchMode.LIKE);
+
+        itemSearchIndex.index(testItem(1L, "Дрель", null, true));
+
+        assertTrue(itemSearchIndex.search("дрель", 0, 10).isEmpty());
+    }
+
+    @Test
+    void testSearch_ShouldReturnCopies_WhenOk() {
+        when(itemRepository.findAll()).thenReturn(storedItems);
+        itemSearchIndex.rebuild();
+
+        itemSearchIndex.search("дрел", 0, 10).get(0).setName("Изменено");
+
+        assertEquals("Дрель", itemSearchIndex.search("дрел", 0, 10).get(0).getName());
+    }
+
+    @Test
+    void testCheck_ShouldReportDifferences_WhenIndexOutOfSync() {
+        when(itemRepository.findAll()).thenReturn(new ArrayList<>(storedItems));
+        itemSearchIndex.rebuild();
+        storedItems.remove(3);
+        storedItems.set(0, testItem(1L, "Дрель", "Сетевая", true));
+        storedItems.add(testItem(6L, "Лобзик", null, true));
+        when(itemRepository.findAll()).thenReturn(storedItems);
+
+        ItemSearchIndexReportDto report = itemSearchIndex.check();
+
+        assertFalse(report.isConsistent());
+        assertEquals(4, report.getIndexedItems());
+        assertEquals(4, report.getStoredItems());
+        assertEquals(List.of(6L), report.getMissingItemIds());
+        assertEquals(List.of(1L), report.getStaleItemIds());
+        assertEquals(List.of(4L), report.getOrphanedItemIds());
+    }
+
+    @Test
+    void testCheck_ShouldBeConsistent_AfterRebuild() {
+        when(itemRepository.findAll()).thenReturn(storedItems);
+
+        itemSearchIndex.rebuild();
+        ItemSearchIndexReportDto report = itemSearchIndex.check();
+
+        assertTrue(report.isConsistent());
+        assertEquals(4, report.getIndexedItems());
+    }
+
+    private static List<Long> ids(List<Item> items) {
+        return items.stream().map(Item::getId).collect(Collectors.toList());
+    }
+
+    private static Item testItem(long id, String name, String description, boolean available) {
+        Item item = new Item();
+        item.setId(id);
+        item.setName(name);
+        item.setDescription(description);
+        item.setIsAvailable(available);
+        item.setOwnerId(100L);
+        return item;
+    }
+}
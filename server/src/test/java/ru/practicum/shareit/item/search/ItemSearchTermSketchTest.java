@@ -0,0 +1,100 @@
+package ru.practicum.shareit.item.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.item.dto.HotSearchTermDto;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ItemSearchTermSketchTest {
+    private ItemSearchProperties searchProperties;
+    private ItemSearchTermSketch termSketch;
+
+    @BeforeEach
+    void setUp() {
+        searchProperties = new ItemSearchProperties();
+        searchProperties.setHotTerms(3);
+        termSketch = new ItemSearchTermSketch(searchProperties);
+    }
+
+    @Test
+    void testTop_ShouldReturnHeavyHitters_WhenManyRareTerms() {
+        for (int i = 0; i < 5_000; i++) {
+            termSketch.record("редкий " + i);
+            if (i % 10 == 0) {
+                termSketch.record("Дрель");
+            }
+            if (i % 20 == 0) {
+                termSketch.record("  пила ");
+            }
+        }
+
+        List<HotSearchTermDto> top = termSketch.top(2);
+
+        assertEquals(List.of("дрель", "пила"), top.stream().map(HotSearchTermDto::getTerm).collect(Collectors.toList()));
+        assertTrue(top.get(0).getHits() >= 500);
+        assertTrue(top.get(1).getHits() >= 250);
+    }
+
+    @Test
+    void testTop_ShouldKeepAtMostHotTerms_WhenManyTerms() {
+        for (int i = 0; i < 100; i++) {
+            termSketch.record("запрос " + i);
+        }
+
+        assertEquals(3, termSketch.top(10).size());
+    }
+
+    @Test
+    void testEstimate_ShouldNeverUnderestimate_WhenOk() {
+        for (int i = 0; i < 7; i++) {
+            termSketch.record("дрель");
+        }
+        for (int i = 0; i < 1_000; i++) {
+            termSketch.record("шум " + i);
+        }
+
+        assertTrue(termSketch.estimate("ДРЕЛЬ") >= 7);
+        assertEquals(0, termSketch.estimate("ничего"));
+    }
+
+    @Test
+    void testSeed_ShouldAddHits_WhenRestored() {
+        termSketch.seed("дрель", 40);
+        termSketch.record("дрель");
+        termSketch.record("пила");
+
+        assertEquals(List.of(new HotSearchTermDto("дрель", 41), new HotSearchTermDto("пила", 1)), termSketch.top(5));
+    }
+
+    @Test
+    void testRecord_ShouldIgnoreBlankText_WhenOk() {
+        termSketch.record("  ");
+        termSketch.record(null);
+
+        assertTrue(termSketch.top(5).isEmpty());
+    }
+
+    @Test
+    void testRecord_ShouldIgnoreTerm_WhenLongerThanSnapshotColumn() {
+        termSketch.record("д".repeat(ItemSearchTermSketch.MAX_TERM_LENGTH + 1));
+        termSketch.record("д".repeat(ItemSearchTermSketch.MAX_TERM_LENGTH));
+
+        assertEquals(1, termSketch.top(5).size());
+        assertEquals(ItemSearchTermSketch.MAX_TERM_LENGTH, termSketch.top(5).get(0).getTerm().length());
+    }
+
+    @Test
+    void testDecay_ShouldHalveHitsAndDropColdTerms_WhenOk() {
+        termSketch.seed("дрель", 40);
+        termSketch.record("пила");
+
+        termSketch.decay();
+
+        assertEquals(List.of(new HotSearchTermDto("дрель", 20)), termSketch.top(5));
+        assertEquals(20, termSketch.estimate("дрель"));
+    }
+}
@@ -0,0 +1,88 @@
+package ru.practicum.shareit.item.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.item.model.HotSearchTerm;
+import ru.practicum.shareit.item.repository.HotSearchTermRepository;
+import ru.practicum.shareit.item.service.ItemService;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ItemSearchWarmerTest {
+
+    @Mock
+    private ItemService itemService;
+    @Mock
+    private ItemSearchCache itemSearchCache;
+    @Mock
+    private HotSearchTermRepository hotSearchTermRepository;
+    @Spy
+    private ItemSearchProperties searchProperties = new ItemSearchProperties();
+    @Spy
+    private ItemSearchTermSketch termSketch = new ItemSearchTermSketch(searchProperties);
+
+    @InjectMocks
+    private ItemSearchWarmer itemSearchWarmer;
+
+    @BeforeEach
+    void setUp() {
+        searchProperties.setWarmUpPageSize(5);
+    }
+
+    @Test
+    void testRestore_ShouldSeedSketchAndWarmUp_WhenSnapshotSaved() {
+        when(hotSearchTermRepository.findAll()).thenReturn(List.of(new HotSearchTerm("дрель", 10L)));
+        when(itemSearchCache.getGeneration()).thenReturn(0L);
+
+        itemSearchWarmer.restore();
+
+        verify(termSketch).seed("дрель", 10L);
+        verify(itemService).warmUpSearchCache("дрель", 5);
+        verify(hotSearchTermRepository).saveAll(List.of(new HotSearchTerm("дрель", 10L)));
+    }
+
+    @Test
+    void testWarmUp_ShouldSkipSearch_WhenGenerationUnchanged() {
+        termSketch.record("дрель");
+        when(itemSearchCache.getGeneration()).thenReturn(3L, 3L, 4L);
+
+        itemSearchWarmer.warmUp();
+        itemSearchWarmer.warmUp();
+        itemSearchWarmer.warmUp();
+
+        verify(itemService, times(2)).warmUpSearchCache("дрель", 5);
+    }
+
+    @Test
+    void testWarmUp_ShouldDeleteStaleTerms_WhenNoLongerHot() {
+        termSketch.record("дрель");
+        HotSearchTerm stale = new HotSearchTerm("пила", 1L);
+        when(hotSearchTermRepository.findAll()).thenReturn(List.of(stale, new HotSearchTerm("дрель", 1L)));
+
+        itemSearchWarmer.warmUp();
+
+        verify(hotSearchTermRepository).deleteAllInBatch(List.of(stale));
+        verify(hotSearchTermRepository).saveAll(List.of(new HotSearchTerm("дрель", 1L)));
+    }
+
+    @Test
+    void testWarmUp_ShouldDoNothing_WhenCacheDisabled() {
+        searchProperties.setCacheSize(0);
+        termSketch.record("дрель");
+
+        itemSearchWarmer.warmUp();
+
+        verify(itemService, never()).warmUpSearchCache(anyString(), anyInt());
+        verifyNoInteractions(hotSearchTermRepository);
+    }
+}
@@ -0,0 +1,147 @@
+package ru.practicum.shareit.item.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.booking.Status;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import javax.persistence.EntityManager;
+import javax.transaction.Transactional;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@SpringBootTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional
+public class ItemBookingRefresherTest {
+
+    @Autowired
+    private ItemBookingRefresher itemBookingRefresher;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    public void testOnApproved_KeepsNearestBookings() {
+        User booker = createUser("booker@example.com");
+        Item item = createItem(createUser("owner@example.com"));
+        LocalDateTime now = LocalDateTime.now();
+        approve(createBooking(item, booker, now.plusDays(2), now.plusDays(3)));
+        Booking next = approve(createBooking(item, booker, now.plusDays(1), now.plusDays(2)));
+        approve(createBooking(item, booker, now.plusDays(4), now.plusDays(5)));
+        Booking last = approve(createBooking(item, booker, now.minusDays(1), now.minusHours(1)));
+
+        Item stored = reload(item);
+
+        assertEquals(last.getId(), stored.getLastBooking().getBookingId());
+        assertEquals(next.getId(), stored.getNextBooking().getBookingId());
+        assertEquals(booker.getId(), stored.getNextBooking().getBookerId());
+    }
+
+    @Test
+    public void testRefreshStarted_MovesStartedBookingToLast() {
+        User booker = createUser("booker@example.com");
+        Item item = createItem(createUser("owner@example.com"));
+        LocalDateTime now = LocalDateTime.now();
+        Booking next = approve(createBooking(item, booker, now.plusDays(1), now.plusDays(2)));
+        Booking later = approve(createBooking(item, booker, now.plusDays(3), now.plusDays(4)));
+
+        itemBookingRefresher.refreshStarted(now.plusDays(1).plusHours(1));
+
+        Item stored = reload(item);
+        assertEquals(next.getId(), stored.getLastBooking().getBookingId());
+        assertEquals(later.getId(), stored.getNextBooking().getBookingId());
+    }
+
+    @Test
+    public void testResolveStarted_MovesStartedBookingToLastBeforeRefresh() {
+        User booker = createUser("booker@example.com");
+        Item item = createItem(createUser("owner@example.com"));
+        LocalDateTime now = LocalDateTime.now();
+        Booking next = approve(createBooking(item, booker, now.plusDays(1), now.plusDays(2)));
+        Booking later = approve(createBooking(item, booker, now.plusDays(3), now.plusDays(4)));
+        Item stored = reload(item);
+
+        itemBookingRefresher.resolveStarted(List.of(stored), now.plusDays(1).plusHours(1));
+
+        assertEquals(next.getId(), stored.getLastBooking().getBookingId());
+        assertEquals(later.getId(), stored.getNextBooking().getBookingId());
+        assertEquals(next.getId(), reload(item).getNextBooking().getBookingId());
+    }
+
+    @Test
+    public void testRebuild_FillsItemsWithApprovedBookings() {
+        User booker = createUser("booker@example.com");
+        Item item = createItem(createUser("owner@example.com"));
+        LocalDateTime now = LocalDateTime.now();
+        Booking last = bookingRepository.save(createBooking(item, booker, now.minusDays(2), now.minusDays(1)));
+        Booking waiting = createBooking(item, booker, now.plusDays(1), now.plusDays(2));
+        waiting.setStatus(Status.WAITING);
+        bookingRepository.save(waiting);
+        entityManager.flush();
+
+        itemBookingRefresher.rebuild();
+
+        Item stored = reload(item);
+        assertEquals(last.getId(), stored.getLastBooking().getBookingId());
+        assertNull(stored.getNextBooking());
+    }
+
+    private Booking approve(Booking booking) {
+        bookingRepository.save(booking);
+        entityManager.flush();
+        itemBookingRefresher.onApproved(List.of(booking));
+        return booking;
+    }
+
+    private Item reload(Item item) {
+        entityManager.flush();
+        entityManager.clear();
+        return itemRepository.findById(item.getId()).orElseThrow();
+    }
+
+    private User createUser(String email) {
+        User user = new User();
+        user.setName(email);
+        user.setEmail(email);
+        return userRepository.save(user);
+    }
+
+    private Item createItem(User owner) {
+        Item item = new Item();
+        item.setName("Item");
+        item.setDescription("Description");
+        item.setIsAvailable(true);
+        item.setOwnerId(owner.getId());
+        return itemRepository.save(item);
+    }
+
+    private static Booking createBooking(Item item, User booker, LocalDateTime start, LocalDateTime end) {
+        Booking booking = new Booking();
+        booking.setItem(item);
+        booking.setBooker(booker);
+        booking.setStart(start);
+        booking.setEnd(end);
+        booking.setStatus(Status.APPROVED);
+        return booking;
+    }
+}
@@ -1,5 +1,7 @@
 package ru.practicum.shareit.item.service;
 
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
@@ -7,20 +9,31 @@ import org.springframework.boot.test.context.SpringBootTest;
 import ru.practicum.shareit.booking.Status;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.exceptions.SearchFilterValidationException;
+import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemResponseWithBookingDto;
+import ru.practicum.shareit.item.dto.ItemSearchFilterDto;
+import ru.practicum.shareit.item.dto.ItemSearchResultDto;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.CommentRepository;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
 import javax.transaction.Transactional;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 @SpringBootTest
 @AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
@@ -42,6 +55,15 @@ public class ItemServiceImplIntegrationTest {
     @Autowired
     private CommentRepository commentRepository;
 
+    @Autowired
+    private ItemRequestRepository itemRequestRepository;
+
+    @Autowired
+    private ItemBookingRefresher itemBookingRefresher;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
     @Test
     public void testGetItems() {
         User user = new User();
@@ -67,6 +89,126 @@ public class ItemServiceImplIntegrationTest {
         assertEquals(2, itemDtos.size());
     }
 
+    @Test
+    public void testGetItems_ShouldNotQueryBookings_WhenManyItems() {
+        User owner = new User();
+        owner.setName("Owner");
+        owner.setEmail("owner@example.com");
+        userRepository.save(owner);
+        User booker = new User();
+        booker.setName("Booker");
+        booker.setEmail("booker@example.com");
+        userRepository.save(booker);
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < 20; i++) {
+            Item item = new Item();
+            item.setName("Item" + i);
+            item.setDescription("Description" + i);
+            item.setIsAvailable(true);
+            item.setOwnerId(owner.getId());
+            itemRepository.save(item);
+            bookingRepository.save(createBooking(item, booker, now.minusDays(2), now.minusDays(1)));
+            bookingRepository.save(createBooking(item, booker, now.plusDays(1), now.plusDays(2)));
+        }
+        entityManager.flush();
+        itemBookingRefresher.rebuild();
+        entityManager.clear();
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<ItemResponseWithBookingDto> itemDtos = itemService.getItems(owner.getId(), 0, 20);
+
+        assertEquals(20, itemDtos.size());
+        for (ItemResponseWithBookingDto itemDto : itemDtos) {
+            assertNotNull(itemDto.getLastBooking());
+            assertNotNull(itemDto.getNextBooking());
+        }
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    public void testGetItems_ShouldLoadCommentAuthorsInSameQuery() {
+        User owner = new User();
+        owner.setName("Owner");
+        owner.setEmail("owner@example.com");
+        userRepository.save(owner);
+        for (int i = 0; i < 20; i++) {
+            Item item = new Item();
+            item.setName("Item" + i);
+            item.setDescription("Description" + i);
+            item.setIsAvailable(true);
+            item.setOwnerId(owner.getId());
+            itemRepository.save(item);
+            User author = new User();
+            author.setName("Author" + i);
+            author.setEmail("author" + i + "@example.com");
+            userRepository.save(author);
+            commentRepository.save(createComment(item, author, "Comment" + i));
+        }
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<ItemResponseWithBookingDto> itemDtos = itemService.getItems(owner.getId(), 0, 20);
+
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(20, itemDtos.size());
+        for (int i = 0; i < 20; i++) {
+            assertEquals("Author" + i, itemDtos.get(i).getComments().get(0).getAuthorName());
+        }
+    }
+
+    @Test
+    public void testGetItem_ShouldLoadCommentAuthorsInSameQuery() {
+        User owner = new User();
+        owner.setName("Owner");
+        owner.setEmail("owner@example.com");
+        userRepository.save(owner);
+        Item item = new Item();
+        item.setName("Item");
+        item.setDescription("Description");
+        item.setIsAvailable(true);
+        item.setOwnerId(owner.getId());
+        itemRepository.save(item);
+        for (int i = 0; i < 10; i++) {
+            User author = new User();
+            author.setName("Author" + i);
+            author.setEmail("author" + i + "@example.com");
+            userRepository.save(author);
+            commentRepository.save(createComment(item, author, "Comment" + i));
+        }
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        ItemResponseWithBookingDto itemDto = itemService.getItem(item.getId(), owner.getId());
+
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(10, itemDto.getComments().size());
+        assertEquals("Author9", itemDto.getComments().get(9).getAuthorName());
+    }
+
+    private static Comment createComment(Item item, User author, String text) {
+        Comment comment = new Comment();
+        comment.setItem(item);
+        comment.setAuthor(author);
+        comment.setText(text);
+        comment.setCreated(LocalDateTime.now());
+        return comment;
+    }
+
+    private static Booking createBooking(Item item, User booker, LocalDateTime start, LocalDateTime end) {
+        Booking booking = new Booking();
+        booking.setItem(item);
+        booking.setBooker(booker);
+        booking.setStart(start);
+        booking.setEnd(end);
+        booking.setStatus(Status.APPROVED);
+        return booking;
+    }
+
     @Test
     public void testAddItem() {
         User user = new User();
@@ -153,6 +295,118 @@ public class ItemServiceImplIntegrationTest {
         assertEquals(2, itemDtos.size());
     }
 
+    @Test
+    public void testFilterItems_ShouldReturnFreeItemsAndFacets_WhenPeriodGiven() {
+        User owner = createUser("owner@example.com");
+        User otherOwner = createUser("other@example.com");
+        User booker = createUser("booker@example.com");
+        Item free = createItem("Дрель", owner, true);
+        Item approved = createItem("Дрель ударная", owner, true);
+        Item waiting = createItem("Дрель угловая", owner, true);
+        Item rejected = createItem("Дрель аккумуляторная", owner, true);
+        createItem("Дрель сломанная", owner, false);
+        createItem("Дрель чужая", otherOwner, true);
+        createItem("Пила", owner, true);
+        LocalDateTime start = LocalDateTime.now().plusDays(2);
+        LocalDateTime end = LocalDateTime.now().plusDays(4);
+        bookingRepository.save(createBooking(approved, booker, start.minusDays(1), start.plusHours(1)));
+        Booking waitingBooking = createBooking(waiting, booker, end.minusHours(1), end.plusDays(1));
+        waitingBooking.setStatus(Status.WAITING);
+        bookingRepository.save(waitingBooking);
+        Booking rejectedBooking = createBooking(rejected, booker, start, end);
+        rejectedBooking.setStatus(Status.REJECTED);
+        bookingRepository.save(rejectedBooking);
+        bookingRepository.save(createBooking(free, booker, end.plusDays(1), end.plusDays(2)));
+        ItemSearchFilterDto filter = ItemSearchFilterDto.builder()
+                .text("дрел")
+                .ownerId(owner.getId())
+                .start(start)
+                .end(end)
+                .build();
+
+        ItemSearchResultDto result = itemService.filterItems(filter, 0, 10);
+
+        assertEquals(List.of(free.getId(), rejected.getId()),
+                result.getItems().stream().map(ItemDto::getId).collect(Collectors.toList()));
+        assertEquals(4, result.getTotal());
+        assertEquals(2, result.getFree());
+        assertEquals(2, result.getBooked());
+        assertEquals(List.of(rejected.getId()), itemService.filterItems(filter, 1, 10).getItems().stream()
+                .map(ItemDto::getId).collect(Collectors.toList()));
+    }
+
+    @Test
+    public void testFilterItems_ShouldTreatItemAsFree_WhenBookingsOnlyTouchPeriod() {
+        User owner = createUser("owner@example.com");
+        User booker = createUser("booker@example.com");
+        Item item = createItem("Дрель", owner, true);
+        LocalDateTime start = LocalDateTime.now().plusDays(2).truncatedTo(ChronoUnit.SECONDS);
+        LocalDateTime end = start.plusDays(2);
+        bookingRepository.save(createBooking(item, booker, start.minusDays(1), start));
+        bookingRepository.save(createBooking(item, booker, end, end.plusDays(1)));
+        ItemSearchFilterDto filter = ItemSearchFilterDto.builder()
+                .ownerId(owner.getId())
+                .start(start)
+                .end(end)
+                .build();
+
+        ItemSearchResultDto result = itemService.filterItems(filter, 0, 10);
+
+        assertEquals(List.of(item.getId()),
+                result.getItems().stream().map(ItemDto::getId).collect(Collectors.toList()));
+        assertEquals(1, result.getFree());
+        assertEquals(0, result.getBooked());
+    }
+
+    @Test
+    public void testFilterItems_ShouldFilterByRequestAndCountCurrentBookings_WhenNoPeriod() {
+        User owner = createUser("owner@example.com");
+        User booker = createUser("booker@example.com");
+        ItemRequest request = new ItemRequest();
+        request.setDescription("Нужна дрель");
+        request.setRequestor(booker);
+        request.setCreated(LocalDateTime.now());
+        itemRequestRepository.save(request);
+        Item requested = createItem("Дрель", owner, true);
+        requested.setRequest(request);
+        itemRepository.save(requested);
+        createItem("Дрель ударная", owner, true);
+        LocalDateTime now = LocalDateTime.now();
+        bookingRepository.save(createBooking(requested, booker, now.minusDays(1), now.plusDays(1)));
+
+        ItemSearchResultDto result = itemService.filterItems(
+                ItemSearchFilterDto.builder().requestId(request.getId()).build(), 0, 10);
+
+        assertEquals(List.of(requested.getId()),
+                result.getItems().stream().map(ItemDto::getId).collect(Collectors.toList()));
+        assertEquals(1, result.getTotal());
+        assertEquals(0, result.getFree());
+        assertEquals(1, result.getBooked());
+    }
+
+    @Test
+    public void testFilterItems_ShouldThrow_WhenPeriodIncomplete() {
+        ItemSearchFilterDto filter = ItemSearchFilterDto.builder().start(LocalDateTime.now()).build();
+
+        assertThrows(SearchFilterValidationException.class, () -> itemService.filterItems(filter, 0, 10));
+    }
+
+    private User createUser(String email) {
+        User user = new User();
+        user.setName(email);
+        user.setEmail(email);
+        return userRepository.save(user);
+    }
+
+    private Item createItem(String name, User owner, boolean available) {
+        Item item = new Item();
+        item.setName(name);
+        item.setDescription(name);
+        item.setIsAvailable(available);
+        item.setOwnerId(owner.getId());
+        return itemRepository.save(item);
+    }
+
     @Test
     public void testAddComment() {
         User user = new User();
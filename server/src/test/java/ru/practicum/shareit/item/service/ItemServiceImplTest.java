@@ -5,20 +5,33 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import ru.practicum.shareit.booking.Status;
+import ru.practicum.shareit.booking.interval.BookingInterval;
+import ru.practicum.shareit.booking.interval.BookingIntervalIndex;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.exceptions.CommentValidationException;
+import ru.practicum.shareit.exceptions.CursorValidationException;
 import ru.practicum.shareit.exceptions.ObjectNotFoundException;
+import ru.practicum.shareit.exceptions.SearchFilterValidationException;
 import ru.practicum.shareit.exceptions.UpdateItemException;
 import ru.practicum.shareit.item.dto.ItemResponseWithBookingDto;
+import ru.practicum.shareit.item.model.BookingSnapshot;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.CommentRepository;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemFuzzyIndex;
+import ru.practicum.shareit.item.search.ItemNameSuggester;
+import ru.practicum.shareit.item.search.ItemSearchCache;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+import ru.practicum.shareit.item.search.ItemSearchMode;
+import ru.practicum.shareit.item.search.ItemSearchProperties;
+import ru.practicum.shareit.item.search.ItemSearchTermSketch;
+import ru.practicum.shareit.pageable.KeysetCursor;
 import ru.practicum.shareit.pageable.OffsetLimitPageable;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
@@ -27,6 +40,7 @@ import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -42,6 +56,22 @@ class ItemServiceImplTest {
     private UserRepository userRepository;
     @Mock
     private CommentRepository commentRepository;
+    @Spy
+    private ItemSearchProperties searchProperties = new ItemSearchProperties();
+    @Mock
+    private ItemSearchIndex itemSearchIndex;
+    @Spy
+    private ItemSearchCache itemSearchCache = new ItemSearchCache(searchProperties);
+    @Mock
+    private ItemNameSuggester itemNameSuggester;
+    @Mock
+    private ItemFuzzyIndex itemFuzzyIndex;
+    @Spy
+    private ItemSearchTermSketch itemSearchTermSketch = new ItemSearchTermSketch(searchProperties);
+    @Mock
+    private BookingIntervalIndex bookingIntervalIndex;
+    @Mock
+    private ItemBookingRefresher itemBookingRefresher;
 
     @InjectMocks
     private ItemServiceImpl itemService;
@@ -54,8 +84,6 @@ class ItemServiceImplTest {
         int size = 10;
         List<Item> items = List.of(testItem(1L, userId), testItem(2L, userId));
         when(itemRepository.findAllByOwnerIdIsOrderByIdAsc(userId, new OffsetLimitPageable(from, size))).thenReturn(items);
-        when(bookingRepository.findLastBooking(anyLong(), any(LocalDateTime.class), any(Pageable.class))).thenReturn(new ArrayList<>());
-        when(bookingRepository.findNextBooking(anyLong(), any(LocalDateTime.class), any(Pageable.class))).thenReturn(new ArrayList<>());
         when(commentRepository.findAllByItemIds(anyList())).thenReturn(new ArrayList<>());
 
         // act
@@ -68,11 +96,50 @@ class ItemServiceImplTest {
         assertEquals(testItemDto(2), result.get(1));
 
         verify(itemRepository).findAllByOwnerIdIsOrderByIdAsc(userId, new OffsetLimitPageable(from, size));
-        verify(bookingRepository, times(2)).findLastBooking(anyLong(), any(LocalDateTime.class), any(Pageable.class));
-        verify(bookingRepository, times(2)).findNextBooking(anyLong(), any(LocalDateTime.class), any(Pageable.class));
+        verifyNoInteractions(bookingRepository);
         verify(commentRepository).findAllByItemIds(anyList());
     }
 
+    @Test
+    void testGetItems_ShouldMapStoredBookingsToItems_WhenOk() {
+        // arrange
+        long userId = 1L;
+        Item item1 = testItem(1L, userId);
+        item1.setNextBooking(testSnapshot(4L));
+        Item item2 = testItem(2L, userId);
+        item2.setLastBooking(testSnapshot(3L));
+        item2.setNextBooking(testSnapshot(5L));
+        when(itemRepository.findAllByOwnerIdIsOrderByIdAsc(userId, new OffsetLimitPageable(0, 10)))
+                .thenReturn(List.of(item1, item2));
+        when(commentRepository.findAllByItemIds(anyList())).thenReturn(new ArrayList<>());
+
+        // act
+        List<ItemResponseWithBookingDto> result = itemService.getItems(userId, 0, 10);
+
+        // assert
+        assertNull(result.get(0).getLastBooking());
+        assertEquals(4L, result.get(0).getNextBooking().getId());
+        assertEquals(3L, result.get(1).getLastBooking().getId());
+        assertEquals(5L, result.get(1).getNextBooking().getId());
+        assertEquals(10L, result.get(1).getNextBooking().getBookerId());
+        verifyNoInteractions(bookingRepository);
+    }
+
+    @Test
+    void testGetItems_ShouldNotQueryBookings_WhenNoItems() {
+        // arrange
+        long userId = 1L;
+        when(itemRepository.findAllByOwnerIdIsOrderByIdAsc(userId, new OffsetLimitPageable(0, 10)))
+                .thenReturn(new ArrayList<>());
+
+        // act
+        List<ItemResponseWithBookingDto> result = itemService.getItems(userId, 0, 10);
+
+        // assert
+        assertTrue(result.isEmpty());
+        verifyNoInteractions(bookingRepository, commentRepository);
+    }
+
     private static Item testItem(long id, long userId) {
         Item item1 = new Item();
         item1.setId(id);
@@ -104,6 +171,17 @@ class ItemServiceImplTest {
         // assert
         assertNotNull(result);
         verify(itemRepository, times(1)).save(item);
+        verify(itemSearchIndex).index(item);
+        verify(itemNameSuggester).update(null, item);
+    }
+
+    @Test
+    void testSuggestItemNames_ShouldDelegateToSuggester_WhenOk() {
+        when(itemNameSuggester.suggest("др", 5)).thenReturn(List.of("Дрель"));
+
+        List<String> result = itemService.suggestItemNames("др", 5);
+
+        assertEquals(List.of("Дрель"), result);
     }
 
     @Test
@@ -119,6 +197,7 @@ class ItemServiceImplTest {
         user.setId(1L);
         when(itemRepository.findById(1L)).thenReturn(Optional.of(item));
         when(userRepository.findAll()).thenReturn(List.of(user));
+        when(itemRepository.save(item)).thenReturn(item);
 
         // act
         Item result = itemService.updateItem(item);
@@ -132,6 +211,49 @@ class ItemServiceImplTest {
         assertNotNull(savedItem);
     }
 
+    @Test
+    void testUpdateItem_ShouldInvalidateSearchCache_WhenOk() {
+        // arrange
+        Item item = testItem(1L, 1L);
+        Item updatedItem = new Item();
+        updatedItem.setId(1L);
+        updatedItem.setOwnerId(1L);
+        updatedItem.setIsAvailable(false);
+        User user = new User();
+        user.setId(1L);
+        when(itemRepository.findById(1L)).thenReturn(Optional.of(item));
+        when(userRepository.findAll()).thenReturn(List.of(user));
+        Item savedItem = testItem(1L, 1L);
+        savedItem.setIsAvailable(false);
+        when(itemRepository.save(updatedItem)).thenReturn(savedItem);
+
+        // act
+        itemService.updateItem(updatedItem);
+
+        // assert
+        ArgumentCaptor<Item> previousCaptor = ArgumentCaptor.forClass(Item.class);
+        verify(itemSearchCache).invalidate(previousCaptor.capture(), same(savedItem));
+        assertTrue(previousCaptor.getValue().getIsAvailable());
+        assertEquals("name-1", previousCaptor.getValue().getName());
+        verify(itemSearchIndex).index(same(savedItem));
+        verify(itemFuzzyIndex).index(same(savedItem));
+    }
+
+    @Test
+    void testSearchItem_ShouldUseCache_WhenSameQueryRepeated() {
+        // arrange
+        when(itemRepository.findAllByNameOrDescriptionContainingIgnoreCase("book", new OffsetLimitPageable(0, 10)))
+                .thenReturn(List.of(testItem(1L, 2L)));
+
+        // act
+        itemService.searchItem("book", 0, 10);
+        List<Item> result = itemService.searchItem("BOOK", 0, 10);
+
+        // assert
+        assertEquals(1, result.size());
+        verify(itemRepository, times(1)).findAllByNameOrDescriptionContainingIgnoreCase(anyString(), any(Pageable.class));
+    }
+
     @Test
     void testUpdateItem_ShouldThrowObjectNotFoundException_WhenUserDoesNotExist() {
         // arrange
@@ -199,6 +321,8 @@ class ItemServiceImplTest {
         long itemId = 1;
         long userId = 2;
         Item item = testItem(itemId, userId);
+        item.setLastBooking(testSnapshot(1L));
+        item.setNextBooking(testSnapshot(2L));
         List<Comment> comments = new ArrayList<>();
         Comment comment = new Comment();
         comment.setId(7L);
@@ -206,14 +330,8 @@ class ItemServiceImplTest {
         comment.setAuthor(new User());
         comment.setText("ghghgh");
         comments.add(comment);
-        Booking booking1 = testBooking(item, 1L);
-        Booking booking2 = testBooking(item, 2L);
 
         when(itemRepository.findById(itemId)).thenReturn(Optional.of(item));
-        when(bookingRepository.findLastBooking(eq(item.getId()), any(LocalDateTime.class),
-                any(PageRequest.class))).thenReturn(List.of(booking1));
-        when(bookingRepository.findNextBooking(eq(item.getId()), any(LocalDateTime.class),
-                any(PageRequest.class))).thenReturn(List.of(booking2));
         when(commentRepository.findByItemId(itemId)).thenReturn(comments);
 
         // Act
@@ -222,23 +340,16 @@ class ItemServiceImplTest {
         // Assert
         assertNotNull(result);
         assertEquals(item.getId(), result.getId());
-        assertEquals(booking1.getId(), result.getLastBooking().getId());
-        assertEquals(booking2.getId(), result.getNextBooking().getId());
+        assertEquals(1L, result.getLastBooking().getId());
+        assertEquals(2L, result.getNextBooking().getId());
         assertEquals(comment.getId(), result.getComments().get(0).getId());
         assertEquals(1, result.getComments().size());
+        verifyNoInteractions(bookingRepository);
     }
 
-    private static Booking testBooking(Item item, long bookingId) {
-        Booking booking = new Booking();
-        booking.setId(bookingId);
-        booking.setStart(LocalDateTime.now().plusSeconds(0 + bookingId));
-        booking.setEnd(LocalDateTime.now().plusMinutes(0 + bookingId / 2));
-        booking.setItem(item);
-        User booker = new User();
-        booker.setId(5 + bookingId);
-        booking.setBooker(booker);
-        booking.setStatus(Status.APPROVED);
-        return booking;
+    private static BookingSnapshot testSnapshot(long bookingId) {
+        return new BookingSnapshot(bookingId, LocalDateTime.now().plusSeconds(bookingId),
+                LocalDateTime.now().plusMinutes(bookingId), 5 + bookingId);
     }
 
     @Test
@@ -282,6 +393,263 @@ class ItemServiceImplTest {
         assertEquals(expectedItems.size(), result.size());
     }
 
+    @Test
+    public void testSearchItem_UsesFullTextSearch_WhenFullTextMode() {
+        // Arrange
+        String searchText = "дрель";
+        int from = 0;
+        int size = 10;
+        searchProperties.setMode(ItemSearchMode.FULLTEXT);
+        List<Item> expectedItems = List.of(testItem(1L, 2L));
+        when(itemRepository.findAllByFullTextSearch(searchText, new OffsetLimitPageable(from, size)))
+                .thenReturn(expectedItems);
+
+        // Act
+        List<Item> result = itemService.searchItem(searchText, from, size);
+
+        // Assert
+        assertEquals(expectedItems, result);
+        verify(itemRepository, never()).findAllByNameOrDescriptionContainingIgnoreCase(anyString(), any(Pageable.class));
+    }
+
+    @Test
+    public void testSearchItemAfter_ThrowsException_WhenFullTextMode() {
+        searchProperties.setMode(ItemSearchMode.FULLTEXT);
+
+        assertThrows(CursorValidationException.class,
+                () -> itemService.searchItemAfter("дрель", false, KeysetCursor.of(5L), 10));
+        verifyNoInteractions(itemRepository);
+    }
+
+    @Test
+    public void testSearchItemAfter_UsesIdOrderedQuery_WhenTrigramMode() {
+        searchProperties.setMode(ItemSearchMode.TRIGRAM);
+        List<Item> expectedItems = List.of(testItem(6L, 2L));
+        when(itemRepository.findAllByTextOrCommentContainingIgnoreCaseAfter("дрель", 5L, new OffsetLimitPageable(0, 10)))
+                .thenReturn(expectedItems);
+
+        List<Item> result = itemService.searchItemAfter("дрель", true, KeysetCursor.of(5L), 10);
+
+        assertEquals(expectedItems, result);
+    }
+
+    @Test
+    public void testSearchItemAfter_ReturnsEmptyList_WhenTextIsBlank() {
+        searchProperties.setMode(ItemSearchMode.LIKE);
+
+        List<Item> result = itemService.searchItemAfter("  ", false, null, 10);
+
+        assertTrue(result.isEmpty());
+        verifyNoInteractions(itemRepository);
+        assertTrue(itemSearchTermSketch.top(10).isEmpty());
+    }
+
+    @Test
+    public void testSearchItemAfter_UsesSearchIndex_WhenIndexMode() {
+        searchProperties.setMode(ItemSearchMode.INDEX);
+        List<Item> expectedItems = List.of(testItem(6L, 2L));
+        when(itemSearchIndex.searchAfter("дрель", 5L, 10)).thenReturn(expectedItems);
+
+        List<Item> result = itemService.searchItemAfter(" дрель ", false, KeysetCursor.of(5L), 10);
+
+        assertEquals(expectedItems, result);
+        verifyNoInteractions(itemRepository);
+    }
+
+    @Test
+    public void testSearchItemAfter_RecordsTerm_WhenSearchingComments() {
+        searchProperties.setMode(ItemSearchMode.LIKE);
+        when(itemRepository.findAllByTextOrCommentContainingIgnoreCaseAfter("Дрель", 0L, new OffsetLimitPageable(0, 10)))
+                .thenReturn(List.of());
+
+        itemService.searchItemAfter("Дрель ", true, null, 10);
+
+        assertEquals("дрель", itemSearchTermSketch.top(1).get(0).getTerm());
+    }
+
+    @Test
+    public void testSearchItem_UsesTrigramSearch_WhenTrigramMode() {
+        // Arrange
+        String searchText = "дрел";
+        searchProperties.setMode(ItemSearchMode.TRIGRAM);
+        List<Item> expectedItems = List.of(testItem(1L, 2L));
+        when(itemRepository.findAllByTrigramSearch(searchText, new OffsetLimitPageable(0, 10)))
+                .thenReturn(expectedItems);
+
+        // Act
+        List<Item> result = itemService.searchItem(searchText, 0, 10);
+
+        // Assert
+        assertEquals(expectedItems, result);
+        verify(itemRepository, never()).findAllByNameOrDescriptionContainingIgnoreCase(anyString(), any(Pageable.class));
+    }
+
+    @Test
+    public void testSearchItem_UsesSearchIndex_WhenIndexMode() {
+        // Arrange
+        searchProperties.setMode(ItemSearchMode.INDEX);
+        List<Item> expectedItems = List.of(testItem(1L, 2L));
+        when(itemSearchIndex.search("дрел", 0, 10)).thenReturn(expectedItems);
+
+        // Act
+        List<Item> result = itemService.searchItem("дрел", 0, 10);
+
+        // Assert
+        assertEquals(expectedItems, result);
+        verifyNoInteractions(itemRepository);
+    }
+
+    @Test
+    public void testSearchItem_RecordsTerm_WhenOk() {
+        // Arrange
+        when(itemRepository.findAllByNameOrDescriptionContainingIgnoreCase("дрель", new OffsetLimitPageable(0, 10)))
+                .thenReturn(List.of(testItem(1L, 2L)));
+
+        // Act
+        itemService.searchItem("дрель", 0, 10);
+        itemService.warmUpSearchCache("дрель", 10);
+
+        // Assert
+        assertEquals(1, itemSearchTermSketch.estimate("дрель"));
+        verify(itemRepository, times(1))
+                .findAllByNameOrDescriptionContainingIgnoreCase("дрель", new OffsetLimitPageable(0, 10));
+    }
+
+    @Test
+    public void testSearchItemWithComments_UsesCommentQuery_WhenLikeMode() {
+        // Arrange
+        List<Item> expectedItems = List.of(testItem(1L, 2L));
+        when(itemRepository.findAllByTextOrCommentContainingIgnoreCase("дрел", new OffsetLimitPageable(0, 10)))
+                .thenReturn(expectedItems);
+
+        // Act
+        List<Item> result = itemService.searchItemWithComments("дрел", 0, 10);
+
+        // Assert
+        assertEquals(expectedItems, result);
+        verify(itemRepository, never()).findAllByNameOrDescriptionContainingIgnoreCase(anyString(), any());
+    }
+
+    @Test
+    public void testSearchItemWithComments_UsesFullTextCommentQuery_WhenFullTextMode() {
+        // Arrange
+        searchProperties.setMode(ItemSearchMode.FULLTEXT);
+        List<Item> expectedItems = List.of(testItem(1L, 2L));
+        when(itemRepository.findAllByFullTextSearchWithComments("дрель", new OffsetLimitPageable(0, 10)))
+                .thenReturn(expectedItems);
+
+        // Act
+        List<Item> result = itemService.searchItemWithComments("дрель", 0, 10);
+
+        // Assert
+        assertEquals(expectedItems, result);
+    }
+
+    @Test
+    public void testSearchItemWithComments_UsesTrigramCommentQuery_WhenIndexMode() {
+        // Arrange
+        searchProperties.setMode(ItemSearchMode.INDEX);
+        List<Item> expectedItems = List.of(testItem(1L, 2L));
+        when(itemRepository.findAllByTrigramSearchWithComments("дрел", new OffsetLimitPageable(0, 10)))
+                .thenReturn(expectedItems);
+
+        // Act
+        List<Item> result = itemService.searchItemWithComments("дрел", 0, 10);
+
+        // Assert
+        assertEquals(expectedItems, result);
+        verifyNoInteractions(itemSearchIndex);
+    }
+
+    @Test
+    public void testFuzzySearchItem_LoadsItemsInRankOrder_WhenFuzzyEnabled() {
+        // Arrange
+        searchProperties.setFuzzyEnabled(true);
+        Item unavailable = testItem(3L, 2L);
+        unavailable.setIsAvailable(false);
+        when(itemFuzzyIndex.search("дрнль", 0, 10)).thenReturn(List.of(2L, 1L, 3L));
+        when(itemRepository.findAllById(List.of(2L, 1L, 3L)))
+                .thenReturn(List.of(testItem(1L, 2L), testItem(2L, 2L), unavailable));
+
+        // Act
+        List<Item> result = itemService.fuzzySearchItem("дрнль", 0, 10);
+
+        // Assert
+        assertEquals(List.of(testItem(2L, 2L), testItem(1L, 2L)), result);
+        verify(itemRepository, never()).findAllByNameOrDescriptionContainingIgnoreCase(anyString(), any());
+    }
+
+    @Test
+    public void testFuzzySearchItem_FallsBackToSearch_WhenFuzzyDisabled() {
+        // Arrange
+        List<Item> expectedItems = List.of(testItem(1L, 2L));
+        when(itemRepository.findAllByNameOrDescriptionContainingIgnoreCase("дрел", new OffsetLimitPageable(0, 10)))
+                .thenReturn(expectedItems);
+
+        // Act
+        List<Item> result = itemService.fuzzySearchItem("дрел", 0, 10);
+
+        // Assert
+        assertEquals(expectedItems, result);
+        verifyNoInteractions(itemFuzzyIndex);
+    }
+
+    @Test
+    public void testFindAvailableItems_SkipsBookedItems_WhenPeriodOverlaps() {
+        // Arrange
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        LocalDateTime end = start.plusDays(2);
+        List<Item> candidates = List.of(testItem(1L, 2L), testItem(2L, 2L), testItem(3L, 2L), testItem(4L, 2L));
+        when(itemRepository.findAllByNameOrDescriptionContainingIgnoreCase("дрел", new OffsetLimitPageable(0, 100)))
+                .thenReturn(candidates);
+        when(bookingIntervalIndex.findFree(List.of(1L, 2L, 3L, 4L), start, end)).thenReturn(Set.of(1L, 3L, 4L));
+
+        // Act
+        List<Item> result = itemService.findAvailableItems("дрел", start, end, 1, 1);
+
+        // Assert
+        assertEquals(List.of(testItem(3L, 2L)), result);
+        verify(bookingIntervalIndex).findFree(anyList(), eq(start), eq(end));
+    }
+
+    @Test
+    public void testFindAvailableItems_ThrowsException_WhenEndBeforeStart() {
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+
+        assertThrows(SearchFilterValidationException.class,
+                () -> itemService.findAvailableItems("дрел", start, start.minusHours(1), 0, 10));
+        verifyNoInteractions(bookingIntervalIndex);
+    }
+
+    @Test
+    public void testGetItemCalendarVersion_ThrowsException_WhenItemNotFound() {
+        when(itemRepository.existsById(1L)).thenReturn(false);
+
+        assertThrows(ObjectNotFoundException.class, () -> itemService.getItemCalendarVersion(1L));
+        verifyNoInteractions(bookingIntervalIndex);
+    }
+
+    @Test
+    public void testGetItemCalendar_ReturnsIndexIntervals_WhenPeriodValid() {
+        LocalDateTime from = LocalDateTime.now();
+        LocalDateTime to = from.plusDays(7);
+        List<BookingInterval> intervals = List.of(
+                new BookingInterval(1L, from.plusDays(1), from.plusDays(2), Status.APPROVED));
+        when(itemRepository.existsById(1L)).thenReturn(true);
+        when(bookingIntervalIndex.findBusy(1L, from, to)).thenReturn(intervals);
+
+        assertEquals(intervals, itemService.getItemCalendar(1L, from, to));
+    }
+
+    @Test
+    public void testGetItemCalendar_ThrowsException_WhenItemNotFound() {
+        LocalDateTime from = LocalDateTime.now();
+        when(itemRepository.existsById(1L)).thenReturn(false);
+
+        assertThrows(ObjectNotFoundException.class, () -> itemService.getItemCalendar(1L, from, LocalDateTime.MAX));
+        verifyNoInteractions(bookingIntervalIndex);
+    }
+
     @Test
     public void testSearchItem_ReturnsEmptyList_WhenTextEmpty() {
         // Arrange
@@ -324,6 +692,7 @@ class ItemServiceImplTest {
         verify(commentRepository, times(1)).save(captor.capture());
         Comment savedComment = captor.getValue();
         assertEquals("ghghgh", savedComment.getText());
+        verify(itemSearchCache).invalidate(comment);
     }
 
     @Test
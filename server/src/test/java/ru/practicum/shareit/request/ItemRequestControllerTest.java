@@ -10,6 +10,7 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.pageable.KeysetCursor;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.dto.ItemRequestMapper;
 import ru.practicum.shareit.request.model.ItemRequest;
@@ -28,6 +29,7 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -126,6 +128,39 @@ class ItemRequestControllerTest {
         verify(itemRequestService).getItemRequestsSorted(userId, from, size);
     }
 
+    @Test
+    public void getItemRequestsSorted_WithCursor_ShouldReturnNextCursor() throws Exception {
+        long userId = 1L;
+        LocalDateTime created = LocalDateTime.of(2030, 1, 1, 10, 0);
+        KeysetCursor cursor = KeysetCursor.of(created.plusHours(1), 30L);
+        ItemRequestDto itemRequestDto = ItemRequestDto.builder()
+                .id(20L)
+                .description("Запрос 2")
+                .created(created)
+                .build();
+        when(itemRequestService.getItemRequestsSortedAfter(userId, cursor, 1)).thenReturn(List.of(itemRequestDto));
+
+        mockMvc.perform(get("/requests/all")
+                        .header("X-Sharer-User-Id", userId)
+                        .param("size", "1")
+                        .param("cursor", cursor.encode())
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(header().string("X-Next-Cursor", KeysetCursor.of(created, 20L).encode()));
+        verify(itemRequestService).getItemRequestsSortedAfter(userId, cursor, 1);
+    }
+
+    @Test
+    public void getItemRequestsSorted_WithBrokenCursor_ShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get("/requests/all")
+                        .header("X-Sharer-User-Id", 1L)
+                        .param("size", "1")
+                        .param("cursor", "%%%")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     public void getItemRequestByIdTest() throws Exception {
         long userId = 1L;
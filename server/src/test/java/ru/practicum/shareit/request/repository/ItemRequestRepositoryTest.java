@@ -95,4 +95,28 @@ class ItemRequestRepositoryTest {
         assertEquals(1, requests.size());
         assertEquals(itemRequest1, requests.get(0));
     }
-}
\ No newline at end of file
+
+    @Test
+    void getItemRequestsSortedBefore_ShouldContinueAfterCursor() {
+        LocalDateTime created = LocalDateTime.of(2030, 1, 1, 10, 0);
+        ItemRequest newest = saveRequest(user1, created.plusHours(1));
+        ItemRequest tiedFirst = saveRequest(user1, created);
+        ItemRequest tiedSecond = saveRequest(user1, created);
+
+        List<ItemRequest> requests = itemRequestRepository.getItemRequestsSortedBefore(user2.getId(),
+                newest.getCreated(), newest.getId(), PageRequest.of(0, 2));
+
+        assertEquals(List.of(tiedSecond, tiedFirst), requests);
+        requests = itemRequestRepository.getItemRequestsSortedBefore(user2.getId(),
+                tiedFirst.getCreated(), tiedFirst.getId(), PageRequest.of(0, 2));
+        assertEquals(List.of(itemRequest1), requests);
+    }
+
+    private ItemRequest saveRequest(User requestor, LocalDateTime created) {
+        ItemRequest itemRequest = new ItemRequest();
+        itemRequest.setRequestor(requestor);
+        itemRequest.setCreated(created);
+        itemRequest.setDescription("item-request");
+        return itemRequestRepository.save(itemRequest);
+    }
+}